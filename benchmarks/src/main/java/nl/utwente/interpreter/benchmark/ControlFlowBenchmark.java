@@ -0,0 +1,74 @@
+package nl.utwente.interpreter.benchmark;
+
+import nl.utwente.interpreter.ExecutionResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ways a program repeats itself: LOOP with VARYING, PERFORM THROUGH with TIMES, and jumping back with GO TO.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControlFlowBenchmark {
+
+    @State(Scope.Thread)
+    public static class Varying extends ProgramState {
+        @Param({"10000"})
+        public int iterations;
+
+        @Param({"INTERPRET", "ADAPTIVE"})
+        public String tier;
+
+        @Setup
+        public void setup() {
+            load(Programs.varying(iterations), tier);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PerformThrough extends ProgramState {
+        @Param({"10000"})
+        public int iterations;
+
+        @Param({"INTERPRET", "ADAPTIVE"})
+        public String tier;
+
+        @Setup
+        public void setup() {
+            load(Programs.performThrough(iterations), tier);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class GoTo extends ProgramState {
+        @Param({"10000"})
+        public int iterations;
+
+        @Param({"INTERPRET", "ADAPTIVE"})
+        public String tier;
+
+        @Setup
+        public void setup() {
+            load(Programs.goTo(iterations), tier);
+        }
+    }
+
+    @Benchmark
+    public ExecutionResult varying(Varying program) {
+        return program.run();
+    }
+
+    @Benchmark
+    public ExecutionResult performThrough(PerformThrough program) {
+        return program.run();
+    }
+
+    @Benchmark
+    public ExecutionResult goTo(GoTo program) {
+        return program.run();
+    }
+}
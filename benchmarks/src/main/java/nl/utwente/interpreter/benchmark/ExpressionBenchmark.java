@@ -0,0 +1,33 @@
+package nl.utwente.interpreter.benchmark;
+
+import nl.utwente.interpreter.ExecutionResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arithmetic and boolean expressions, as conditions of IF and subjects of EVALUATE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionBenchmark extends ProgramState {
+    @Param({"10000"})
+    public int iterations;
+
+    @Param({"INTERPRET", "ADAPTIVE"})
+    public String tier;
+
+    @Setup
+    public void setup() {
+        load(Programs.expressions(iterations), tier);
+    }
+
+    @Benchmark
+    public ExecutionResult expressions() {
+        return run();
+    }
+}
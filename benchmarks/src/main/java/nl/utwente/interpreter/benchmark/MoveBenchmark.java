@@ -0,0 +1,33 @@
+package nl.utwente.interpreter.benchmark;
+
+import nl.utwente.interpreter.ExecutionResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MOVE of a record to a record, both to one with the same layout and to one whose fields have to be matched by name.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveBenchmark extends ProgramState {
+    @Param({"10000"})
+    public int iterations;
+
+    @Param({"INTERPRET", "ADAPTIVE"})
+    public String tier;
+
+    @Setup
+    public void setup() {
+        load(Programs.moveRecord(iterations), tier);
+    }
+
+    @Benchmark
+    public ExecutionResult moveRecord() {
+        return run();
+    }
+}
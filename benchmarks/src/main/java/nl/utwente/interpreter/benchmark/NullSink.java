@@ -0,0 +1,28 @@
+package nl.utwente.interpreter.benchmark;
+
+import nl.utwente.interpreter.output.OutputSink;
+
+/**
+ * Drops the output of a program, so benchmarks measure the interpreter and not the terminal. The length of what
+ * was written is kept, so the writes cannot be optimized away.
+ */
+final class NullSink implements OutputSink {
+    private long length = 0;
+
+    @Override
+    public void write(String text) {
+        length += text.length();
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    long getLength() {
+        return length;
+    }
+}
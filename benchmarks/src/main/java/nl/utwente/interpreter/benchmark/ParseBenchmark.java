@@ -0,0 +1,85 @@
+package nl.utwente.interpreter.benchmark;
+
+import nl.utwente.interpreter.Interpreter;
+import nl.utwente.interpreter.ProgramImage;
+import nl.utwente.interpreter.generator.ProgramGenerator;
+import org.antlr.v4.runtime.CharStreams;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lexing, parsing and analysing a program, without running it: the work of {@link Interpreter#load}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Generated {
+        /**
+         * The number of paragraphs, each is eight lines.
+         */
+        @Param({"100", "1000", "10000"})
+        public int paragraphs;
+
+        String source;
+
+        @Setup
+        public void setup() {
+            source = Programs.paragraphs(paragraphs);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Synthetic {
+        /**
+         * The number of paragraphs of a {@link ProgramGenerator} program, with the default options each is about
+         * ninety lines.
+         */
+        @Param({"100", "1000", "10000"})
+        public int paragraphs;
+
+        String source;
+
+        @Setup
+        public void setup() {
+            var generator = new ProgramGenerator();
+            generator.setParagraphs(paragraphs);
+            generator.setFields(paragraphs);
+            source = generator.generate(1).getSource();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Testfile {
+        @Param({"perform.baby", "tiers.baby", "expressions.baby", "record.baby"})
+        public String file;
+
+        String source;
+
+        @Setup
+        public void setup() throws IOException {
+            source = Programs.testfile(file);
+        }
+    }
+
+    @Benchmark
+    public ProgramImage generated(Generated program) {
+        return new Interpreter().load(CharStreams.fromString(program.source));
+    }
+
+    @Benchmark
+    public ProgramImage synthetic(Synthetic program) {
+        return new Interpreter().load(CharStreams.fromString(program.source));
+    }
+
+    @Benchmark
+    public ProgramImage testfile(Testfile program) {
+        return new Interpreter().load(CharStreams.fromString(program.source));
+    }
+}
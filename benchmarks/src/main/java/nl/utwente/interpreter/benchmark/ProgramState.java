@@ -0,0 +1,31 @@
+package nl.utwente.interpreter.benchmark;
+
+import nl.utwente.interpreter.Engine;
+import nl.utwente.interpreter.ExecutionResult;
+import nl.utwente.interpreter.ProgramImage;
+import nl.utwente.interpreter.vm.Tier;
+import org.antlr.v4.runtime.CharStreams;
+
+/**
+ * A program that is loaded once, before the benchmark, and run by every invocation with its output dropped.
+ */
+public abstract class ProgramState {
+    private final Engine engine = new Engine();
+    private ProgramImage image;
+
+    /**
+     * @param tier INTERPRET, COMPILE or ADAPTIVE
+     */
+    void load(String source, String tier) {
+        engine.setTier(Tier.valueOf(tier));
+        image = engine.load(CharStreams.fromString(source));
+    }
+
+    ExecutionResult run() {
+        var result = engine.run(image, null, new NullSink());
+        if (!result.isSuccess()) {
+            throw result.getError();
+        }
+        return result;
+    }
+}
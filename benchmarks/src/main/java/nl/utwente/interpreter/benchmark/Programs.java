@@ -0,0 +1,196 @@
+package nl.utwente.interpreter.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The programs the benchmarks run: the test files of the interpreter, and generated programs whose size can be
+ * chosen.
+ */
+final class Programs {
+    /**
+     * Where the test files are, relative to this module. Can be changed with -Dbabycobol.testfiles=DIRECTORY.
+     */
+    private static final Path TESTFILES = Path.of(System.getProperty("babycobol.testfiles",
+            "../test/nl/utwente/interpreter/testfiles"));
+
+    private Programs() {
+    }
+
+    static String testfile(String name) throws IOException {
+        return Files.readString(TESTFILES.resolve(name));
+    }
+
+    /**
+     * A program with the given number of paragraphs, each with a few sentences of the common statements.
+     */
+    static String paragraphs(int paragraphs) {
+        var source = header("Paragraphs");
+        source.append("DATA DIVISION\n")
+                .append("01 A PICTURE IS 9999.\n")
+                .append("01 B PICTURE IS 9999.\n")
+                .append("PROCEDURE DIVISION.\n");
+        for (int i = 1; i <= paragraphs; i++) {
+            source.append("P").append(i).append(".\n")
+                    .append("    MOVE ").append(i % 1000).append(" TO A.\n")
+                    .append("    ADD 1 TO A GIVING B.\n")
+                    .append("    IF A > 5 AND NOT B = 7 THEN\n")
+                    .append("        DISPLAY \"BIG\" A\n")
+                    .append("    ELSE\n")
+                    .append("        DISPLAY B\n")
+                    .append("    END.\n");
+        }
+        return source.toString();
+    }
+
+    /**
+     * A data division with the given number of records, each a tree of groups with the given depth and the given
+     * number of children per group. The fields of a record are F1, F2 and so on, every record has the same names,
+     * so a field is only found when it is qualified by its record.
+     */
+    static String dataDivision(int records, int depth, int width) {
+        var source = header("DataDivision");
+        source.append("DATA DIVISION\n");
+        for (int r = 1; r <= records; r++) {
+            source.append("01 R").append(r).append(".\n");
+            group(source, 2, depth, width, new int[2]);
+        }
+        source.append("PROCEDURE DIVISION.\n")
+                .append("MAIN.\n")
+                .append("    DISPLAY \"DONE\".\n");
+        return source.toString();
+    }
+
+    /**
+     * @return the number of fields in every record of {@link #dataDivision}
+     */
+    static int fieldsPerRecord(int depth, int width) {
+        return (int) Math.pow(width, depth - 1);
+    }
+
+    /**
+     * @param counters the number of groups and fields in the record so far
+     */
+    private static void group(StringBuilder source, int level, int depth, int width, int[] counters) {
+        String number = String.format("%02d", level * 2 - 1);
+        for (int i = 1; i <= width; i++) {
+            if (level < depth) {
+                source.append(number).append(" G").append(++counters[0]).append(".\n");
+                group(source, level + 1, depth, width, counters);
+            } else {
+                source.append(number).append(" F").append(++counters[1]).append(" PICTURE IS 9999.\n");
+            }
+        }
+    }
+
+    /**
+     * Arithmetic and boolean expressions in IF and EVALUATE, evaluated the given number of times.
+     */
+    static String expressions(int iterations) {
+        return header("Expressions")
+                + "DATA DIVISION\n"
+                + "01 A PICTURE IS 9999.\n"
+                + "01 B PICTURE IS 9999.\n"
+                + "01 I PICTURE IS 99999999.\n"
+                + "PROCEDURE DIVISION.\n"
+                + "MAIN.\n"
+                + "    MOVE 3 TO B\n"
+                + "    LOOP\n"
+                + "        VARYING I FROM 1 TO " + iterations + "\n"
+                + "        IF I * 2 + B > 7 AND NOT I = 5 OR B < 2 THEN\n"
+                + "            ADD 1 TO A\n"
+                + "        END\n"
+                + "        EVALUATE I * 3 - B ** 2\n"
+                + "            WHEN 0 ADD 1 TO A\n"
+                + "            WHEN 1 SUBTRACT 1 FROM A\n"
+                + "        END\n"
+                + "    END.\n"
+                + "    DISPLAY A.\n";
+    }
+
+    /**
+     * A LOOP with VARYING that runs the given number of times.
+     */
+    static String varying(int iterations) {
+        return header("Varying")
+                + "DATA DIVISION\n"
+                + "01 A PICTURE IS 9999.\n"
+                + "01 I PICTURE IS 99999999.\n"
+                + "PROCEDURE DIVISION.\n"
+                + "MAIN.\n"
+                + "    LOOP\n"
+                + "        VARYING I FROM 1 TO " + iterations + "\n"
+                + "        ADD 1 TO A\n"
+                + "    END.\n"
+                + "    DISPLAY A.\n";
+    }
+
+    /**
+     * A PERFORM THROUGH of three paragraphs, the given number of times.
+     */
+    static String performThrough(int iterations) {
+        return header("PerformThrough")
+                + "DATA DIVISION\n"
+                + "01 N PICTURE IS 99999999.\n"
+                + "PROCEDURE DIVISION.\n"
+                + "MAIN.\n"
+                + "    PERFORM FIRST THROUGH THIRD " + iterations + " TIMES.\n"
+                + "    GO TO FINISH.\n"
+                + "FIRST.\n"
+                + "    ADD 1 TO N.\n"
+                + "SECOND.\n"
+                + "    ADD 2 TO N.\n"
+                + "THIRD.\n"
+                + "    SUBTRACT 1 FROM N.\n"
+                + "FINISH.\n"
+                + "    DISPLAY N.\n";
+    }
+
+    /**
+     * A loop made with GO TO, that jumps back the given number of times.
+     */
+    static String goTo(int iterations) {
+        return header("GoTo")
+                + "DATA DIVISION\n"
+                + "01 N PICTURE IS 99999999.\n"
+                + "PROCEDURE DIVISION.\n"
+                + "MAIN.\n"
+                + "    MOVE 0 TO N.\n"
+                + "AGAIN.\n"
+                + "    ADD 1 TO N.\n"
+                + "    IF N < " + iterations + " THEN GO TO AGAIN END.\n"
+                + "FINISH.\n"
+                + "    DISPLAY N.\n";
+    }
+
+    /**
+     * Moves a record to a record with the same layout, copied at once, and to one with its fields the other way
+     * around, copied field by field. Both the given number of times.
+     */
+    static String moveRecord(int iterations) {
+        return header("MoveRecord")
+                + "DATA DIVISION\n"
+                + "01 SRC.\n"
+                + "03 K PICTURE IS 9999.\n"
+                + "03 T PICTURE IS XXXXXXXX.\n"
+                + "01 DST LIKE SRC.\n"
+                + "01 ALT.\n"
+                + "03 T PICTURE IS XXXXXXXX.\n"
+                + "03 K PICTURE IS 9999.\n"
+                + "PROCEDURE DIVISION.\n"
+                + "MAIN.\n"
+                + "    MOVE \"RECORD\" TO T OF SRC\n"
+                + "    LOOP\n"
+                + "        VARYING I FROM 1 TO " + iterations + "\n"
+                + "        MOVE I TO K OF SRC\n"
+                + "        MOVE SRC TO DST\n"
+                + "        MOVE SRC TO ALT\n"
+                + "    END.\n"
+                + "    DISPLAY DST ALT.\n";
+    }
+
+    private static StringBuilder header(String name) {
+        return new StringBuilder("IDENTIFICATION DIVISION. A. \"").append(name).append("\".\n");
+    }
+}
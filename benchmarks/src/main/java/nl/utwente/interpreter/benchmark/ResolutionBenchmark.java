@@ -0,0 +1,89 @@
+package nl.utwente.interpreter.benchmark;
+
+import nl.utwente.interpreter.Engine;
+import nl.utwente.interpreter.model.Tree;
+import nl.utwente.interpreter.symbol.Symbol;
+import nl.utwente.interpreter.symbol.SymbolTable;
+import nl.utwente.interpreter.symbol.WorkingStorage;
+import org.antlr.v4.runtime.CharStreams;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding a field in the data division by its qualified name, and assigning a value to it, by the size and depth
+ * of the data division.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResolutionBenchmark {
+    @Param({"10", "100"})
+    public int records;
+
+    @Param({"2", "4"})
+    public int depth;
+
+    @Param({"4"})
+    public int width;
+
+    private final List<Tree> roots = new ArrayList<>();
+    private List<String> path;
+    private String name;
+    private SymbolTable symbols;
+    private WorkingStorage memory;
+    private Symbol field;
+
+    @Setup
+    public void setup() {
+        var image = new Engine().load(CharStreams.fromString(Programs.dataDivision(records, depth, width)));
+        symbols = image.getSymbols();
+        for (int r = 1; r <= records; r++) {
+            roots.add(symbols.field(symbols.resolve("R" + r)));
+        }
+        // The last field of the last record, the one found last
+        String last = "F" + Programs.fieldsPerRecord(depth, width);
+        path = List.of(last, "R" + records);
+        name = last + "OFR" + records;
+        memory = new WorkingStorage(symbols, image.getStorage());
+        field = symbols.resolve(name);
+    }
+
+    /**
+     * The search the symbol table does for every name it resolves.
+     */
+    @Benchmark
+    public List<Tree> getNodesFromPath() {
+        List<Tree> nodes = new ArrayList<>();
+        for (var root : roots) {
+            root.getNodesFromPath(path, nodes);
+        }
+        return nodes;
+    }
+
+    /**
+     * Resolving a name the program does not use. The table is frozen once the program is loaded, so the name is
+     * looked up every time, like every identifier is once before the program runs.
+     */
+    @Benchmark
+    public Symbol resolve() {
+        return symbols.resolve(name);
+    }
+
+    @Benchmark
+    public WorkingStorage writeNumber() {
+        memory.write(field, 42L);
+        return memory;
+    }
+
+    @Benchmark
+    public WorkingStorage writeText() {
+        memory.write(field, "17");
+        return memory;
+    }
+}
@@ -7,7 +7,9 @@ name            :   IDENTIFIER;
 value           :   LITERAL;
 
 data            :   DATA DIVISION variable*;
-variable        :   level IDENTIFIER (PICTURE IS representation | LIKE identifiers)? (OCCURS INT TIMES)? DOT;
+variable        :   level IDENTIFIER (PICTURE IS representation | LIKE identifiers)? (OCCURS INT TIMES tableKey* tableIndex?)? DOT;
+tableKey        :   (ASCENDING | DESCENDING) KEY IS IDENTIFIER+;
+tableIndex      :   INDEXED BY IDENTIFIER;
 level           :   INT;
 representation  :   (NINE | X); // NOTE: This makes it impossible to use these as variable names
 
@@ -34,6 +36,7 @@ statement       :
                 |   gotoStatement
                 |   signal
                 |   alter
+                |   search
                 );
 
 label           :   IDENTIFIER;
@@ -53,6 +56,7 @@ loop            :   LOOP loopExpression* END;
 gotoStatement   :   GO TO name;
 signal          :   SIGNAL (label | OFF) ONERROR; // TODO: NOTE: identifiers can only be an identifier of a paragraph here
 alter           :   ALTER l1=label TO PROCEED TO l2=label;
+search          :   SEARCH ALL? identifiers (AT END atEnd+=statement+)? whenSearch+ END; // NOTE: This and the keys of OCCURS make their keywords unusable as variable names
 
 anyExpression   :   arithmeticExpression
                 |   stringExpression
@@ -107,12 +111,15 @@ whenBlock       :   WHEN anyExpression+ statement+      #whenAnyExpression
                 |   WHEN OTHER statement+               #whenOther
                 ;
 
+whenSearch      :   WHEN booleanExpression statement+;
+
 atomic          :   INT                         #intLiteral
                 |   LITERAL                     #stringLiteral
                 |   identifiers                 #identifier
                 ;
 
-identifiers     :   IDENTIFIER (OF IDENTIFIER)* ('(' INT ')')?;
+identifiers     :   IDENTIFIER (OF IDENTIFIER)* ('(' subscript+ ')')?;
+subscript       :   INT | identifiers;
 
 // Keywords & symbol names
 IDENTIFICATION: 'IDENTIFICATION';
@@ -172,6 +179,13 @@ ONERROR:    'ON ERROR';
 OFF:        'OFF';
 ALTER:      'ALTER';
 PROCEED:    'PROCEED';
+SEARCH:     'SEARCH';
+ALL:        'ALL';
+AT:         'AT';
+ASCENDING:  'ASCENDING';
+DESCENDING: 'DESCENDING';
+KEY:        'KEY';
+INDEXED:    'INDEXED';
 NINE:       [9]+;
 X:          [X]+;
 
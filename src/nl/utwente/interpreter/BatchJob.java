@@ -0,0 +1,141 @@
+package nl.utwente.interpreter;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * One program of a batch, with the file its ACCEPT values are read from and the name its output is stored under.
+ */
+public final class BatchJob {
+    private final String name;
+    private final Path program;
+    private final Path input;
+
+    /**
+     * @param input the values for ACCEPT, or null if the program gets no input
+     */
+    public BatchJob(String name, Path program, Path input) {
+        this.name = name;
+        this.program = program;
+        this.input = input;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Path getProgram() {
+        return program;
+    }
+
+    public Path getInput() {
+        return input;
+    }
+
+    /**
+     * Finds the programs of a batch, which is one of:
+     * <ul>
+     * <li>a directory: every .baby file in it or below it, with the .txt file of the same name as its input</li>
+     * <li>a glob like {@code jobs/*.baby}: every matching .baby file, with its input found the same way</li>
+     * <li>a manifest: a file with a program on every line, optionally followed by its input file. Paths are
+     * relative to the manifest, empty lines and lines starting with # are skipped</li>
+     * </ul>
+     * Every job gets a unique name based on the path of its program.
+     */
+    public static List<BatchJob> find(String batch) throws IOException {
+        List<Path[]> programs;
+        Path root;
+        if (firstWildcard(batch) < batch.length()) {
+            root = globRoot(batch);
+            var matcher = FileSystems.getDefault().getPathMatcher("glob:" + batch);
+            try (Stream<Path> files = Files.walk(root)) {
+                programs = files.filter(file -> matcher.matches(file) && Files.isRegularFile(file))
+                        .sorted()
+                        .map(file -> new Path[]{file, inputOf(file)})
+                        .collect(Collectors.toList());
+            }
+        } else if (Files.isDirectory(Path.of(batch))) {
+            root = Path.of(batch);
+            try (Stream<Path> files = Files.walk(root)) {
+                programs = files.filter(file -> file.toString().endsWith(".baby") && Files.isRegularFile(file))
+                        .sorted()
+                        .map(file -> new Path[]{file, inputOf(file)})
+                        .collect(Collectors.toList());
+            }
+        } else {
+            var manifest = Path.of(batch);
+            root = manifest.toAbsolutePath().getParent();
+            programs = new ArrayList<>();
+            for (var line : Files.readAllLines(manifest)) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                var parts = line.split("\\s+");
+                if (parts.length > 2) {
+                    throw new IOException("Invalid manifest line: " + line);
+                }
+                programs.add(new Path[]{root.resolve(parts[0]), parts.length > 1 ? root.resolve(parts[1]) : null});
+            }
+        }
+
+        List<BatchJob> jobs = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (var p : programs) {
+            String name = nameOf(root, p[0]);
+            String unique = name;
+            for (int n = 2; !names.add(unique); n++) {
+                unique = name + "-" + n;
+            }
+            jobs.add(new BatchJob(unique, p[0], p[1]));
+        }
+        return jobs;
+    }
+
+    /**
+     * The directory to search for a glob: the part of it before the first wildcard. Paths are walked the way they
+     * are written in the glob, so they can be matched against it.
+     */
+    private static Path globRoot(String glob) {
+        String prefix = glob.substring(0, firstWildcard(glob));
+        int slash = prefix.lastIndexOf('/');
+        return Path.of(slash < 0 ? "" : prefix.substring(0, slash + 1));
+    }
+
+    private static int firstWildcard(String glob) {
+        int first = glob.length();
+        for (char c : new char[]{'*', '?', '{', '['}) {
+            int i = glob.indexOf(c);
+            if (i >= 0 && i < first) {
+                first = i;
+            }
+        }
+        return first;
+    }
+
+    private static Path inputOf(Path program) {
+        String file = program.getFileName().toString();
+        var input = program.resolveSibling(file.substring(0, file.length() - ".baby".length()) + ".txt");
+        return file.endsWith(".baby") && Files.isRegularFile(input) ? input : null;
+    }
+
+    private static String nameOf(Path root, Path program) {
+        var relative = root.toAbsolutePath().normalize().relativize(program.toAbsolutePath().normalize());
+        // Programs outside the root are known by their file name only.
+        String name = relative.startsWith("..") ? program.getFileName().toString() : relative.toString();
+        if (name.endsWith(".baby")) {
+            name = name.substring(0, name.length() - ".baby".length());
+        }
+        return name.replace('/', '_').replace('\\', '_');
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,165 @@
+package nl.utwente.interpreter;
+
+import nl.utwente.interpreter.input.MappedFileSource;
+import nl.utwente.interpreter.output.ChannelSink;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs a batch of independent programs in parallel, on a work-stealing pool with a thread for every core.
+ * <p>
+ * The output of every program goes to its own file, named after the job. All programs share one {@link Engine},
+ * so they share the DFA cache of the parser, the parse tree cache if there is one, and the JIT profile of the
+ * interpreter. A program that is part of the batch more than once, with different input, is loaded once.
+ */
+public class BatchRunner {
+    private final Engine engine;
+    private final Path outputDirectory;
+    private final int parallelism;
+    private final Map<Path, CompletableFuture<ProgramImage>> images = new ConcurrentHashMap<>();
+
+    public BatchRunner(Engine engine, Path outputDirectory, int parallelism) {
+        this.engine = engine;
+        this.outputDirectory = outputDirectory;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * How one job of the batch ended.
+     */
+    public static final class Outcome {
+        private final BatchJob job;
+        private final ExecutionResult result;
+        private final long wallNanos;
+
+        Outcome(BatchJob job, ExecutionResult result, long wallNanos) {
+            this.job = job;
+            this.result = result;
+            this.wallNanos = wallNanos;
+        }
+
+        public BatchJob getJob() {
+            return job;
+        }
+
+        public ExecutionResult getResult() {
+            return result;
+        }
+
+        /**
+         * @return the time from starting to load the program until its output was written, in nanoseconds
+         */
+        public long getWallNanos() {
+            return wallNanos;
+        }
+    }
+
+    /**
+     * Runs every job and waits until all of them are done.
+     *
+     * @return the outcome of every job, in the order of the jobs
+     */
+    public List<Outcome> run(List<BatchJob> jobs) throws IOException {
+        Files.createDirectories(outputDirectory);
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            List<CompletableFuture<Outcome>> running = new ArrayList<>();
+            for (var job : jobs) {
+                running.add(CompletableFuture.supplyAsync(() -> run(job), pool));
+            }
+            List<Outcome> outcomes = new ArrayList<>();
+            for (var outcome : running) {
+                outcomes.add(outcome.join());
+            }
+            return outcomes;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Outcome run(BatchJob job) {
+        long start = System.nanoTime();
+        ExecutionResult result;
+        try {
+            var image = load(job.getProgram());
+            var file = outputDirectory.resolve(job.getName() + ".out");
+            var input = job.getInput() != null ? new MappedFileSource(job.getInput()) : null;
+            try (var output = new ChannelSink(FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+                result = engine.run(image, input, output);
+            } finally {
+                if (input != null) {
+                    input.close();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            var error = e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e.getMessage(), e);
+            result = new ExecutionResult(ExecutionResult.Status.FAILED, null, error, 0);
+        }
+        return new Outcome(job, result, System.nanoTime() - start);
+    }
+
+    /**
+     * Loads every program once, jobs that need a program that is being loaded wait for it.
+     */
+    private ProgramImage load(Path program) throws IOException {
+        var key = program.toAbsolutePath().normalize();
+        var loading = new CompletableFuture<ProgramImage>();
+        var loaded = images.putIfAbsent(key, loading);
+        if (loaded == null) {
+            try {
+                loading.complete(engine.load(key));
+            } catch (IOException | RuntimeException e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+            return loading.join();
+        }
+        try {
+            return loaded.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    /**
+     * Prints the status and wall time of every job, then the totals. Jobs that failed get their error.
+     */
+    public static void printSummary(List<Outcome> outcomes, long wallNanos, PrintStream out) {
+        int width = 4;
+        for (var outcome : outcomes) {
+            width = Math.max(width, outcome.getJob().getName().length());
+        }
+        String row = "%-" + width + "s  %-9s  %10s%n";
+        out.printf(row, "JOB", "STATUS", "WALL (ms)");
+        int failed = 0;
+        long total = 0;
+        for (var outcome : outcomes) {
+            var result = outcome.getResult();
+            out.printf(row, outcome.getJob().getName(), result.getStatus(),
+                    String.format("%.1f", outcome.getWallNanos() / 1e6));
+            if (!result.isSuccess()) {
+                failed++;
+                out.println("    " + result.getError().getMessage());
+            }
+            total += outcome.getWallNanos();
+        }
+        out.printf("%d programs, %d failed, %.1f ms in total, %.1f ms wall time%n", outcomes.size(), failed,
+                total / 1e6, wallNanos / 1e6);
+    }
+}
@@ -0,0 +1,163 @@
+package nl.utwente.interpreter;
+
+import nl.utwente.interpreter.cache.ProgramCache;
+import nl.utwente.interpreter.exception.BudgetExceededException;
+import nl.utwente.interpreter.exception.CancelledException;
+import nl.utwente.interpreter.exception.InterpreterException;
+import nl.utwente.interpreter.input.InputSource;
+import nl.utwente.interpreter.input.QueueSource;
+import nl.utwente.interpreter.output.CaptureSink;
+import nl.utwente.interpreter.output.FlushPolicy;
+import nl.utwente.interpreter.output.OutputSink;
+import nl.utwente.interpreter.vm.Budget;
+import nl.utwente.interpreter.vm.Tier;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs BabyCobol programs inside a JVM that outlives them, for code that embeds the interpreter.
+ * <p>
+ * A program is loaded once into a {@link ProgramImage} and can then be run any number of times. Every run gets its
+ * own working storage, input and output, and STOP only ends that run. Loading and running are safe to do from
+ * several threads at once; the generated code and the JIT profile of a program are shared by all of its runs.
+ */
+public class Engine {
+    private Tier tier = Tier.ADAPTIVE;
+    private int compileThreshold = Tier.DEFAULT_THRESHOLD;
+    private FlushPolicy flushPolicy = FlushPolicy.ON_STOP;
+    private ProgramCache cache = null;
+    private Budget budget = Budget.UNLIMITED;
+
+    public void setTier(Tier tier) {
+        this.tier = tier;
+    }
+
+    public void setCompileThreshold(int compileThreshold) {
+        this.compileThreshold = compileThreshold;
+    }
+
+    /**
+     * When the output of a run is flushed to the sink of the caller.
+     */
+    public void setFlushPolicy(FlushPolicy flushPolicy) {
+        this.flushPolicy = flushPolicy;
+    }
+
+    public void setCache(ProgramCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * What every run may use. A run that goes over it ends with {@link ExecutionResult.Status#BUDGET_EXCEEDED}.
+     */
+    public void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * @throws InterpreterException if the program contains syntax errors
+     */
+    public ProgramImage load(Path path) throws IOException {
+        return load(CharStreams.fromPath(path));
+    }
+
+    /**
+     * @throws InterpreterException    if the program contains syntax errors
+     * @throws BudgetExceededException if its data division is larger than the working storage of the budget
+     */
+    public ProgramImage load(CharStream source) {
+        // An interpreter counts the errors of what it parses, so every program gets its own.
+        var interpreter = new Interpreter();
+        interpreter.setCache(cache);
+        interpreter.setBudget(budget);
+        var image = interpreter.load(source);
+        if (image == null) {
+            throw new InterpreterException("The program contains " + interpreter.getErrorCount() + " syntax errors");
+        }
+        return image;
+    }
+
+    /**
+     * Runs the program and keeps what it displays in the result.
+     *
+     * @param input the values for ACCEPT, or null if the program gets no input
+     */
+    public ExecutionResult run(ProgramImage image, InputSource input) {
+        var output = new CaptureSink();
+        return run(image, input, output).withOutput(output.getText());
+    }
+
+    /**
+     * Runs the program and writes what it displays to the given sink. The sink is flushed, but not closed.
+     *
+     * @param input the values for ACCEPT, or null if the program gets no input
+     */
+    public ExecutionResult run(ProgramImage image, InputSource input, OutputSink output) {
+        return run(image, input, output, null);
+    }
+
+    /**
+     * Runs the program and writes what it displays to the given sink. The sink is flushed, but not closed.
+     *
+     * @param input   the values for ACCEPT, or null if the program gets no input
+     * @param timeout how long the program may run before it is cancelled, or null to let it run until it ends
+     */
+    public ExecutionResult run(ProgramImage image, InputSource input, OutputSink output, Duration timeout) {
+        Execution execution;
+        try {
+            execution = image.newExecution(null, tier, compileThreshold, budget);
+        } catch (BudgetExceededException e) {
+            return new ExecutionResult(ExecutionResult.Status.BUDGET_EXCEEDED, null, e, 0);
+        }
+        execution.setOutput(output, flushPolicy);
+        execution.setInput(input != null ? input : noInput());
+        var deadline = timeout != null
+                ? Timer.INSTANCE.schedule(execution::cancel, timeout.toNanos(), TimeUnit.NANOSECONDS) : null;
+        long start = System.nanoTime();
+        try {
+            execution.run();
+        } catch (BudgetExceededException e) {
+            return new ExecutionResult(ExecutionResult.Status.BUDGET_EXCEEDED, null, e, System.nanoTime() - start);
+        } catch (CancelledException e) {
+            return new ExecutionResult(ExecutionResult.Status.TIMED_OUT, null, e, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            return new ExecutionResult(ExecutionResult.Status.FAILED, null, e, System.nanoTime() - start);
+        } finally {
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+        }
+        var status = execution.isStopped() ? ExecutionResult.Status.STOPPED : ExecutionResult.Status.COMPLETED;
+        return new ExecutionResult(status, null, null, System.nanoTime() - start);
+    }
+
+    private static InputSource noInput() {
+        var input = new QueueSource();
+        input.end();
+        return input;
+    }
+
+    /**
+     * Cancels the programs that run out of time. Its thread is only started once a timeout is used.
+     */
+    private static final class Timer {
+        static final ScheduledThreadPoolExecutor INSTANCE = create();
+
+        private static ScheduledThreadPoolExecutor create() {
+            var timer = new ScheduledThreadPoolExecutor(1, task -> {
+                var thread = new Thread(task, "babycobol-timeout");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Most programs end well before their deadline, their timeouts should not pile up.
+            timer.setRemoveOnCancelPolicy(true);
+            return timer;
+        }
+    }
+}
@@ -0,0 +1,739 @@
+package nl.utwente.interpreter;
+
+import nl.utwente.interpreter.ast.*;
+import nl.utwente.interpreter.exception.InterpreterException;
+import nl.utwente.interpreter.exception.StopException;
+import nl.utwente.interpreter.expression.Accessor;
+import nl.utwente.interpreter.expression.BooleanExpression;
+import nl.utwente.interpreter.expression.Scope;
+import nl.utwente.interpreter.input.ChannelSource;
+import nl.utwente.interpreter.input.InputSource;
+import nl.utwente.interpreter.model.Loop;
+import nl.utwente.interpreter.model.ProgramOutput;
+import nl.utwente.interpreter.model.Tree;
+import nl.utwente.interpreter.monitoring.Counters;
+import nl.utwente.interpreter.monitoring.Events;
+import nl.utwente.interpreter.monitoring.InterpreterMetrics;
+import nl.utwente.interpreter.node.*;
+import nl.utwente.interpreter.output.ChannelSink;
+import nl.utwente.interpreter.output.FlushPolicy;
+import nl.utwente.interpreter.output.OutputSink;
+import nl.utwente.interpreter.symbol.Symbol;
+import nl.utwente.interpreter.symbol.SymbolTable;
+import nl.utwente.interpreter.symbol.WorkingStorage;
+import nl.utwente.interpreter.vm.Budget;
+import nl.utwente.interpreter.vm.Executor;
+import nl.utwente.interpreter.vm.Machine;
+import nl.utwente.interpreter.vm.Profiler;
+import nl.utwente.interpreter.vm.Program;
+import nl.utwente.interpreter.vm.Tier;
+
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+
+/**
+ * One run of a {@link ProgramImage}. It holds everything that changes while the program runs: the working storage,
+ * the targets of ALTER and where the program is, the image itself is only read. An execution runs once, on one
+ * thread, any number of them can run the same image at the same time.
+ */
+public class Execution implements Scope, Executor {
+    private final SymbolTable symbols;
+    private final WorkingStorage memory;
+    private final Program program;
+    private final Object[] caches;
+    private final ProgramOutput testOutput;
+    private final Tier tier;
+    private final int compileThreshold;
+    private final Counters counters = new Counters();
+    private String signalParagraph = null;
+    private OutputSink output = ChannelSink.stdout(0);
+    private FlushPolicy flushPolicy = FlushPolicy.DEFAULT;
+    private InputSource input = null;
+    private Profiler profiler = null;
+    private final Budget budget;
+    private boolean stopped = false;
+    private volatile boolean cancelled = false;
+    private volatile Machine machine = null;
+
+    Execution(ProgramImage image, ProgramOutput testOutput, Tier tier, int compileThreshold, Budget budget) {
+        // The copy of the data division is refused before it is made
+        budget.checkStorage(image.getStorage().getBytes());
+        this.budget = budget;
+        this.symbols = image.getSymbols();
+        this.memory = new WorkingStorage(symbols, image.getStorage());
+        this.program = image.getProgram();
+        this.caches = new Object[program.getCacheSlots()];
+        this.testOutput = testOutput;
+        this.tier = tier;
+        this.compileThreshold = compileThreshold;
+    }
+
+    /**
+     * Sends the output of DISPLAY to the given sink instead of standard output. The sink is flushed, but not
+     * closed, when the program stops.
+     */
+    public void setOutput(OutputSink output, FlushPolicy flushPolicy) {
+        this.output = output;
+        this.flushPolicy = flushPolicy;
+    }
+
+    /**
+     * Reads the values of ACCEPT from the given source instead of standard input. The source is not closed.
+     */
+    public void setInput(InputSource input) {
+        this.input = input;
+    }
+
+    /**
+     * Measures where the time of the run goes. The paragraphs are then only interpreted, whatever the tier.
+     */
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Runs the program until it falls off its end or executes STOP. STOP only ends this execution.
+     */
+    public void run() {
+        var metrics = InterpreterMetrics.get();
+        metrics.start(counters);
+        try {
+            machine = new Machine(program, this, tier, compileThreshold, profiler);
+            if (cancelled) {
+                machine.cancel();
+            }
+            machine.run();
+        } finally {
+            output.flush();
+            metrics.finish(counters);
+        }
+    }
+
+    /**
+     * ADD, SUBTRACT, MULTIPLY and DIVIDE become nodes that specialize on the kinds of their operands, every other
+     * statement is executed as it is.
+     */
+    @Override
+    public StatementNode prepare(Statement statement) {
+        if (statement instanceof Add) {
+            var add = (Add) statement;
+            return new AddNode(add, this, () -> add(add));
+        } else if (statement instanceof Subtract) {
+            var subtract = (Subtract) statement;
+            return new SubtractNode(subtract, this, () -> subtract(subtract));
+        } else if (statement instanceof Multiply) {
+            var multiply = (Multiply) statement;
+            return new MultiplyNode(multiply, this, () -> multiply(multiply));
+        } else if (statement instanceof Divide) {
+            var divide = (Divide) statement;
+            return new DivideNode(divide, this, () -> divide(divide));
+        } else if (statement instanceof Display) {
+            var display = (Display) statement;
+            return () -> display(display);
+        } else if (statement instanceof Move) {
+            var move = (Move) statement;
+            return () -> move(move);
+        } else if (statement instanceof Accept) {
+            var accept = (Accept) statement;
+            return () -> accept(accept);
+        } else if (statement instanceof Signal) {
+            var signal = (Signal) statement;
+            return () -> signalParagraph = signal.getLabel();
+        } else if (statement instanceof Stop) {
+            return this::stop;
+        }
+        throw new InterpreterException(statement.getLine(), "Cannot execute " + statement.getClass().getSimpleName());
+    }
+
+    @Override
+    public WhenNode prepare(When when) {
+        return new WhenNode(when, this, this::evaluate);
+    }
+
+    @Override
+    public SearchNode prepare(Search search) {
+        return new SearchNode(search, this, memory, this::test);
+    }
+
+    @Override
+    public boolean test(BooleanExpression condition) {
+        counters.evaluation();
+        return condition.evaluate(this);
+    }
+
+    @Override
+    public Object evaluate(AnyExpression expression) {
+        counters.evaluation();
+        if (expression.getBooleanExpression() != null) {
+            return expression.getBooleanExpression().evaluate(this);
+        } else if (expression.getArithmeticExpression() != null) {
+            return expression.getArithmeticExpression().value(this);
+        }
+        var result = new StringBuilder();
+        for (var atomic : expression.getStringExpression()) {
+            result.append(valueOf(atomic));
+        }
+        return result.toString();
+    }
+
+    /**
+     * VARYING id=IDENTIFIER? (FROM from=atomic)? (TO to=atomic)? (BY by=atomic)?
+     *
+     * @param varying the VARYING part of the loop
+     * @param loop    the loop the VARYING belongs to
+     */
+    @Override
+    public void vary(Varying varying, Loop loop) {
+        if (!loop.hasVarying()) {
+            // Assume in case there is no picture the maximum value is 9
+            long maxValue = 0;
+            if (varying.getIdentifier() != null) {
+                var id = resolve(varying.getIdentifier());
+                // Fields from the data division determine the maximum value with their picture.
+                if (id.isField()) {
+                    var field = symbols.field(id);
+                    if (field.getPicture() != null) {
+                        switch (field.getPicture()) {
+                            // If it has picture X then throw an error,
+                            // else set the max value based on the picture of the id.
+                            case X -> {
+                                throw new RuntimeException("Cannot give non-numeric value");
+                            }
+                            case NINE -> {
+                                maxValue = field.getMaxNumber();
+                            }
+                        }
+                    } else {
+                        throw new InterpreterException(varying.getLine(), "Cannot give identifier without picture!");
+                    }
+                } else {
+                    if (varying.getTo() == null)
+                        throw new InterpreterException(varying.getLine(), "Given identifier "
+                                + varying.getIdentifier().getText()
+                                + " has no picture so a maximum loop value cannot be given!");
+                }
+            }
+            loop.initVarying(
+                    varying.getFrom() != null ? numberOf(varying.getFrom()) : 1,
+                    varying.getTo() != null ? numberOf(varying.getTo()) : maxValue,
+                    varying.getBy() != null ? numberOf(varying.getBy()) : 1
+            );
+        }
+
+        // Update index variable
+        memory.write(resolve(varying.getIdentifier()), loop.getVaryingValue());
+
+        loop.increment();
+    }
+
+    @Override
+    public long times(Atomic times) {
+        try {
+            return numberOf(times);
+        } catch (NumberFormatException e) {
+            throw new InterpreterException(e);
+        }
+    }
+
+    @Override
+    public String labelValue(String label) {
+        return memory.labelValue(label);
+    }
+
+    /**
+     * Ends the program at its next loop iteration or jump to a paragraph, run then throws a
+     * {@link nl.utwente.interpreter.exception.CancelledException}. Can be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+        var running = machine;
+        if (running != null) {
+            running.cancel();
+        }
+    }
+
+    /**
+     * @return true if the program ended with STOP, false if it ran past its last statement
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    @Override
+    public String getSignalParagraph() {
+        return signalParagraph;
+    }
+
+    /**
+     * @return what the execution did so far
+     */
+    @Override
+    public Counters getCounters() {
+        return counters;
+    }
+
+    @Override
+    public Budget getBudget() {
+        return budget;
+    }
+
+    @Override
+    public long getStorageBytes() {
+        return memory.getBytes();
+    }
+
+    @Override
+    public Object valueOf(Identifier identifier) {
+        var symbol = resolve(identifier);
+        if (symbol.isField() && symbols.field(symbol).isNumber()) {
+            return memory.getNumber(symbol);
+        }
+        return memory.read(symbol);
+    }
+
+    @Override
+    public Object[] caches() {
+        return caches;
+    }
+
+    @Override
+    public Accessor accessor(Identifier identifier) {
+        // The accessor is kept by the site, so it finds an occurrence with changing subscripts itself
+        counters.lookup();
+        return memory.accessor(symbols.resolve(identifier));
+    }
+
+    private void stop() {
+        stopped = true;
+        throw new StopException();
+    }
+
+    private void display(Display display) {
+        StringBuilder sb = new StringBuilder();
+        for (var atomic : display.getAtomics()) {
+            var value = valueOf(atomic);
+            if (value == null) {
+                return;
+            }
+            sb.append(" ").append(value);
+        }
+        String printString = sb.substring(1);
+        var event = Events.beginDisplay();
+        output.write(printString);
+        int characters = printString.length();
+
+        if (testOutput != null) {
+            testOutput.add(printString, display.getLine());
+        }
+
+        if (display.isAdvancing()) {
+            output.write(System.lineSeparator());
+            characters += System.lineSeparator().length();
+        }
+        counters.output(characters);
+        if (event != null) {
+            event.characters = characters;
+            event.commit();
+        }
+    }
+
+    private void accept(Accept accept) {
+        CharSequence val;
+        var event = Events.beginAccept();
+        if (flushPolicy.isOnAccept()) {
+            output.flush();
+        }
+        if (input == null) {
+            input = ChannelSource.stdin();
+        }
+        for (var i : accept.getIdentifiers()) {
+            val = input.next();
+            if (val == null) {
+                throw new NoSuchElementException("No input left for ACCEPT");
+            }
+            memory.accept(resolve(i), val);
+        }
+        if (event != null) {
+            event.values = accept.getIdentifiers().length;
+            event.commit();
+        }
+    }
+
+    /**
+     * Moves the value of a given atomic, or constant, to a set of identifiers.
+     * The constants are SPACES, LOW and HIGH
+     *
+     * @param move the move command
+     */
+    private void move(Move move) {
+        Object toAssign = null;
+        Long number = null;
+        Tree recordIdentifier = null;
+        // If the source is an identifier, check if it's a record or field.
+        // If it is a field we take it's value, else we take the node.
+        if (move.getSource() == Move.Source.ATOMIC) {
+            var atomic = move.getAtomic();
+            if (atomic.isIdentifier()) {
+                var source = resolve(atomic.getIdentifier());
+                if (source.isField() && symbols.field(source).isRecord()) {
+                    recordIdentifier = symbols.field(memory.element(source));
+                } else {
+                    toAssign = memory.read(source);
+                    // A number is moved to a number as it is, without going through its text
+                    if (source.isField() && symbols.field(source).isNumber()) {
+                        number = memory.getNumber(source);
+                    }
+                }
+            } else {
+                toAssign = atomic.getLiteral();
+            }
+        }
+
+        // We now start assigning the values to the identifiers
+        for (var i : move.getTargets()) {
+            var symbol = resolve(i);
+            // Variables that are not part of the data division simply get the value.
+            if (!symbol.isField()) {
+                if (toAssign != null) {
+                    memory.write(symbol, toAssign);
+                }
+                continue;
+            }
+            // Only a record or a figurative constant needs the occurrence of a table as a subtree.
+            var res = recordIdentifier != null || move.getSource() != Move.Source.ATOMIC
+                    ? symbols.field(memory.element(symbol)) : symbols.field(symbol);
+            // If both records have the same layout, the whole record is copied at once.
+            // Else if the atomic is a record then we take the leaves of the node and of the atomic.
+            // If they are identical, same picture level and name, then the leaf gets the value.
+            if (recordIdentifier != null && res.hasSameLayout(recordIdentifier)) {
+                res.copyFrom(memory.getStorage(), recordIdentifier);
+            } else if (recordIdentifier != null) {
+                var recordIdentifierLeaves =
+                        recordIdentifier.getLeaves(new HashMap<>(), 0);
+                var resultChildren =
+                        res.getLeaves(new HashMap<>(), 0);
+                for (var a : recordIdentifierLeaves.keySet()) {
+                    for (var r : resultChildren.keySet()) {
+                        if (r.getName().equals(a.getName()) &&
+                                recordIdentifierLeaves.get(a).equals(resultChildren.get(r))) {
+                            if (a.isNumber() && r.isNumber()) {
+                                r.setNumber(memory.getStorage(), a.getNumber(memory.getStorage()));
+                            } else {
+                                memory.assign(r, a.getValue(memory.getStorage()));
+                            }
+                        }
+                    }
+                }
+            } else {
+                // Else check first if an atomic or constant was used and based on the picture of the identifier
+                // assign a value.
+                switch (move.getSource()) {
+                    case ATOMIC -> memory.write(symbol, number != null && res.isNumber() ? number : toAssign);
+                    case LOW -> {
+                        switch (res.getPicture()) {
+                            case NINE -> res.fill(memory.getStorage(), '0');
+                            case X -> res.fill(memory.getStorage(), (char) 0);
+                        }
+                    }
+                    case HIGH -> {
+                        switch (res.getPicture()) {
+                            case NINE -> res.fill(memory.getStorage(), '9');
+                            case X -> res.fill(memory.getStorage(), (char) 255);
+                        }
+                    }
+                    case SPACES -> {
+                        switch (res.getPicture()) {
+                            case NINE -> res.fill(memory.getStorage(), '0');
+                            case X -> res.fill(memory.getStorage(), ' ');
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Subtract the sum of a list of atomics from another atomic.
+     *
+     * @param subtract the subtract command
+     */
+    private void subtract(Subtract subtract) {
+        var from = subtract.getFrom();
+        var identifier = subtract.getGiving();
+        if (from.getLiteral() instanceof Long && identifier == null) {
+            throw new InterpreterException(subtract.getLine(), "GIVING identifier is required!");
+        }
+        //Calculate the sum of the atomics
+        long sum = 0;
+        for (var a : subtract.getAtomics()) {
+            if (a.isIdentifier()) {
+                if (this.hasPictureNine(a)) {
+                    sum += numberOf(a);
+                } else {
+                    throw new RuntimeException("Cannot subtract identifier with picture different than 9");
+                }
+            } else {
+                try {
+                    sum += numberOf(a);
+                } catch (NumberFormatException e) {
+                    throw new RuntimeException("Cannot subtract a non-numeric value");
+                }
+            }
+        }
+        //Calculate the result of the subtraction
+        long result = 0;
+        if (from.isIdentifier()) {
+            if (this.hasPictureNine(from)) {
+                result = numberOf(from) - sum;
+            } else {
+                throw new RuntimeException("Cannot subtract identifier with picture different than 9");
+            }
+        } else {
+            try {
+                result = numberOf(from) - sum;
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Cannot subtract from a non-numeric value");
+            }
+        }
+
+        //Store the value into the given identifier or the from atomic.
+        if (identifier != null) {
+            memory.write(resolve(identifier), result);
+        } else {
+            this.setVariable(from, result);
+        }
+    }
+
+    /**
+     * Multiply atomic a by a list of atomics and store the product in the atomics.
+     * If GIVING keyword is used then store it in the identifier given.
+     *
+     * @param multiply the multiply command
+     */
+    private void multiply(Multiply multiply) {
+        var atomic = multiply.getAtomic();
+        var atomics = multiply.getAtomics();
+        var identifier = multiply.getGiving();
+
+        // Get the value of the first atomic
+        long product;
+        if (atomic.isIdentifier()) {
+            if (this.hasPictureNine(atomic)) {
+                product = numberOf(atomic);
+            } else {
+                throw new RuntimeException("Cannot multiply an identifier with picture different than 9");
+            }
+        } else {
+            try {
+                product = numberOf(atomic);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Atomic has non-numeric value");
+            }
+        }
+
+        // Multiply the list of atomics
+        // If the identifier is not given store the product to the atomic and then do it again.
+        // It does it again because if more atomics are given the second atomic will
+        // use the new value of the previous one in the product.
+        long prod = 1;
+        for (var a : atomics) {
+            prod = 1;
+            for (var b : atomics) {
+                if (b.isIdentifier()) {
+                    if (this.hasPictureNine(b)) {
+                        prod *= numberOf(b);
+                    } else {
+                        throw new RuntimeException("Cannot multiply an identifier with picture different than 9");
+                    }
+                } else {
+                    try {
+                        prod *= numberOf(b);
+                    } catch (NumberFormatException e) {
+                        throw new RuntimeException("Cannot multiply with non-numeric value");
+                    }
+                }
+            }
+            if (identifier == null) {
+                this.setVariable(a, prod * product);
+            }
+        }
+        // Get the variable from giving if it is not null.
+        if (identifier != null) {
+            memory.write(resolve(identifier), prod * product);
+        }
+    }
+
+    /**
+     * Two or more numeric values that should be stored
+     * <p>
+     * - all three arguments obey the rules of sufficient qualification
+     * - either of the first two arguments can be a literal
+     * - if the second argument is a literal, the third argument is mandatory
+     * - any of the three arguments can be an identifier defined with a numeric picture clause (free from A and X)
+     *
+     * @param add the add command
+     */
+    private void add(Add add) {
+        long sum = 0;
+        StringBuilder result = new StringBuilder();
+        boolean concat = false;
+        var to = add.getTo();
+
+        if (to.isIdentifier()) {
+            if (!this.hasPictureNine(to)) {
+                concat = true;
+            }
+        }
+
+        for (var atomic : add.getAtomics()) {
+            if (concat) {
+                result.append(valueOf(atomic).toString().trim());
+            } else {
+                sum += numberOf(atomic);
+            }
+        }
+
+        // There is no giving clause and there is no literal present as second argument, throw error.
+        if (add.getGiving() == null && !this.containsVariable(to)) {
+            throw new InterpreterException(add.getLine(), "GIVING clause not provided");
+        }
+        // There is no giving clause present but there is a variable present as second argument.
+        else if (add.getGiving() == null && this.containsVariable(to)) {
+            if (concat) {
+                this.setVariable(to, result.toString());
+            } else {
+                this.setVariable(to, sum);
+            }
+        }
+        // There is a giving clause, so assign the sum to this variable.
+        else {
+            if (concat) {
+                memory.write(resolve(add.getGiving()), result.toString());
+            } else {
+                memory.write(resolve(add.getGiving()), sum);
+            }
+        }
+    }
+
+    /**
+     * Divides the second value into the first value and (re)saves the first value as a variable.
+     * <p>
+     * - all four arguments obey the rules of sufficient qualification
+     * - either of the first two arguments can be a literal
+     * - if the first argument is a literal, the third argument is mandatory
+     * - any of the four arguments can be an identifier defined with a numeric picture clause (free from A and X)
+     *
+     * @param divide the divide command
+     */
+    private void divide(Divide divide) {
+        long prod = 1;
+        for (var a : divide.getAtomics()) {
+            if (a.isIdentifier()) {
+                if (this.hasPictureNine(a)) {
+                    prod *= numberOf(a);
+                } else {
+                    throw new RuntimeException("Cannot divide with an identifier with picture different than 9");
+                }
+            } else {
+                try {
+                    prod *= numberOf(a);
+                } catch (NumberFormatException e) {
+                    throw new RuntimeException("Cannot divide with non-numeric atomic");
+                }
+            }
+        }
+
+        var atomic = divide.getAtomic();
+        long value;
+        if (atomic.isIdentifier()) {
+            if (this.hasPictureNine(atomic)) {
+                value = numberOf(atomic);
+            } else {
+                throw new RuntimeException("Cannot divide identifier with picture different than 9");
+            }
+        } else {
+            try {
+                value = numberOf(atomic);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Cannot divide non-numeric atomic");
+            }
+        }
+
+        // There is no giving clause and there is no literal present as first argument, throw error.
+        if (divide.getGiving() == null && !this.containsVariable(atomic)) {
+            throw new InterpreterException(divide.getLine(), "GIVING clause not provided");
+        }
+        // There is no giving clause present but there is a variable present as first argument.
+        else if (divide.getGiving() == null && this.containsVariable(atomic)) {
+            this.setVariable(atomic, value / prod);
+        }
+        // There is a giving clause, so assign the sum to this variable.
+        else {
+            memory.write(resolve(divide.getGiving()), value / prod);
+        }
+
+        if (divide.getRemainder() != null) {
+            long remainder = value % prod;
+
+            memory.write(resolve(divide.getRemainder()), remainder);
+        }
+    }
+
+    /**
+     * The value of an atomic as DISPLAY shows it: a literal as written, a field by its text.
+     */
+    private Object valueOf(Atomic atomic) {
+        if (atomic.isIdentifier()) {
+            return memory.read(resolve(atomic.getIdentifier()));
+        }
+        return atomic.getLiteral();
+    }
+
+    /**
+     * The value of an atomic as a number, PICTURE 9 fields are read without going through their text.
+     *
+     * @throws NumberFormatException if the value is not a whole number
+     */
+    private long numberOf(Atomic atomic) {
+        if (atomic.isIdentifier()) {
+            var symbol = resolve(atomic.getIdentifier());
+            if (symbol.isField() && symbols.field(symbol).isNumber()) {
+                return memory.getNumber(symbol);
+            }
+            return Long.parseLong(memory.read(symbol).toString());
+        }
+        return Long.parseLong(atomic.getLiteral().toString());
+    }
+
+    /**
+     * Assigns a value to the target of ADD, SUBTRACT, MULTIPLY or DIVIDE, which can also be a literal.
+     */
+    private void setVariable(Atomic atomic, Object val) {
+        memory.write(symbolOf(atomic), val);
+    }
+
+    private boolean containsVariable(Atomic atomic) {
+        return memory.isSet(symbolOf(atomic));
+    }
+
+    private boolean hasPictureNine(Atomic atomic) {
+        return symbols.isNumeric(symbolOf(atomic));
+    }
+
+    private Symbol symbolOf(Atomic atomic) {
+        if (atomic.isIdentifier()) {
+            return resolve(atomic.getIdentifier());
+        }
+        return resolve(atomic.getText());
+    }
+
+    private Symbol resolve(Identifier identifier) {
+        counters.lookup();
+        return symbols.resolve(identifier);
+    }
+
+    private Symbol resolve(String name) {
+        counters.lookup();
+        return symbols.resolve(name);
+    }
+}
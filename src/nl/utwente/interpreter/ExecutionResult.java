@@ -0,0 +1,86 @@
+package nl.utwente.interpreter;
+
+import java.time.Duration;
+
+/**
+ * How one execution of a program ended, returned by {@link Engine#run}.
+ */
+public final class ExecutionResult {
+    public enum Status {
+        /**
+         * The program ran past its last statement.
+         */
+        COMPLETED,
+        /**
+         * The program executed STOP.
+         */
+        STOPPED,
+        /**
+         * The program ended with an error that no SIGNAL paragraph handled.
+         */
+        FAILED,
+        /**
+         * The program was cancelled because it ran longer than it was allowed to.
+         */
+        TIMED_OUT,
+        /**
+         * The program used more statements, time or working storage than its budget allows.
+         */
+        BUDGET_EXCEEDED
+    }
+
+    private final Status status;
+    private final String output;
+    private final RuntimeException error;
+    private final long nanos;
+
+    ExecutionResult(Status status, String output, RuntimeException error, long nanos) {
+        this.status = status;
+        this.output = output;
+        this.error = error;
+        this.nanos = nanos;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return true if the program completed or stopped
+     */
+    public boolean isSuccess() {
+        return status == Status.COMPLETED || status == Status.STOPPED;
+    }
+
+    /**
+     * @return everything the program displayed, or null if it was written to a sink of the caller
+     */
+    public String getOutput() {
+        return output;
+    }
+
+    /**
+     * @return the error the program failed with, or null
+     */
+    public RuntimeException getError() {
+        return error;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public Duration getDuration() {
+        return Duration.ofNanos(nanos);
+    }
+
+    ExecutionResult withOutput(String output) {
+        return new ExecutionResult(status, output, error, nanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s in %.3f ms%s", status, nanos / 1e6,
+                error != null ? ": " + error.getMessage() : "");
+    }
+}
@@ -1,12 +1,29 @@
 package nl.utwente.interpreter;
 
+import nl.utwente.interpreter.cache.ProgramCache;
+import nl.utwente.interpreter.exception.BudgetExceededException;
+import nl.utwente.interpreter.input.InputSource;
+import nl.utwente.interpreter.input.MappedFileSource;
 import nl.utwente.interpreter.model.ProgramOutput;
+import nl.utwente.interpreter.monitoring.ProgramLoadEvent;
+import nl.utwente.interpreter.output.AsyncSink;
+import nl.utwente.interpreter.output.ChannelSink;
+import nl.utwente.interpreter.output.FlushPolicy;
+import nl.utwente.interpreter.output.OutputSink;
+import nl.utwente.interpreter.server.Server;
+import nl.utwente.interpreter.vm.Budget;
+import nl.utwente.interpreter.vm.Profiler;
+import nl.utwente.interpreter.vm.Tier;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.*;
 
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
 
 public class Interpreter {
 
@@ -14,62 +31,350 @@ public class Interpreter {
      * The number of errors detected by the lexer and parser.
      */
     private int errorCount = 0;
-    BabyCobolParser parser;
-    BabyCobolLexer lexer;
-    Visitor visitor;
+    private Tier tier = Tier.ADAPTIVE;
+    private int compileThreshold = Tier.DEFAULT_THRESHOLD;
+    private OutputSink output = null;
+    private FlushPolicy flushPolicy = FlushPolicy.DEFAULT;
+    private InputSource input = null;
+    private ProgramCache cache = null;
+    private ParseStatistics parseStatistics = null;
+    private Path profile = null;
+    private Budget budget = Budget.UNLIMITED;
 
+    /**
+     * Usage: --path FILE [--tier interpret|compile|adaptive] [--compile-threshold N] [--output buffered|async]
+     * [--flush-on stop|accept] [--flush-bytes N] [--input FILE] [--cache DIRECTORY] [--parse-stats true|false]
+     * [--profile FILE]
+     * <p>
+     * Or, to run the programs sent to a local port: --serve PORT [--jobs N] [--timeout SECONDS]
+     * [--tier interpret|compile|adaptive] [--compile-threshold N] [--cache DIRECTORY]
+     * <p>
+     * Or, to run a batch of programs in parallel: --batch DIRECTORY|GLOB|MANIFEST --out DIRECTORY [--jobs N]
+     * [--tier interpret|compile|adaptive] [--compile-threshold N] [--cache DIRECTORY]
+     * <p>
+     * Every run can be given a budget: [--max-statements N] [--max-millis N] [--max-storage BYTES]
+     */
     public static void main(String[] args) {
         Interpreter interpreter = new Interpreter();
+        var engine = new Engine();
 
-        if (args.length != 2 && !args[0].equals("--path")) {
+        String filename = null;
+        String inputFilename = null;
+        String cacheDirectory = null;
+        boolean parseStats = false;
+        boolean async = false;
+        boolean flushOnAccept = true;
+        int flushBytes = 0;
+        Integer port = null;
+        int jobs = Runtime.getRuntime().availableProcessors();
+        Duration timeout = null;
+        String batch = null;
+        String outputDirectory = null;
+        long maxStatements = 0;
+        Duration maxTime = null;
+        long maxStorage = 0;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--path" -> filename = args[i + 1];
+                case "--tier" -> {
+                    interpreter.setTier(Tier.valueOf(args[i + 1].toUpperCase()));
+                    engine.setTier(Tier.valueOf(args[i + 1].toUpperCase()));
+                }
+                case "--compile-threshold" -> {
+                    interpreter.setCompileThreshold(Integer.parseInt(args[i + 1]));
+                    engine.setCompileThreshold(Integer.parseInt(args[i + 1]));
+                }
+                case "--output" -> async = parseOutput(args[i + 1]);
+                case "--flush-on" -> flushOnAccept = parseFlushOn(args[i + 1]);
+                case "--flush-bytes" -> flushBytes = Integer.parseInt(args[i + 1]);
+                case "--input" -> inputFilename = args[i + 1];
+                case "--cache" -> cacheDirectory = args[i + 1];
+                case "--parse-stats" -> parseStats = Boolean.parseBoolean(args[i + 1]);
+                case "--profile" -> interpreter.setProfile(Path.of(args[i + 1]));
+                case "--serve" -> port = Integer.parseInt(args[i + 1]);
+                case "--jobs" -> jobs = Integer.parseInt(args[i + 1]);
+                case "--timeout" -> timeout = Duration.ofSeconds(Long.parseLong(args[i + 1]));
+                case "--batch" -> batch = args[i + 1];
+                case "--out" -> outputDirectory = args[i + 1];
+                case "--max-statements" -> maxStatements = Long.parseLong(args[i + 1]);
+                case "--max-millis" -> maxTime = Duration.ofMillis(Long.parseLong(args[i + 1]));
+                case "--max-storage" -> maxStorage = Long.parseLong(args[i + 1]);
+                default -> throw new RuntimeException("Invalid input");
+            }
+        }
+        var budget = new Budget(maxStatements, maxTime, maxStorage);
+        interpreter.setBudget(budget);
+        engine.setBudget(budget);
+        if (port != null && args.length % 2 == 0) {
+            serve(engine, port, jobs, timeout, cacheDirectory);
+            return;
+        }
+        if (batch != null && outputDirectory != null && args.length % 2 == 0) {
+            batch(engine, batch, Path.of(outputDirectory), jobs, cacheDirectory);
+            return;
+        }
+        if (filename == null || args.length % 2 != 0) {
             throw new RuntimeException("Invalid input");
         }
 
-        String filename = args[1];
+        var flushPolicy = new FlushPolicy(flushOnAccept, flushBytes);
+        var stdout = ChannelSink.stdout(flushPolicy.getEveryBytes());
+        OutputSink output = async ? new AsyncSink(stdout) : stdout;
+        interpreter.setOutput(output, flushPolicy);
 
-        try {
+        try (output) {
+            if (inputFilename != null) {
+                interpreter.setInput(new MappedFileSource(Path.of(inputFilename)));
+            }
+            if (cacheDirectory != null) {
+                interpreter.setCache(new ProgramCache(Path.of(cacheDirectory)));
+            }
             InputStream inputStream = new FileInputStream(filename);
             CharStream charStream = CharStreams.fromStream(inputStream);
 
             interpreter.compile(charStream);
             inputStream.close();
+            if (parseStats) {
+                var statistics = interpreter.getParseStatistics();
+                System.err.println(statistics != null ? statistics : "Loaded from the cache");
+            }
+            if (interpreter.input != null) {
+                interpreter.input.close();
+            }
+        } catch (BudgetExceededException ex) {
+            System.err.println(ex.getMessage());
+            System.exit(1);
+        } catch (IOException ex) {
+            System.err.println(ex.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Runs the programs sent to the given port until the JVM is shut down, then lets the running jobs finish.
+     */
+    private static void serve(Engine engine, int port, int jobs, Duration timeout, String cacheDirectory) {
+        try {
+            if (cacheDirectory != null) {
+                engine.setCache(new ProgramCache(Path.of(cacheDirectory)));
+            }
+            var server = new Server(engine, port, jobs, timeout);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (IOException e) {
+                    System.err.println(e.getLocalizedMessage());
+                }
+            }));
+            System.err.println("Listening on port " + server.getPort());
+            server.serve();
+        } catch (IOException ex) {
+            System.err.println(ex.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Runs every program of the batch, then prints how each of them ended.
+     */
+    private static void batch(Engine engine, String batch, Path outputDirectory, int jobs, String cacheDirectory) {
+        try {
+            if (cacheDirectory != null) {
+                engine.setCache(new ProgramCache(Path.of(cacheDirectory)));
+            }
+            long start = System.nanoTime();
+            var outcomes = new BatchRunner(engine, outputDirectory, jobs).run(BatchJob.find(batch));
+            BatchRunner.printSummary(outcomes, System.nanoTime() - start, System.out);
+            if (outcomes.stream().anyMatch(outcome -> !outcome.getResult().isSuccess())) {
+                System.exit(1);
+            }
         } catch (IOException ex) {
             System.err.println(ex.getLocalizedMessage());
         }
     }
 
+    /**
+     * @return true for the async writer, false for the buffered one
+     */
+    private static boolean parseOutput(String output) {
+        return switch (output) {
+            case "buffered" -> false;
+            case "async" -> true;
+            default -> throw new RuntimeException("Invalid input");
+        };
+    }
+
+    /**
+     * @return true if the output is also flushed before every ACCEPT, not only when the program stops
+     */
+    private static boolean parseFlushOn(String flushOn) {
+        return switch (flushOn) {
+            case "stop" -> false;
+            case "accept" -> true;
+            default -> throw new RuntimeException("Invalid input");
+        };
+    }
+
     public Interpreter() {
 
     }
 
     /**
-     * calls the actual compile method
+     * Forces paragraphs to be only interpreted or all compiled, or leaves it to how often they are used.
+     */
+    public void setTier(Tier tier) {
+        this.tier = tier;
+    }
+
+    /**
+     * The number of times a paragraph is entered before it is compiled, when the tier is ADAPTIVE.
+     */
+    public void setCompileThreshold(int compileThreshold) {
+        this.compileThreshold = compileThreshold;
+    }
+
+    /**
+     * Sends the output of DISPLAY to the given sink, flushed according to the policy. The caller owns the sink and
+     * closes it. Without a sink the output goes to standard output.
+     */
+    public void setOutput(OutputSink output, FlushPolicy flushPolicy) {
+        this.output = output;
+        this.flushPolicy = flushPolicy;
+    }
+
+    /**
+     * Reads the values of ACCEPT from the given source. The caller owns the source and closes it. Without a source
+     * the values are read from standard input.
+     */
+    public void setInput(InputSource input) {
+        this.input = input;
+    }
+
+    /**
+     * Keeps the analysed programs in the given cache, so unchanged programs are not parsed and analysed again.
+     */
+    public void setCache(ProgramCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Profiles the programs that are run and writes the report to the given file, and the stacks for a flame graph
+     * to the file with .collapsed added to its name. A profiled program is only interpreted.
+     */
+    public void setProfile(Path profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * What every program that is run may use. A program that goes over it ends with a
+     * {@link BudgetExceededException}, one with a data division larger than the working storage is not even loaded.
+     */
+    public void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * @return the number of syntax errors found in the programs loaded so far
+     */
+    int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * @return how the last program was parsed, or null if it came from the cache
+     */
+    public ParseStatistics getParseStatistics() {
+        return parseStatistics;
+    }
+
+    /**
+     * calls the actual compile method, without keeping the output
      */
     public void compile(CharStream input) throws IOException {
-        compile(input, new ProgramOutput());
+        compile(input, null);
     }
 
     /**
      * Compiles a file. The source code is lexed (turned into tokens), parsed (a parse tree
-     * created).
+     * created), analysed and then executed.
      *
      * @param input          Stream to the source code input.
      * @throws IOException       if files could not be read or written
      */
     public void compile(CharStream input, ProgramOutput programOutput) throws IOException {
-        // Phase 1: Run the lexer
-        CommonTokenStream tokens = runLexer(input);
-
-        // Phase 2: Run the parser
-        ParseTree parseTree = runParser(tokens);
+        // Everything up to the analysis happens in its own method, so the parse tree and tokens can be
+        // garbage collected before the program runs.
+        var image = load(input);
+        if (image == null) {
+            return;
+        }
 
-        // ANTLR tries to do its best in creating a parse tree, even if the source code contains
-        // errors. So, check if that is the case and bail out if so.
-        if (errorCount > 0)
+        // Phase 4: Run the program
+        var execution = image.newExecution(programOutput, tier, compileThreshold, budget);
+        execution.setOutput(output != null ? output : ChannelSink.stdout(flushPolicy.getEveryBytes()), flushPolicy);
+        if (this.input != null) {
+            execution.setInput(this.input);
+        }
+        if (profile == null) {
+            execution.run();
             return;
+        }
+        var profiler = new Profiler(image.getProgram());
+        execution.setProfiler(profiler);
+        try {
+            execution.run();
+        } finally {
+            profiler.write(profile);
+        }
+    }
+
+    /**
+     * Lexes, parses and analyses a program without running it. The image can be run any number of times, also on
+     * several threads at once.
+     *
+     * @return the analysed program, or null if the source code contains syntax errors
+     */
+    public ProgramImage load(CharStream input) {
+        var event = new ProgramLoadEvent();
+        event.begin();
+        try {
+            // A program that was analysed before comes from the cache
+            var cached = cache != null ? cache.load(input) : null;
+            parseStatistics = null;
+            event.cached = cached != null;
+            if (cached != null) {
+                return cached;
+            }
+            long start = System.nanoTime();
+            // Phase 1: Run the lexer
+            CommonTokenStream tokens = runLexer(input);
+            long lexed = System.nanoTime();
+
+            // Phase 2: Run the parser
+            var parser = new BabyCobolParser(tokens);
+            ParseTree parseTree = runParser(parser, tokens);
+            var last = tokens.get(tokens.size() - 1);
+            long parsed = System.nanoTime();
+            parseStatistics = new ParseStatistics(last.getLine(), tokens.size(), parsed - start,
+                    parser.getInterpreter().getPredictionMode() == PredictionMode.LL);
+            event.lines = last.getLine();
+            event.tokens = tokens.size();
+            event.lexing = lexed - start;
+            event.parsing = parsed - lexed;
 
-        // Phase 3: Check the source code for semantic errors
-        runVisitor(parseTree, programOutput);
+            // ANTLR tries to do its best in creating a parse tree, even if the source code contains
+            // errors. So, check if that is the case and bail out if so.
+            if (errorCount > 0)
+                return null;
+
+            // Phase 3: Check the source code for semantic errors and lower it
+            var image = (ProgramImage) new Visitor(budget).visit(parseTree);
+            event.analysis = System.nanoTime() - parsed;
+            if (cache != null) {
+                cache.store(input, image);
+            }
+            return image;
+        } finally {
+            event.commit();
+        }
     }
 
     /**
@@ -79,38 +384,44 @@ public class Interpreter {
      * @return A steam of tokens.
      */
     private CommonTokenStream runLexer(CharStream input) {
-        lexer = new BabyCobolLexer(input);
+        var lexer = new BabyCobolLexer(input);
         lexer.addErrorListener(getErrorListener());
-        return new CommonTokenStream(lexer);
+        var tokens = new CommonTokenStream(lexer);
+        // The parser would lex on demand, lexing everything first lets the two be timed apart.
+        tokens.fill();
+        return tokens;
     }
 
     /**
      * Tries to form a parse tree from the given tokens. In case of errors, the error listener is
      * called, but the parser still tries to create a parse tree.
+     * <p>
+     * The tokens are parsed with SLL prediction first, which is much faster on the ambiguous expressions of the
+     * grammar but can fail on valid input. Only when it fails is the program parsed again with full LL prediction,
+     * which also reports the syntax errors. The DFA the parsers build is static in the generated parser, so every
+     * compilation in the same JVM continues with the predictions of the ones before it.
      *
+     * @param parser The parser reading the tokens.
      * @param tokens The tokens returned from the lexer.
      * @return A Parse Tree.
      */
-    private ParseTree runParser(CommonTokenStream tokens) {
-        parser = new BabyCobolParser(tokens);
-        parser.addErrorListener(getErrorListener());
-        return parser.program();
-    }
-
-    /**
-     * Called to check if the source code was semantically correct. This method is only called when
-     * there were no syntax errors.
-     *
-     * @param parseTree The parse tree generated by the parser
-     * @return True if all code is semantically correct
-     */
-    private boolean runVisitor(ParseTree parseTree, ProgramOutput programOutput) {
-        visitor = new Visitor(programOutput);
-        visitor.visit(parseTree);
-        return true;
+    private ParseTree runParser(BabyCobolParser parser, CommonTokenStream tokens) {
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        try {
+            return parser.program();
+        } catch (ParseCancellationException e) {
+            tokens.seek(0);
+            parser.reset();
+            parser.addErrorListener(ConsoleErrorListener.INSTANCE);
+            parser.addErrorListener(getErrorListener());
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            return parser.program();
+        }
     }
 
-
     /**
      * Creates and returns an error listener for use in the lexer and parser that just increases
      * the errorCount-attribute in this class so we can find out if the source code had a syntax
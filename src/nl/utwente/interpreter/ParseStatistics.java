@@ -0,0 +1,47 @@
+package nl.utwente.interpreter;
+
+/**
+ * How long lexing and parsing a program took, and whether the fast SLL prediction was enough.
+ */
+public final class ParseStatistics {
+    private final int lines;
+    private final int tokens;
+    private final long nanos;
+    private final boolean fullContext;
+
+    ParseStatistics(int lines, int tokens, long nanos, boolean fullContext) {
+        this.lines = lines;
+        this.tokens = tokens;
+        this.nanos = nanos;
+        this.fullContext = fullContext;
+    }
+
+    public int getLines() {
+        return lines;
+    }
+
+    public int getTokens() {
+        return tokens;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return true if SLL prediction failed and the program was parsed again with full LL prediction
+     */
+    public boolean isFullContext() {
+        return fullContext;
+    }
+
+    public double getLinesPerSecond() {
+        return nanos == 0 ? 0 : lines * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Parsed %d lines (%d tokens) in %.2f ms, %.0f lines/s, %s", lines, tokens, nanos / 1e6,
+                getLinesPerSecond(), fullContext ? "SLL failed, parsed again with LL" : "SLL");
+    }
+}
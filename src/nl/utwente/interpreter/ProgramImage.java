@@ -0,0 +1,69 @@
+package nl.utwente.interpreter;
+
+import nl.utwente.interpreter.model.ProgramOutput;
+import nl.utwente.interpreter.model.Storage;
+import nl.utwente.interpreter.symbol.SymbolTable;
+import nl.utwente.interpreter.vm.Budget;
+import nl.utwente.interpreter.vm.Program;
+import nl.utwente.interpreter.vm.Tier;
+
+import java.io.Serializable;
+
+/**
+ * A program after it has been analysed: the lowered instructions, the resolved symbols and the data division as it
+ * is declared. An image is not changed by running it, so it can be loaded once and run any number of times, also by
+ * several threads at the same time. Everything that changes while running is kept by an {@link Execution}.
+ */
+public final class ProgramImage implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final SymbolTable symbols;
+    private final Storage storage;
+    private final Program program;
+
+    ProgramImage(SymbolTable symbols, Storage storage, Program program) {
+        this.symbols = symbols;
+        this.storage = storage;
+        this.program = program;
+    }
+
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * @return the data division as it is declared, every execution starts with a copy of it
+     */
+    public Storage getStorage() {
+        return storage;
+    }
+
+    public Program getProgram() {
+        return program;
+    }
+
+    /**
+     * @return a new execution of this program, with its own working storage
+     */
+    public Execution newExecution() {
+        return newExecution(null, Tier.ADAPTIVE, Tier.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param testOutput       keeps everything that is displayed, or null
+     * @param compileThreshold the number of times a paragraph is entered before it is compiled, for the ADAPTIVE tier
+     */
+    public Execution newExecution(ProgramOutput testOutput, Tier tier, int compileThreshold) {
+        return newExecution(testOutput, tier, compileThreshold, Budget.UNLIMITED);
+    }
+
+    /**
+     * @param budget what the execution may use, it ends with a
+     *               {@link nl.utwente.interpreter.exception.BudgetExceededException} once it goes over it
+     * @throws nl.utwente.interpreter.exception.BudgetExceededException if the data division alone is larger than
+     *                                                                  the working storage of the budget
+     */
+    public Execution newExecution(ProgramOutput testOutput, Tier tier, int compileThreshold, Budget budget) {
+        return new Execution(this, testOutput, tier, compileThreshold, budget);
+    }
+}
@@ -0,0 +1,16 @@
+package nl.utwente.interpreter.ast;
+
+public final class Accept extends Statement {
+    private static final long serialVersionUID = 1L;
+
+    private final Identifier[] identifiers;
+
+    public Accept(int line, Identifier[] identifiers) {
+        super(line);
+        this.identifiers = identifiers;
+    }
+
+    public Identifier[] getIdentifiers() {
+        return identifiers;
+    }
+}
@@ -0,0 +1,36 @@
+package nl.utwente.interpreter.ast;
+
+/**
+ * ADD atomic+ TO to (GIVING giving)?, where the atomic after TO is the last of the atomics.
+ */
+public final class Add extends Statement {
+    private static final long serialVersionUID = 1L;
+
+    private final Atomic[] atomics;
+    private final Identifier giving;
+
+    public Add(int line, Atomic[] atomics, Identifier giving) {
+        super(line);
+        this.atomics = atomics;
+        this.giving = giving;
+    }
+
+    /**
+     * @return all atomics that are added, including the one after TO
+     */
+    public Atomic[] getAtomics() {
+        return atomics;
+    }
+
+    public int getToIndex() {
+        return atomics.length - 1;
+    }
+
+    public Atomic getTo() {
+        return atomics[getToIndex()];
+    }
+
+    public Identifier getGiving() {
+        return giving;
+    }
+}
@@ -0,0 +1,28 @@
+package nl.utwente.interpreter.ast;
+
+public final class Alter extends Statement {
+    private static final long serialVersionUID = 1L;
+
+    private final String from;
+    private final String to;
+
+    public Alter(int line, String from, String to) {
+        super(line);
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * @return the paragraph whose GO TO is changed
+     */
+    public String getFrom() {
+        return from;
+    }
+
+    /**
+     * @return the paragraph the GO TO proceeds to
+     */
+    public String getTo() {
+        return to;
+    }
+}
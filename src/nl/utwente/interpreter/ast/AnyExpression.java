@@ -0,0 +1,37 @@
+package nl.utwente.interpreter.ast;
+
+import nl.utwente.interpreter.expression.ArithmeticExpression;
+import nl.utwente.interpreter.expression.BooleanExpression;
+
+import java.io.Serializable;
+
+/**
+ * The subject of an EVALUATE or an expression of a WHEN: exactly one of a boolean expression, an arithmetic
+ * expression or the atomics of a string expression that are concatenated.
+ */
+public final class AnyExpression implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final BooleanExpression booleanExpression;
+    private final ArithmeticExpression arithmeticExpression;
+    private final Atomic[] stringExpression;
+
+    public AnyExpression(BooleanExpression booleanExpression, ArithmeticExpression arithmeticExpression,
+                         Atomic[] stringExpression) {
+        this.booleanExpression = booleanExpression;
+        this.arithmeticExpression = arithmeticExpression;
+        this.stringExpression = stringExpression;
+    }
+
+    public BooleanExpression getBooleanExpression() {
+        return booleanExpression;
+    }
+
+    public ArithmeticExpression getArithmeticExpression() {
+        return arithmeticExpression;
+    }
+
+    public Atomic[] getStringExpression() {
+        return stringExpression;
+    }
+}
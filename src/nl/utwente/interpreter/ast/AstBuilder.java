@@ -0,0 +1,286 @@
+package nl.utwente.interpreter.ast;
+
+import nl.utwente.interpreter.BabyCobolParser;
+import nl.utwente.interpreter.expression.ExpressionCompiler;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lowers the procedure division from the parse tree to the compact tree the interpreter executes.
+ * <p>
+ * Expressions are compiled on the way and names are interned, so nothing in the result refers back to the parse
+ * tree or the tokens. Once this is done and the data division has been laid out, the parse tree can be dropped.
+ */
+public class AstBuilder {
+    private final ExpressionCompiler expressions = new ExpressionCompiler(this::identifier);
+    private final List<Identifier> identifiers = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+
+    public Procedure build(BabyCobolParser.ProcedureContext ctx) {
+        var sentences = sentences(ctx.sentence());
+        var paragraphs = new Paragraph[ctx.paragraph().size()];
+        for (int i = 0; i < paragraphs.length; i++) {
+            var pc = ctx.paragraph(i);
+            paragraphs[i] = new Paragraph(line(pc), name(pc.label().getText()), sentences(pc.sentence()));
+        }
+        return new Procedure(line(ctx), sentences, paragraphs, expressions.getCacheSlots());
+    }
+
+    /**
+     * @return every identifier used in the procedure division that was built, in the order they appear
+     */
+    public List<Identifier> getIdentifiers() {
+        return identifiers;
+    }
+
+    /**
+     * @return the names that are only looked up by their text while running: the labels of GO TO and ALTER, and
+     * literals in the place of the result of ADD, SUBTRACT, MULTIPLY or DIVIDE
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    private Sentence[] sentences(List<BabyCobolParser.SentenceContext> ctx) {
+        var sentences = new Sentence[ctx.size()];
+        for (int i = 0; i < sentences.length; i++) {
+            sentences[i] = new Sentence(line(ctx.get(i)), statements(ctx.get(i).statement()));
+        }
+        return sentences;
+    }
+
+    private Statement[] statements(List<BabyCobolParser.StatementContext> ctx) {
+        var statements = new Statement[ctx.size()];
+        for (int i = 0; i < statements.length; i++) {
+            statements[i] = statement(ctx.get(i));
+        }
+        return statements;
+    }
+
+    private Statement statement(BabyCobolParser.StatementContext ctx) {
+        int line = line(ctx);
+        if (ctx.display() != null) {
+            var display = ctx.display();
+            return new Display(line, atomics(display.atomic()),
+                    display.WITH() == null && display.NO() == null && display.ADVANCING() == null);
+        } else if (ctx.stop() != null) {
+            return new Stop(line);
+        } else if (ctx.move() != null) {
+            return move(ctx.move());
+        } else if (ctx.subtract() != null) {
+            var subtract = ctx.subtract();
+            var atomics = atomics(subtract.as);
+            return new Subtract(line, atomics, target(atomic(subtract.from)), identifier(subtract.giving));
+        } else if (ctx.multiply() != null) {
+            var multiply = ctx.multiply();
+            var atomic = atomic(multiply.a);
+            var atomics = atomics(multiply.as);
+            for (var a : atomics) {
+                target(a);
+            }
+            return new Multiply(line, atomic, atomics, identifier(multiply.giving));
+        } else if (ctx.perform() != null) {
+            var perform = ctx.perform();
+            return new Perform(line, name(perform.procedureName.IDENTIFIER().getText()),
+                    perform.through != null ? name(perform.through.getText().trim()) : null,
+                    perform.times != null ? atomic(perform.times) : null);
+        } else if (ctx.ifStatement() != null) {
+            var ifStatement = ctx.ifStatement();
+            return new If(line, expressions.compile(ifStatement.booleanExpression()), statements(ifStatement.t),
+                    statements(ifStatement.f));
+        } else if (ctx.accept() != null) {
+            return new Accept(line, identifiers(ctx.accept().id));
+        } else if (ctx.add() != null) {
+            var add = ctx.add();
+            var atomics = atomics(add.atomic());
+            target(atomics[atomics.length - 1]);
+            return new Add(line, atomics, identifier(add.id));
+        } else if (ctx.divide() != null) {
+            var divide = ctx.divide();
+            return new Divide(line, target(atomic(divide.a)), atomics(divide.as), identifier(divide.id),
+                    identifier(divide.rem));
+        } else if (ctx.evaluate() != null) {
+            return evaluate(ctx.evaluate());
+        } else if (ctx.nextSentence() != null) {
+            return new NextSentence(line);
+        } else if (ctx.loop() != null) {
+            return loop(ctx.loop());
+        } else if (ctx.gotoStatement() != null) {
+            return new GoTo(line, label(ctx.gotoStatement().name().IDENTIFIER().getText()));
+        } else if (ctx.search() != null) {
+            return search(ctx.search());
+        } else if (ctx.signal() != null) {
+            var label = ctx.signal().label();
+            return new Signal(line, label != null ? name(label.getText()) : null);
+        } else {
+            var alter = ctx.alter();
+            return new Alter(line, label(alter.l1.getText().trim()), label(alter.l2.getText().trim()));
+        }
+    }
+
+    private Move move(BabyCobolParser.MoveContext ctx) {
+        Move.Source source;
+        if (ctx.atomic() != null) {
+            source = Move.Source.ATOMIC;
+        } else if (ctx.LOW() != null) {
+            source = Move.Source.LOW;
+        } else if (ctx.HIGH() != null) {
+            source = Move.Source.HIGH;
+        } else {
+            source = Move.Source.SPACES;
+        }
+        return new Move(line(ctx), source, ctx.atomic() != null ? atomic(ctx.atomic()) : null,
+                identifiers(ctx.identifiers()));
+    }
+
+    private Evaluate evaluate(BabyCobolParser.EvaluateContext ctx) {
+        var subject = anyExpression(ctx.anyExpression());
+        var whens = new When[ctx.whenBlock().size()];
+        for (int i = 0; i < whens.length; i++) {
+            var block = ctx.whenBlock(i);
+            if (block instanceof BabyCobolParser.WhenOtherContext) {
+                whens[i] = new When(line(block), new AnyExpression[0],
+                        statements(((BabyCobolParser.WhenOtherContext) block).statement()));
+            } else {
+                var when = (BabyCobolParser.WhenAnyExpressionContext) block;
+                var expressions = new AnyExpression[when.anyExpression().size()];
+                for (int j = 0; j < expressions.length; j++) {
+                    expressions[j] = anyExpression(when.anyExpression(j));
+                }
+                whens[i] = new When(line(block), expressions, statements(when.statement()));
+            }
+        }
+        return new Evaluate(line(ctx), subject, whens);
+    }
+
+    private Search search(BabyCobolParser.SearchContext ctx) {
+        var whens = new SearchWhen[ctx.whenSearch().size()];
+        for (int i = 0; i < whens.length; i++) {
+            var when = ctx.whenSearch(i);
+            whens[i] = new SearchWhen(line(when), expressions.compile(when.booleanExpression()),
+                    statements(when.statement()));
+        }
+        return new Search(line(ctx), identifier(ctx.identifiers()), ctx.ALL() != null, statements(ctx.atEnd),
+                whens);
+    }
+
+    private Loop loop(BabyCobolParser.LoopContext ctx) {
+        var parts = new Node[ctx.loopExpression().size()];
+        for (int i = 0; i < parts.length; i++) {
+            var expression = ctx.loopExpression(i);
+            if (expression instanceof BabyCobolParser.VaryingLoopExpContext) {
+                var varying = (BabyCobolParser.VaryingLoopExpContext) expression;
+                parts[i] = new Varying(line(varying), identifier(varying.id), atomic(varying.from),
+                        atomic(varying.to), atomic(varying.by));
+            } else if (expression instanceof BabyCobolParser.WhileLoopExpContext) {
+                parts[i] = new LoopCondition(line(expression), false, expressions.compile(
+                        ((BabyCobolParser.WhileLoopExpContext) expression).booleanExpression()));
+            } else if (expression instanceof BabyCobolParser.UntilLoopExpContext) {
+                parts[i] = new LoopCondition(line(expression), true, expressions.compile(
+                        ((BabyCobolParser.UntilLoopExpContext) expression).booleanExpression()));
+            } else {
+                parts[i] = statement(((BabyCobolParser.LoopStatementContext) expression).statement());
+            }
+        }
+        return new Loop(line(ctx), parts);
+    }
+
+    private AnyExpression anyExpression(BabyCobolParser.AnyExpressionContext ctx) {
+        if (ctx.booleanExpression() != null) {
+            return new AnyExpression(expressions.compile(ctx.booleanExpression()), null, null);
+        } else if (ctx.arithmeticExpression() != null) {
+            return new AnyExpression(null, expressions.compile(ctx.arithmeticExpression()), null);
+        }
+        List<Atomic> parts = new ArrayList<>();
+        concatenation(ctx.stringExpression(), parts);
+        return new AnyExpression(null, null, parts.toArray(new Atomic[0]));
+    }
+
+    private void concatenation(BabyCobolParser.StringExpressionContext ctx, List<Atomic> parts) {
+        if (ctx instanceof BabyCobolParser.AdditionStringExpContext) {
+            var addition = (BabyCobolParser.AdditionStringExpContext) ctx;
+            concatenation(addition.left, parts);
+            concatenation(addition.right, parts);
+        } else {
+            parts.add(atomic(((BabyCobolParser.AtomicStringExpContext) ctx).atomic()));
+        }
+    }
+
+    private Atomic[] atomics(List<BabyCobolParser.AtomicContext> ctx) {
+        var atomics = new Atomic[ctx.size()];
+        for (int i = 0; i < atomics.length; i++) {
+            atomics[i] = atomic(ctx.get(i));
+        }
+        return atomics;
+    }
+
+    private Atomic atomic(BabyCobolParser.AtomicContext ctx) {
+        if (ctx == null) {
+            return null;
+        }
+        String text = ctx.getText();
+        if (ctx instanceof BabyCobolParser.IntLiteralContext) {
+            return Atomic.number(Long.parseLong(text), text);
+        } else if (ctx instanceof BabyCobolParser.StringLiteralContext) {
+            return Atomic.string(text.substring(1, text.length() - 1), text);
+        }
+        return Atomic.identifier(identifier(((BabyCobolParser.IdentifierContext) ctx).identifiers()));
+    }
+
+    private Identifier[] identifiers(List<BabyCobolParser.IdentifiersContext> ctx) {
+        var identifiers = new Identifier[ctx.size()];
+        for (int i = 0; i < identifiers.length; i++) {
+            identifiers[i] = identifier(ctx.get(i));
+        }
+        return identifiers;
+    }
+
+    private Identifier identifier(BabyCobolParser.IdentifiersContext ctx) {
+        if (ctx == null) {
+            return null;
+        }
+        var subscripts = new Atomic[ctx.subscript().size()];
+        for (int i = 0; i < subscripts.length; i++) {
+            var subscript = ctx.subscript(i);
+            if (subscript.INT() != null) {
+                String text = subscript.INT().getText();
+                subscripts[i] = Atomic.number(Long.parseLong(text), text);
+            } else {
+                subscripts[i] = Atomic.identifier(identifier(subscript.identifiers()));
+            }
+        }
+        var path = new String[ctx.IDENTIFIER().size()];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = name(ctx.IDENTIFIER(i).getText());
+        }
+        var identifier = new Identifier(line(ctx), List.of(path), subscripts, name(ctx.getText()));
+        identifiers.add(identifier);
+        return identifier;
+    }
+
+    private Atomic target(Atomic atomic) {
+        if (atomic != null && !atomic.isIdentifier()) {
+            names.add(name(atomic.getText()));
+        }
+        return atomic;
+    }
+
+    private String label(String text) {
+        var label = name(text);
+        names.add(label);
+        return label;
+    }
+
+    /**
+     * Names and labels are interned, a name used all over a large program is then stored once.
+     */
+    private static String name(String text) {
+        return text.intern();
+    }
+
+    private static int line(ParserRuleContext ctx) {
+        return ctx.getStart().getLine();
+    }
+}
@@ -0,0 +1,57 @@
+package nl.utwente.interpreter.ast;
+
+import java.io.Serializable;
+
+/**
+ * A number literal, a string literal or an identifier.
+ */
+public final class Atomic implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Object literal;
+    private final Identifier identifier;
+    private final String text;
+
+    private Atomic(Object literal, Identifier identifier, String text) {
+        this.literal = literal;
+        this.identifier = identifier;
+        this.text = text;
+    }
+
+    public static Atomic number(long value, String text) {
+        return new Atomic(value, null, text);
+    }
+
+    /**
+     * @param value the text between the quotes
+     */
+    public static Atomic string(String value, String text) {
+        return new Atomic(value, null, text);
+    }
+
+    public static Atomic identifier(Identifier identifier) {
+        return new Atomic(null, identifier, identifier.getText());
+    }
+
+    public boolean isIdentifier() {
+        return identifier != null;
+    }
+
+    /**
+     * @return a Long for a number literal, the text without quotes for a string literal, null for an identifier
+     */
+    public Object getLiteral() {
+        return literal;
+    }
+
+    public Identifier getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * @return the atomic as written in the source, string literals with their quotes
+     */
+    public String getText() {
+        return text;
+    }
+}
@@ -0,0 +1,25 @@
+package nl.utwente.interpreter.ast;
+
+public final class Display extends Statement {
+    private static final long serialVersionUID = 1L;
+
+    private final Atomic[] atomics;
+    private final boolean advancing;
+
+    public Display(int line, Atomic[] atomics, boolean advancing) {
+        super(line);
+        this.atomics = atomics;
+        this.advancing = advancing;
+    }
+
+    public Atomic[] getAtomics() {
+        return atomics;
+    }
+
+    /**
+     * @return false for WITH NO ADVANCING, which leaves out the line separator
+     */
+    public boolean isAdvancing() {
+        return advancing;
+    }
+}
@@ -0,0 +1,37 @@
+package nl.utwente.interpreter.ast;
+
+public final class Divide extends Statement {
+    private static final long serialVersionUID = 1L;
+
+    private final Atomic atomic;
+    private final Atomic[] atomics;
+    private final Identifier giving;
+    private final Identifier remainder;
+
+    public Divide(int line, Atomic atomic, Atomic[] atomics, Identifier giving, Identifier remainder) {
+        super(line);
+        this.atomic = atomic;
+        this.atomics = atomics;
+        this.giving = giving;
+        this.remainder = remainder;
+    }
+
+    public Atomic getAtomic() {
+        return atomic;
+    }
+
+    /**
+     * @return the atomics after INTO
+     */
+    public Atomic[] getAtomics() {
+        return atomics;
+    }
+
+    public Identifier getGiving() {
+        return giving;
+    }
+
+    public Identifier getRemainder() {
+        return remainder;
+    }
+}
@@ -0,0 +1,22 @@
+package nl.utwente.interpreter.ast;
+
+public final class Evaluate extends Statement {
+    private static final long serialVersionUID = 1L;
+
+    private final AnyExpression subject;
+    private final When[] whens;
+
+    public Evaluate(int line, AnyExpression subject, When[] whens) {
+        super(line);
+        this.subject = subject;
+        this.whens = whens;
+    }
+
+    public AnyExpression getSubject() {
+        return subject;
+    }
+
+    public When[] getWhens() {
+        return whens;
+    }
+}
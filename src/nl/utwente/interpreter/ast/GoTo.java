@@ -0,0 +1,16 @@
+package nl.utwente.interpreter.ast;
+
+public final class GoTo extends Statement {
+    private static final long serialVersionUID = 1L;
+
+    private final String label;
+
+    public GoTo(int line, String label) {
+        super(line);
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
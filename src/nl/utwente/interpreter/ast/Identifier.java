@@ -0,0 +1,57 @@
+package nl.utwente.interpreter.ast;
+
+import java.util.List;
+
+/**
+ * An identifier like A OF B (2 I), with its qualifiers from the inside out and its subscripts from the outermost
+ * table in.
+ */
+public final class Identifier extends Node {
+    private static final long serialVersionUID = 1L;
+
+    private static final Atomic[] NO_SUBSCRIPTS = new Atomic[0];
+
+    private final List<String> path;
+    private final Atomic[] subscripts;
+    private final String text;
+
+    public Identifier(int line, List<String> path, Atomic[] subscripts, String text) {
+        super(line);
+        this.path = path;
+        this.subscripts = subscripts.length > 0 ? subscripts : NO_SUBSCRIPTS;
+        this.text = text;
+    }
+
+    /**
+     * @return the names from the inside out, A OF B is [A, B]
+     */
+    public List<String> getPath() {
+        return path;
+    }
+
+    /**
+     * @return the subscripts, each a number or an identifier, empty if there are none
+     */
+    public Atomic[] getSubscripts() {
+        return subscripts;
+    }
+
+    /**
+     * @return true if every subscript is a number, the element is then known before running
+     */
+    public boolean hasConstantSubscripts() {
+        for (var subscript : subscripts) {
+            if (subscript.isIdentifier()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the identifier as written in the source, without spaces
+     */
+    public String getText() {
+        return text;
+    }
+}
@@ -0,0 +1,33 @@
+package nl.utwente.interpreter.ast;
+
+import nl.utwente.interpreter.expression.BooleanExpression;
+
+public final class If extends Statement {
+    private static final long serialVersionUID = 1L;
+
+    private final BooleanExpression condition;
+    private final Statement[] then;
+    private final Statement[] otherwise;
+
+    public If(int line, BooleanExpression condition, Statement[] then, Statement[] otherwise) {
+        super(line);
+        this.condition = condition;
+        this.then = then;
+        this.otherwise = otherwise;
+    }
+
+    public BooleanExpression getCondition() {
+        return condition;
+    }
+
+    public Statement[] getThen() {
+        return then;
+    }
+
+    /**
+     * @return the statements after ELSE, empty if there is no ELSE
+     */
+    public Statement[] getOtherwise() {
+        return otherwise;
+    }
+}
@@ -0,0 +1,22 @@
+package nl.utwente.interpreter.ast;
+
+/**
+ * A LOOP, whose parts are executed in order: statements, VARYING and WHILE or UNTIL conditions.
+ */
+public final class Loop extends Statement {
+    private static final long serialVersionUID = 1L;
+
+    private final Node[] parts;
+
+    public Loop(int line, Node[] parts) {
+        super(line);
+        this.parts = parts;
+    }
+
+    /**
+     * @return a {@link Statement}, {@link Varying} or {@link LoopCondition} for every part of the loop
+     */
+    public Node[] getParts() {
+        return parts;
+    }
+}
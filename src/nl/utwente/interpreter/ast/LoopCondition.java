@@ -0,0 +1,27 @@
+package nl.utwente.interpreter.ast;
+
+import nl.utwente.interpreter.expression.BooleanExpression;
+
+/**
+ * WHILE or UNTIL in a LOOP.
+ */
+public final class LoopCondition extends Node {
+    private static final long serialVersionUID = 1L;
+
+    private final boolean until;
+    private final BooleanExpression condition;
+
+    public LoopCondition(int line, boolean until, BooleanExpression condition) {
+        super(line);
+        this.until = until;
+        this.condition = condition;
+    }
+
+    public boolean isUntil() {
+        return until;
+    }
+
+    public BooleanExpression getCondition() {
+        return condition;
+    }
+}
@@ -0,0 +1,38 @@
+package nl.utwente.interpreter.ast;
+
+/**
+ * MOVE of an atomic or one of the constants SPACES, HIGH-VALUES and LOW-VALUES to one or more identifiers.
+ */
+public final class Move extends Statement {
+    private static final long serialVersionUID = 1L;
+
+    public enum Source {
+        ATOMIC, SPACES, HIGH, LOW
+    }
+
+    private final Source source;
+    private final Atomic atomic;
+    private final Identifier[] targets;
+
+    public Move(int line, Source source, Atomic atomic, Identifier[] targets) {
+        super(line);
+        this.source = source;
+        this.atomic = atomic;
+        this.targets = targets;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * @return the atomic that is moved, null when a constant is
+     */
+    public Atomic getAtomic() {
+        return atomic;
+    }
+
+    public Identifier[] getTargets() {
+        return targets;
+    }
+}
@@ -0,0 +1,31 @@
+package nl.utwente.interpreter.ast;
+
+public final class Multiply extends Statement {
+    private static final long serialVersionUID = 1L;
+
+    private final Atomic atomic;
+    private final Atomic[] atomics;
+    private final Identifier giving;
+
+    public Multiply(int line, Atomic atomic, Atomic[] atomics, Identifier giving) {
+        super(line);
+        this.atomic = atomic;
+        this.atomics = atomics;
+        this.giving = giving;
+    }
+
+    public Atomic getAtomic() {
+        return atomic;
+    }
+
+    /**
+     * @return the atomics after BY
+     */
+    public Atomic[] getAtomics() {
+        return atomics;
+    }
+
+    public Identifier getGiving() {
+        return giving;
+    }
+}
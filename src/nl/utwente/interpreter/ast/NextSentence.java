@@ -0,0 +1,9 @@
+package nl.utwente.interpreter.ast;
+
+public final class NextSentence extends Statement {
+    private static final long serialVersionUID = 1L;
+
+    public NextSentence(int line) {
+        super(line);
+    }
+}
@@ -0,0 +1,21 @@
+package nl.utwente.interpreter.ast;
+
+import java.io.Serializable;
+
+/**
+ * A node of the compact tree the procedure division is lowered to after parsing. Nodes only keep what execution
+ * needs, names are interned and the only position kept is the line, for error messages.
+ */
+public abstract class Node implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int line;
+
+    protected Node(int line) {
+        this.line = line;
+    }
+
+    public int getLine() {
+        return line;
+    }
+}
@@ -0,0 +1,22 @@
+package nl.utwente.interpreter.ast;
+
+public final class Paragraph extends Node {
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final Sentence[] sentences;
+
+    public Paragraph(int line, String name, Sentence[] sentences) {
+        super(line);
+        this.name = name;
+        this.sentences = sentences;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Sentence[] getSentences() {
+        return sentences;
+    }
+}
@@ -0,0 +1,34 @@
+package nl.utwente.interpreter.ast;
+
+public final class Perform extends Statement {
+    private static final long serialVersionUID = 1L;
+
+    private final String label;
+    private final String through;
+    private final Atomic times;
+
+    public Perform(int line, String label, String through, Atomic times) {
+        super(line);
+        this.label = label;
+        this.through = through;
+        this.times = times;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return the last paragraph to perform, or null without THROUGH
+     */
+    public String getThrough() {
+        return through;
+    }
+
+    /**
+     * @return the number of times to perform, or null to perform once
+     */
+    public Atomic getTimes() {
+        return times;
+    }
+}
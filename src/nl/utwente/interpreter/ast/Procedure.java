@@ -0,0 +1,34 @@
+package nl.utwente.interpreter.ast;
+
+/**
+ * The procedure division: the sentences before the first paragraph, followed by the paragraphs.
+ */
+public final class Procedure extends Node {
+    private static final long serialVersionUID = 1L;
+
+    private final Sentence[] sentences;
+    private final Paragraph[] paragraphs;
+    private final int cacheSlots;
+
+    /**
+     * @param cacheSlots the number of inline caches of the expressions in the procedure division
+     */
+    public Procedure(int line, Sentence[] sentences, Paragraph[] paragraphs, int cacheSlots) {
+        super(line);
+        this.sentences = sentences;
+        this.paragraphs = paragraphs;
+        this.cacheSlots = cacheSlots;
+    }
+
+    public Sentence[] getSentences() {
+        return sentences;
+    }
+
+    public Paragraph[] getParagraphs() {
+        return paragraphs;
+    }
+
+    public int getCacheSlots() {
+        return cacheSlots;
+    }
+}
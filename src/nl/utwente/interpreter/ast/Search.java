@@ -0,0 +1,44 @@
+package nl.utwente.interpreter.ast;
+
+/**
+ * SEARCH, which looks for the first occurrence of a table from its index on for which a WHEN holds, or SEARCH ALL,
+ * which looks for the occurrence with the given keys in a table that is sorted on them.
+ */
+public final class Search extends Statement {
+    private static final long serialVersionUID = 1L;
+
+    private final Identifier table;
+    private final boolean all;
+    private final Statement[] atEnd;
+    private final SearchWhen[] whens;
+
+    public Search(int line, Identifier table, boolean all, Statement[] atEnd, SearchWhen[] whens) {
+        super(line);
+        this.table = table;
+        this.all = all;
+        this.atEnd = atEnd;
+        this.whens = whens;
+    }
+
+    public Identifier getTable() {
+        return table;
+    }
+
+    /**
+     * @return true for SEARCH ALL
+     */
+    public boolean isAll() {
+        return all;
+    }
+
+    /**
+     * @return the statements after AT END, empty if there is no AT END
+     */
+    public Statement[] getAtEnd() {
+        return atEnd;
+    }
+
+    public SearchWhen[] getWhens() {
+        return whens;
+    }
+}
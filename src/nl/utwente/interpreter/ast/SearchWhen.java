@@ -0,0 +1,27 @@
+package nl.utwente.interpreter.ast;
+
+import nl.utwente.interpreter.expression.BooleanExpression;
+
+/**
+ * A WHEN block of a SEARCH, its statements are executed for the occurrence the condition holds for.
+ */
+public final class SearchWhen extends Node {
+    private static final long serialVersionUID = 1L;
+
+    private final BooleanExpression condition;
+    private final Statement[] statements;
+
+    public SearchWhen(int line, BooleanExpression condition, Statement[] statements) {
+        super(line);
+        this.condition = condition;
+        this.statements = statements;
+    }
+
+    public BooleanExpression getCondition() {
+        return condition;
+    }
+
+    public Statement[] getStatements() {
+        return statements;
+    }
+}
@@ -0,0 +1,16 @@
+package nl.utwente.interpreter.ast;
+
+public final class Sentence extends Node {
+    private static final long serialVersionUID = 1L;
+
+    private final Statement[] statements;
+
+    public Sentence(int line, Statement[] statements) {
+        super(line);
+        this.statements = statements;
+    }
+
+    public Statement[] getStatements() {
+        return statements;
+    }
+}
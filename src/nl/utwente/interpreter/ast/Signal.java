@@ -0,0 +1,19 @@
+package nl.utwente.interpreter.ast;
+
+public final class Signal extends Statement {
+    private static final long serialVersionUID = 1L;
+
+    private final String label;
+
+    public Signal(int line, String label) {
+        super(line);
+        this.label = label;
+    }
+
+    /**
+     * @return the paragraph to continue with after an error, or null for SIGNAL OFF
+     */
+    public String getLabel() {
+        return label;
+    }
+}
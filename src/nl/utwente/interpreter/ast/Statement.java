@@ -0,0 +1,12 @@
+package nl.utwente.interpreter.ast;
+
+/**
+ * A statement of the procedure division.
+ */
+public abstract class Statement extends Node {
+    private static final long serialVersionUID = 1L;
+
+    protected Statement(int line) {
+        super(line);
+    }
+}
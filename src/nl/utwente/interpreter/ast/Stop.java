@@ -0,0 +1,9 @@
+package nl.utwente.interpreter.ast;
+
+public final class Stop extends Statement {
+    private static final long serialVersionUID = 1L;
+
+    public Stop(int line) {
+        super(line);
+    }
+}
@@ -0,0 +1,28 @@
+package nl.utwente.interpreter.ast;
+
+public final class Subtract extends Statement {
+    private static final long serialVersionUID = 1L;
+
+    private final Atomic[] atomics;
+    private final Atomic from;
+    private final Identifier giving;
+
+    public Subtract(int line, Atomic[] atomics, Atomic from, Identifier giving) {
+        super(line);
+        this.atomics = atomics;
+        this.from = from;
+        this.giving = giving;
+    }
+
+    public Atomic[] getAtomics() {
+        return atomics;
+    }
+
+    public Atomic getFrom() {
+        return from;
+    }
+
+    public Identifier getGiving() {
+        return giving;
+    }
+}
@@ -0,0 +1,37 @@
+package nl.utwente.interpreter.ast;
+
+/**
+ * VARYING id? (FROM from)? (TO to)? (BY by)? in a LOOP.
+ */
+public final class Varying extends Node {
+    private static final long serialVersionUID = 1L;
+
+    private final Identifier identifier;
+    private final Atomic from;
+    private final Atomic to;
+    private final Atomic by;
+
+    public Varying(int line, Identifier identifier, Atomic from, Atomic to, Atomic by) {
+        super(line);
+        this.identifier = identifier;
+        this.from = from;
+        this.to = to;
+        this.by = by;
+    }
+
+    public Identifier getIdentifier() {
+        return identifier;
+    }
+
+    public Atomic getFrom() {
+        return from;
+    }
+
+    public Atomic getTo() {
+        return to;
+    }
+
+    public Atomic getBy() {
+        return by;
+    }
+}
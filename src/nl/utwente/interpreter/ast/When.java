@@ -0,0 +1,29 @@
+package nl.utwente.interpreter.ast;
+
+/**
+ * A WHEN block of an EVALUATE. WHEN OTHER has no expressions.
+ */
+public final class When extends Node {
+    private static final long serialVersionUID = 1L;
+
+    private final AnyExpression[] expressions;
+    private final Statement[] statements;
+
+    public When(int line, AnyExpression[] expressions, Statement[] statements) {
+        super(line);
+        this.expressions = expressions;
+        this.statements = statements;
+    }
+
+    public boolean isOther() {
+        return expressions.length == 0;
+    }
+
+    public AnyExpression[] getExpressions() {
+        return expressions;
+    }
+
+    public Statement[] getStatements() {
+        return statements;
+    }
+}
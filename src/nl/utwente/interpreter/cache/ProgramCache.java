@@ -0,0 +1,131 @@
+package nl.utwente.interpreter.cache;
+
+import nl.utwente.interpreter.BabyCobolLexer;
+import nl.utwente.interpreter.BabyCobolParser;
+import nl.utwente.interpreter.ProgramImage;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32;
+
+/**
+ * A directory of analysed programs, so a program that did not change since its last run skips the lexer, the parser
+ * and the analysis, and is run from the {@link ProgramImage} it was analysed to before.
+ * <p>
+ * An entry is named after a hash of the source, the format of the entries and the grammar, so a changed program or
+ * grammar simply misses. Every entry ends with a checksum. An entry that cannot be read back is deleted and the
+ * program is analysed again.
+ */
+public class ProgramCache {
+    private static final int MAGIC = 0x42434332;
+    /**
+     * The entries are the serialized classes of the image, this has to be raised whenever one of them changes.
+     */
+    private static final int FORMAT = 2;
+    private static final String VERSION = FORMAT + ":" + BabyCobolLexer._serializedATN.hashCode() + ":"
+            + BabyCobolParser._serializedATN.hashCode();
+    /**
+     * Only the classes of an image are read back, anything else in an entry rejects it.
+     */
+    private static final ObjectInputFilter CLASSES = ObjectInputFilter.Config.createFilter(
+            "nl.utwente.interpreter.**;java.lang.*;java.util.*;!*");
+
+    private final Path directory;
+
+    public ProgramCache(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * @return the analysed source, or null if it is not in the cache
+     */
+    public ProgramImage load(CharStream source) {
+        var key = key(source);
+        var file = directory.resolve(key + ".bcc");
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            if (bytes.length < Long.BYTES) {
+                throw new IOException("Truncated cache entry");
+            }
+            var crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - Long.BYTES);
+            var in = new DataInputStream(new ByteArrayInputStream(bytes));
+            in.skipBytes(bytes.length - Long.BYTES);
+            if (in.readLong() != crc.getValue()) {
+                throw new IOException("Checksum mismatch");
+            }
+            in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - Long.BYTES));
+            if (in.readInt() != MAGIC || !in.readUTF().equals(key)) {
+                throw new IOException("Not the entry of this program");
+            }
+            var objects = new ObjectInputStream(in);
+            objects.setObjectInputFilter(CLASSES);
+            return (ProgramImage) objects.readObject();
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            // Stale or corrupt, it is rebuilt after the analysis.
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Stores the analysed source. Failing to store it only means the next run analyses it again.
+     */
+    public void store(CharStream source, ProgramImage image) {
+        var key = key(source);
+        try {
+            var bytes = new ByteArrayOutputStream();
+            var out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeUTF(key);
+            var objects = new ObjectOutputStream(out);
+            objects.writeObject(image);
+            objects.flush();
+            var crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeLong(crc.getValue());
+            out.flush();
+
+            // Written next to the entry and moved into place, so a reader never sees half an entry.
+            var temporary = Files.createTempFile(directory, key, ".tmp");
+            try {
+                Files.write(temporary, bytes.toByteArray());
+                Files.move(temporary, directory.resolve(key + ".bcc"), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException | RuntimeException ignored) {
+        }
+    }
+
+    private static String key(CharStream source) {
+        String text = source.size() == 0 ? "" : source.getText(Interval.of(0, source.size() - 1));
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(VERSION.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            var hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            var key = new StringBuilder();
+            for (byte b : hash) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
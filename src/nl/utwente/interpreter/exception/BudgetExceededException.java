@@ -0,0 +1,12 @@
+package nl.utwente.interpreter.exception;
+
+/**
+ * Thrown in a running program when it used more statements, time or working storage than its budget allows.
+ */
+public class BudgetExceededException extends CancelledException {
+    private static final long serialVersionUID = 1L;
+
+    public BudgetExceededException(String message) {
+        super(message);
+    }
+}
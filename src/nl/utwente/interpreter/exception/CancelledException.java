@@ -0,0 +1,17 @@
+package nl.utwente.interpreter.exception;
+
+/**
+ * Thrown in a running program when its execution is cancelled from another thread, for instance because it ran out
+ * of time. Unlike an error it cannot be handled by a SIGNAL paragraph, the execution always ends.
+ */
+public class CancelledException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public CancelledException() {
+        this("The execution was cancelled");
+    }
+
+    protected CancelledException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -4,11 +4,21 @@ import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.Token;
 
 public class InterpreterException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
     public InterpreterException(ParserRuleContext ctx, String s ) {
 
         super(buildMessage(ctx, s));
     }
 
+    public InterpreterException(String s) {
+        super(s);
+    }
+
+    public InterpreterException(int line, String s) {
+        super(buildMessage(line, s));
+    }
+
     public InterpreterException(Throwable throwable) {
         super(throwable.getMessage());
     }
@@ -16,10 +26,13 @@ public class InterpreterException extends RuntimeException {
     private static String buildMessage( ParserRuleContext ctx, String msg ) {
         if (ctx != null) {
             Token firstToken = ctx.getStart();
-            int line = firstToken.getLine();
-            return String.format("line: %s, message: %s", line, msg);
+            return buildMessage(firstToken.getLine(), msg);
         } else {
             return "No ctx provided! message: " + msg;
         }
     }
+
+    private static String buildMessage(int line, String msg) {
+        return String.format("line: %s, message: %s", line, msg);
+    }
 }
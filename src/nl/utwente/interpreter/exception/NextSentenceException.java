@@ -1,4 +0,0 @@
-package nl.utwente.interpreter.exception;
-
-public class NextSentenceException extends RuntimeException {
-}
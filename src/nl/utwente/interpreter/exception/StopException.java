@@ -0,0 +1,14 @@
+package nl.utwente.interpreter.exception;
+
+/**
+ * Thrown by STOP to end the execution it is part of. It is not an error: the machine running the program catches it
+ * and returns as if the program ran to its end, so the JVM and every other execution in it keep running.
+ */
+public class StopException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public StopException() {
+        // Thrown for every STOP, the stack trace is never looked at.
+        super("STOP", null, false, false);
+    }
+}
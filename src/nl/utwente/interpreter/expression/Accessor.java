@@ -0,0 +1,39 @@
+package nl.utwente.interpreter.expression;
+
+/**
+ * Direct access to the storage of one resolved identifier, so a site that reads or writes it does not have to
+ * resolve it again on every execution.
+ */
+public interface Accessor {
+    /**
+     * @return the stored value, the text of a field or whatever a variable holds
+     */
+    Object get();
+
+    default long getLong() {
+        return Values.toLong(get());
+    }
+
+    void set(Object value);
+
+    /**
+     * Only for accessors that are a number.
+     */
+    default void setLong(long value) {
+        set(value);
+    }
+
+    /**
+     * @return true if the identifier always holds a number, like a PICTURE 9 field
+     */
+    default boolean isNumber() {
+        return false;
+    }
+
+    /**
+     * @return true if the identifier is a field that can not hold a number, like a PICTURE X field or a record
+     */
+    default boolean isText() {
+        return false;
+    }
+}
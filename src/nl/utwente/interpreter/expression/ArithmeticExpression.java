@@ -0,0 +1,27 @@
+package nl.utwente.interpreter.expression;
+
+import java.io.Serializable;
+
+/**
+ * A compiled arithmetic expression. Evaluating it only does primitive long arithmetic.
+ */
+public abstract class ArithmeticExpression implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public abstract long evaluate(Scope scope);
+
+    /**
+     * The value of this expression as used in comparisons and EVALUATE: a Long for numbers, otherwise the text.
+     */
+    public Object value(Scope scope) {
+        return evaluate(scope);
+    }
+
+    /**
+     * @return true if the value of this expression is always a number in the given scope, so it can be compared
+     * without looking at the value first
+     */
+    public boolean isNumber(Scope scope) {
+        return true;
+    }
+}
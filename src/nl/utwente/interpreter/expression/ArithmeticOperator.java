@@ -0,0 +1,68 @@
+package nl.utwente.interpreter.expression;
+
+public enum ArithmeticOperator {
+    ADD("+", 1),
+    SUBTRACT("-", 1),
+    MULTIPLY("*", 2),
+    DIVIDE("/", 2),
+    POWER("**", 3);
+
+    private final String symbol;
+    private final int precedence;
+
+    ArithmeticOperator(String symbol, int precedence) {
+        this.symbol = symbol;
+        this.precedence = precedence;
+    }
+
+    public static ArithmeticOperator fromSymbol(String symbol) {
+        for (var op : values()) {
+            if (op.symbol.equals(symbol)) {
+                return op;
+            }
+        }
+        throw new IllegalArgumentException("Unknown arithmetic operator " + symbol);
+    }
+
+    public int getPrecedence() {
+        return precedence;
+    }
+
+    /**
+     * Only ** groups from the right, so 2 ** 3 ** 2 is 2 ** 9.
+     */
+    public boolean isRightAssociative() {
+        return this == POWER;
+    }
+
+    public long apply(long left, long right) {
+        return switch (this) {
+            case ADD -> left + right;
+            case SUBTRACT -> left - right;
+            case MULTIPLY -> left * right;
+            case DIVIDE -> left / right;
+            case POWER -> power(left, right);
+        };
+    }
+
+    private static long power(long base, long exponent) {
+        if (exponent < 0) {
+            // Integer arithmetic only, so anything below 1 truncates to 0 (except for a base of 1 or -1).
+            return (base == 1 || base == -1) ? (exponent % 2 == 0 ? 1 : base) : 0;
+        }
+        long result = 1;
+        while (exponent > 0) {
+            if ((exponent & 1) == 1) {
+                result *= base;
+            }
+            base *= base;
+            exponent >>= 1;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return symbol;
+    }
+}
@@ -0,0 +1,20 @@
+package nl.utwente.interpreter.expression;
+
+public class BinaryArithmetic extends ArithmeticExpression {
+    private static final long serialVersionUID = 1L;
+
+    private final ArithmeticOperator operator;
+    private final ArithmeticExpression left;
+    private final ArithmeticExpression right;
+
+    public BinaryArithmetic(ArithmeticOperator operator, ArithmeticExpression left, ArithmeticExpression right) {
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+    }
+
+    @Override
+    public long evaluate(Scope scope) {
+        return operator.apply(left.evaluate(scope), right.evaluate(scope));
+    }
+}
@@ -0,0 +1,36 @@
+package nl.utwente.interpreter.expression;
+
+public class BinaryBoolean extends BooleanExpression {
+    private static final long serialVersionUID = 1L;
+
+    private final BooleanOperator operator;
+    private final BooleanExpression left;
+    private final BooleanExpression right;
+
+    public BinaryBoolean(BooleanOperator operator, BooleanExpression left, BooleanExpression right) {
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+    }
+
+    public BooleanOperator getOperator() {
+        return operator;
+    }
+
+    public BooleanExpression getLeft() {
+        return left;
+    }
+
+    public BooleanExpression getRight() {
+        return right;
+    }
+
+    @Override
+    public boolean evaluate(Scope scope) {
+        return switch (operator) {
+            case AND -> left.evaluate(scope) && right.evaluate(scope);
+            case OR -> left.evaluate(scope) || right.evaluate(scope);
+            case XOR -> left.evaluate(scope) ^ right.evaluate(scope);
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package nl.utwente.interpreter.expression;
+
+import java.io.Serializable;
+
+/**
+ * A compiled boolean expression.
+ */
+public abstract class BooleanExpression implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public abstract boolean evaluate(Scope scope);
+}
@@ -0,0 +1,26 @@
+package nl.utwente.interpreter.expression;
+
+public class BooleanLiteral extends BooleanExpression {
+    private static final long serialVersionUID = 1L;
+
+    public static final BooleanLiteral TRUE = new BooleanLiteral(true);
+    public static final BooleanLiteral FALSE = new BooleanLiteral(false);
+
+    private final boolean value;
+
+    private BooleanLiteral(boolean value) {
+        this.value = value;
+    }
+
+    @Override
+    public boolean evaluate(Scope scope) {
+        return value;
+    }
+
+    /**
+     * A literal read back from the program cache is one of the two constants again.
+     */
+    private Object readResolve() {
+        return value ? TRUE : FALSE;
+    }
+}
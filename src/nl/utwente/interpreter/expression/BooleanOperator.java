@@ -0,0 +1,17 @@
+package nl.utwente.interpreter.expression;
+
+public enum BooleanOperator {
+    OR(1),
+    XOR(2),
+    AND(3);
+
+    private final int precedence;
+
+    BooleanOperator(int precedence) {
+        this.precedence = precedence;
+    }
+
+    public int getPrecedence() {
+        return precedence;
+    }
+}
@@ -0,0 +1,52 @@
+package nl.utwente.interpreter.expression;
+
+/**
+ * Compares two values. The first evaluation in a scope checks whether both sides are always numbers, and keeps
+ * the answer in its slot of the scope; from then on the comparison is done on primitive longs, otherwise the
+ * values are compared as numbers or text each time.
+ */
+public class Comparison extends BooleanExpression {
+    private static final long serialVersionUID = 1L;
+
+    private final ComparisonOperator operator;
+    private final ArithmeticExpression left;
+    private final ArithmeticExpression right;
+    private final int slot;
+
+    /**
+     * @param slot the slot of the cache of this comparison in {@link Scope#caches()}
+     */
+    public Comparison(ComparisonOperator operator, ArithmeticExpression left, ArithmeticExpression right,
+                      int slot) {
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+        this.slot = slot;
+    }
+
+    public ComparisonOperator getOperator() {
+        return operator;
+    }
+
+    public ArithmeticExpression getLeft() {
+        return left;
+    }
+
+    public ArithmeticExpression getRight() {
+        return right;
+    }
+
+    @Override
+    public boolean evaluate(Scope scope) {
+        var caches = scope.caches();
+        var numeric = (Boolean) caches[slot];
+        if (numeric == null) {
+            numeric = left.isNumber(scope) && right.isNumber(scope);
+            caches[slot] = numeric;
+        }
+        if (numeric) {
+            return operator.test(Long.compare(left.evaluate(scope), right.evaluate(scope)));
+        }
+        return operator.test(Values.compare(left.value(scope), right.value(scope)));
+    }
+}
@@ -0,0 +1,57 @@
+package nl.utwente.interpreter.expression;
+
+public enum ComparisonOperator {
+    EQUAL("="),
+    GREATER(">"),
+    LESS("<"),
+    GREATER_OR_EQUAL(">="),
+    LESS_OR_EQUAL("<="),
+    NOT_EQUAL("!=");
+
+    private final String symbol;
+
+    ComparisonOperator(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public static ComparisonOperator fromSymbol(String symbol) {
+        for (var op : values()) {
+            if (op.symbol.equals(symbol)) {
+                return op;
+            }
+        }
+        throw new IllegalArgumentException("Unknown comparison operator " + symbol);
+    }
+
+    /**
+     * @return the operator that gives the same result with the operands swapped, A < B is B > A
+     */
+    public ComparisonOperator swapped() {
+        return switch (this) {
+            case GREATER -> LESS;
+            case LESS -> GREATER;
+            case GREATER_OR_EQUAL -> LESS_OR_EQUAL;
+            case LESS_OR_EQUAL -> GREATER_OR_EQUAL;
+            default -> this;
+        };
+    }
+
+    /**
+     * @param compared the result of a compareTo between the left and the right operand
+     */
+    public boolean test(int compared) {
+        return switch (this) {
+            case EQUAL -> compared == 0;
+            case GREATER -> compared > 0;
+            case LESS -> compared < 0;
+            case GREATER_OR_EQUAL -> compared >= 0;
+            case LESS_OR_EQUAL -> compared <= 0;
+            case NOT_EQUAL -> compared != 0;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return symbol;
+    }
+}
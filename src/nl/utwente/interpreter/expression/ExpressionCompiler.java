@@ -0,0 +1,146 @@
+package nl.utwente.interpreter.expression;
+
+import nl.utwente.interpreter.BabyCobolParser;
+import nl.utwente.interpreter.ast.Identifier;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Turns the arithmeticExpression and booleanExpression parse nodes into expression trees.
+ * <p>
+ * The grammar parses every chain of operators flat and left-to-right, so the chains are collected first and then
+ * rebuilt with the usual precedence: ** before * and /, before + and -. For boolean operators AND goes before XOR,
+ * before OR. Identifiers are turned into their compact form by the given function, so the trees do not keep the
+ * parse nodes alive.
+ */
+public class ExpressionCompiler {
+    private final Function<BabyCobolParser.IdentifiersContext, Identifier> identifiers;
+    private int cacheSlots = 0;
+
+    public ExpressionCompiler(Function<BabyCobolParser.IdentifiersContext, Identifier> identifiers) {
+        this.identifiers = identifiers;
+    }
+
+    /**
+     * @return the number of inline caches of the expressions compiled so far, see {@link Scope#caches()}
+     */
+    public int getCacheSlots() {
+        return cacheSlots;
+    }
+
+    public ArithmeticExpression compile(BabyCobolParser.ArithmeticExpressionContext ctx) {
+        List<ArithmeticExpression> operands = new ArrayList<>();
+        List<ArithmeticOperator> operators = new ArrayList<>();
+        flatten(ctx, operands, operators);
+        return combineArithmetic(operands, operators);
+    }
+
+    public BooleanExpression compile(BabyCobolParser.BooleanExpressionContext ctx) {
+        List<BooleanExpression> operands = new ArrayList<>();
+        List<BooleanOperator> operators = new ArrayList<>();
+        flatten(ctx, operands, operators);
+        return combineBoolean(operands, operators);
+    }
+
+    public ArithmeticExpression compile(BabyCobolParser.AtomicContext ctx) {
+        if (ctx instanceof BabyCobolParser.IntLiteralContext) {
+            return new Literal(Long.parseLong(ctx.getText()));
+        } else if (ctx instanceof BabyCobolParser.StringLiteralContext) {
+            String text = ctx.getText();
+            return new Literal(text.substring(1, text.length() - 1));
+        } else {
+            return new IdentifierReference(identifiers.apply(((BabyCobolParser.IdentifierContext) ctx).identifiers()),
+                    cacheSlots++);
+        }
+    }
+
+    private void flatten(BabyCobolParser.ArithmeticExpressionContext ctx,
+                         List<ArithmeticExpression> operands, List<ArithmeticOperator> operators) {
+        if (ctx instanceof BabyCobolParser.ArithOpArithmeticExpContext) {
+            var op = (BabyCobolParser.ArithOpArithmeticExpContext) ctx;
+            flatten(op.left, operands, operators);
+            operators.add(ArithmeticOperator.fromSymbol(op.arithmeticOp().getText()));
+            flatten(op.right, operands, operators);
+        } else {
+            operands.add(compile(((BabyCobolParser.AtomicArithmeticExpContext) ctx).atomic()));
+        }
+    }
+
+    private void flatten(BabyCobolParser.BooleanExpressionContext ctx,
+                         List<BooleanExpression> operands, List<BooleanOperator> operators) {
+        if (ctx instanceof BabyCobolParser.BoolOpBooleanExpContext) {
+            var op = (BabyCobolParser.BoolOpBooleanExpContext) ctx;
+            flatten(op.left, operands, operators);
+            operators.add(BooleanOperator.valueOf(op.booleanOp().getText()));
+            flatten(op.right, operands, operators);
+        } else if (ctx instanceof BabyCobolParser.ContractedBooleanExpContext) {
+            // A = 10 AND > 5 OR 15 means A = 10 AND A > 5 OR A > 15: a part without a comparison operator
+            // takes the one of the part before it.
+            var contracted = (BabyCobolParser.ContractedBooleanExpContext) ctx;
+            var subject = compile(contracted.left);
+            var comparison = ComparisonOperator.fromSymbol(contracted.comparisonOp().getText());
+            operands.add(new Comparison(comparison, subject, compile(contracted.right), cacheSlots++));
+            for (var part : contracted.contract) {
+                if (part.comparisonOp() != null) {
+                    comparison = ComparisonOperator.fromSymbol(part.comparisonOp().getText());
+                }
+                operators.add(BooleanOperator.valueOf(part.booleanOp().getText()));
+                operands.add(new Comparison(comparison, subject, compile(part.arithmeticExpression()), cacheSlots++));
+            }
+        } else if (ctx instanceof BabyCobolParser.CompareOpBooleanExpContext) {
+            var compare = (BabyCobolParser.CompareOpBooleanExpContext) ctx;
+            operands.add(new Comparison(ComparisonOperator.fromSymbol(compare.comparisonOp().getText()),
+                    compile(compare.left), compile(compare.right), cacheSlots++));
+        } else if (ctx instanceof BabyCobolParser.NotBooleanExpContext) {
+            operands.add(new Not(compile(((BabyCobolParser.NotBooleanExpContext) ctx).booleanExpression())));
+        } else if (ctx instanceof BabyCobolParser.TrueBooleanExpContext) {
+            operands.add(BooleanLiteral.TRUE);
+        } else {
+            operands.add(BooleanLiteral.FALSE);
+        }
+    }
+
+    private static ArithmeticExpression combineArithmetic(List<ArithmeticExpression> operands,
+                                                          List<ArithmeticOperator> operators) {
+        Deque<ArithmeticExpression> output = new ArrayDeque<>();
+        Deque<ArithmeticOperator> pending = new ArrayDeque<>();
+        output.push(operands.get(0));
+        for (int i = 0; i < operators.size(); i++) {
+            var op = operators.get(i);
+            while (!pending.isEmpty() && (pending.peek().getPrecedence() > op.getPrecedence()
+                    || (pending.peek().getPrecedence() == op.getPrecedence() && !op.isRightAssociative()))) {
+                var right = output.pop();
+                output.push(new BinaryArithmetic(pending.pop(), output.pop(), right));
+            }
+            pending.push(op);
+            output.push(operands.get(i + 1));
+        }
+        while (!pending.isEmpty()) {
+            var right = output.pop();
+            output.push(new BinaryArithmetic(pending.pop(), output.pop(), right));
+        }
+        return output.pop();
+    }
+
+    private static BooleanExpression combineBoolean(List<BooleanExpression> operands,
+                                                    List<BooleanOperator> operators) {
+        Deque<BooleanExpression> output = new ArrayDeque<>();
+        Deque<BooleanOperator> pending = new ArrayDeque<>();
+        output.push(operands.get(0));
+        for (int i = 0; i < operators.size(); i++) {
+            var op = operators.get(i);
+            while (!pending.isEmpty() && pending.peek().getPrecedence() >= op.getPrecedence()) {
+                var right = output.pop();
+                output.push(new BinaryBoolean(pending.pop(), output.pop(), right));
+            }
+            pending.push(op);
+            output.push(operands.get(i + 1));
+        }
+        while (!pending.isEmpty()) {
+            var right = output.pop();
+            output.push(new BinaryBoolean(pending.pop(), output.pop(), right));
+        }
+        return output.pop();
+    }
+}
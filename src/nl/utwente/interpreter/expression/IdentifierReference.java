@@ -0,0 +1,55 @@
+package nl.utwente.interpreter.expression;
+
+import nl.utwente.interpreter.ast.Identifier;
+
+/**
+ * An identifier in an expression. The accessor for it is cached in its slot of the scope, an inline cache: once a
+ * scope has evaluated the expression, the identifier is not resolved again in that scope.
+ */
+public class IdentifierReference extends ArithmeticExpression {
+    private static final long serialVersionUID = 1L;
+
+    private final Identifier identifier;
+    private final int slot;
+
+    /**
+     * @param slot the slot of the cache of this reference in {@link Scope#caches()}
+     */
+    public IdentifierReference(Identifier identifier, int slot) {
+        this.identifier = identifier;
+        this.slot = slot;
+    }
+
+    public Identifier getIdentifier() {
+        return identifier;
+    }
+
+    @Override
+    public long evaluate(Scope scope) {
+        return accessor(scope).getLong();
+    }
+
+    @Override
+    public Object value(Scope scope) {
+        var accessor = accessor(scope);
+        if (accessor.isNumber()) {
+            return accessor.getLong();
+        }
+        return Values.normalize(accessor.get());
+    }
+
+    @Override
+    public boolean isNumber(Scope scope) {
+        return accessor(scope).isNumber();
+    }
+
+    private Accessor accessor(Scope scope) {
+        var caches = scope.caches();
+        var accessor = (Accessor) caches[slot];
+        if (accessor == null) {
+            accessor = scope.accessor(identifier);
+            caches[slot] = accessor;
+        }
+        return accessor;
+    }
+}
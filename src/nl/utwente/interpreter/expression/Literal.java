@@ -0,0 +1,26 @@
+package nl.utwente.interpreter.expression;
+
+public class Literal extends ArithmeticExpression {
+    private static final long serialVersionUID = 1L;
+
+    private final Object value;
+
+    public Literal(Object value) {
+        this.value = Values.normalize(value);
+    }
+
+    @Override
+    public long evaluate(Scope scope) {
+        return Values.toLong(value);
+    }
+
+    @Override
+    public Object value(Scope scope) {
+        return value;
+    }
+
+    @Override
+    public boolean isNumber(Scope scope) {
+        return value instanceof Long;
+    }
+}
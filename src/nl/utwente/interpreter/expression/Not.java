@@ -0,0 +1,16 @@
+package nl.utwente.interpreter.expression;
+
+public class Not extends BooleanExpression {
+    private static final long serialVersionUID = 1L;
+
+    private final BooleanExpression operand;
+
+    public Not(BooleanExpression operand) {
+        this.operand = operand;
+    }
+
+    @Override
+    public boolean evaluate(Scope scope) {
+        return !operand.evaluate(scope);
+    }
+}
@@ -0,0 +1,35 @@
+package nl.utwente.interpreter.expression;
+
+import nl.utwente.interpreter.ast.Identifier;
+
+/**
+ * Gives compiled expressions access to the current value of an identifier.
+ */
+public interface Scope {
+    Object valueOf(Identifier identifier);
+
+    /**
+     * The expression trees of a program are shared by everything that runs it, so their inline caches are kept by
+     * the scope instead, one slot for each as numbered by the {@link ExpressionCompiler}.
+     *
+     * @return the inline caches of the expressions evaluated in this scope
+     */
+    Object[] caches();
+
+    /**
+     * @return an accessor that reads the identifier without resolving it again
+     */
+    default Accessor accessor(Identifier identifier) {
+        return new Accessor() {
+            @Override
+            public Object get() {
+                return valueOf(identifier);
+            }
+
+            @Override
+            public void set(Object value) {
+                throw new UnsupportedOperationException("Cannot assign to " + identifier.getText());
+            }
+        };
+    }
+}
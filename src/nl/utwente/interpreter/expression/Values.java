@@ -0,0 +1,62 @@
+package nl.utwente.interpreter.expression;
+
+/**
+ * Conversions between the raw values stored for identifiers and the numbers used by expressions.
+ */
+public final class Values {
+
+    private Values() {
+    }
+
+    /**
+     * Turns a raw value into a Long when it represents a whole number, otherwise returns its text.
+     * Field values are padded ("007", " 10") so surrounding whitespace is ignored.
+     */
+    public static Object normalize(Object raw) {
+        if (raw instanceof Long) {
+            return raw;
+        }
+        if (raw instanceof Number) {
+            return ((Number) raw).longValue();
+        }
+        String text = String.valueOf(raw);
+        String trimmed = text.trim();
+        if (isNumeric(trimmed)) {
+            return Long.parseLong(trimmed);
+        }
+        return text;
+    }
+
+    public static long toLong(Object raw) {
+        Object value = normalize(raw);
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        throw new RuntimeException("Non-numeric value " + value + " cannot be used in an arithmetic expression");
+    }
+
+    /**
+     * Numbers are compared by value, anything else is compared by its text.
+     */
+    public static int compare(Object left, Object right) {
+        if (left instanceof Long && right instanceof Long) {
+            return Long.compare((Long) left, (Long) right);
+        }
+        return left.toString().compareTo(right.toString());
+    }
+
+    public static boolean isNumeric(String text) {
+        int start = text.startsWith("-") ? 1 : 0;
+        // Anything longer than 18 digits does not fit in a long, treat it as text instead.
+        if (text.length() == start || text.length() - start > 18) {
+            return false;
+        }
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
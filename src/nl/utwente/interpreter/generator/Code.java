@@ -0,0 +1,446 @@
+package nl.utwente.interpreter.generator;
+
+import java.util.List;
+
+/**
+ * A generated statement. It can write itself as BabyCobol and run itself on a {@link Simulation}, both come from
+ * the same model so the source and the expected output cannot disagree.
+ */
+abstract class Code {
+    abstract void write(StringBuilder source, int indent);
+
+    abstract void run(Simulation simulation);
+
+    static StringBuilder line(StringBuilder source, int indent) {
+        for (int i = 0; i < indent; i++) {
+            source.append("    ");
+        }
+        return source;
+    }
+
+    /**
+     * @return the number as it is written in the source, a number of only nines would be read as a PICTURE, so it
+     * gets a leading zero
+     */
+    static String literal(long value) {
+        var text = Long.toString(value);
+        return text.matches("9+") ? "0" + text : text;
+    }
+
+    static void write(List<Code> statements, StringBuilder source, int indent) {
+        for (var statement : statements) {
+            statement.write(source, indent);
+        }
+    }
+
+    /**
+     * Runs the statements until one of them leaves the paragraph.
+     */
+    static void run(List<Code> statements, Simulation simulation) {
+        for (var statement : statements) {
+            statement.run(simulation);
+            if (simulation.isLeaving()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * An atomic: a literal, a field or a variable outside the data division.
+     */
+    abstract static class Value {
+        abstract String text();
+
+        abstract String show(Simulation simulation);
+
+        long number(Simulation simulation) {
+            return Long.parseLong(show(simulation));
+        }
+    }
+
+    static final class Literal extends Value {
+        private final String value;
+        private final boolean quoted;
+
+        Literal(String value, boolean quoted) {
+            this.value = value;
+            this.quoted = quoted;
+        }
+
+        @Override
+        String text() {
+            return quoted ? "\"" + value + "\"" : literal(Long.parseLong(value));
+        }
+
+        @Override
+        String show(Simulation simulation) {
+            return value;
+        }
+    }
+
+    static final class Reference extends Value {
+        private final Field field;
+        private final int index;
+
+        Reference(Field field, int index) {
+            this.field = field;
+            this.index = index;
+        }
+
+        Field getField() {
+            return field;
+        }
+
+        @Override
+        String text() {
+            return field.reference(index);
+        }
+
+        @Override
+        String show(Simulation simulation) {
+            return simulation.show(field, index);
+        }
+
+        @Override
+        long number(Simulation simulation) {
+            return simulation.getNumber(field, index);
+        }
+    }
+
+    static final class Variable extends Value {
+        private final String name;
+
+        Variable(String name) {
+            this.name = name;
+        }
+
+        @Override
+        String text() {
+            return name;
+        }
+
+        @Override
+        String show(Simulation simulation) {
+            return Long.toString(simulation.getVariable(name));
+        }
+    }
+
+    static final class Display extends Code {
+        private final List<Value> values;
+
+        Display(List<Value> values) {
+            this.values = values;
+        }
+
+        @Override
+        void write(StringBuilder source, int indent) {
+            line(source, indent).append("DISPLAY");
+            for (var value : values) {
+                source.append(' ').append(value.text());
+            }
+            source.append('\n');
+        }
+
+        @Override
+        void run(Simulation simulation) {
+            var line = new StringBuilder();
+            for (var value : values) {
+                line.append(' ').append(value.show(simulation));
+            }
+            simulation.display(line.substring(1));
+        }
+    }
+
+    /**
+     * MOVE of a literal to a field of the same kind. A text always has the size of the field.
+     */
+    static final class Move extends Code {
+        private final Literal value;
+        private final Reference target;
+
+        Move(Literal value, Reference target) {
+            this.value = value;
+            this.target = target;
+        }
+
+        @Override
+        void write(StringBuilder source, int indent) {
+            line(source, indent).append("MOVE ").append(value.text()).append(" TO ").append(target.text())
+                    .append('\n');
+        }
+
+        @Override
+        void run(Simulation simulation) {
+            if (target.getField().isNumber()) {
+                simulation.setNumber(target.getField(), target.index, value.number(simulation));
+            } else {
+                simulation.setText(target.getField(), value.show(simulation));
+            }
+        }
+    }
+
+    /**
+     * MOVE of a record to a record that is LIKE it, or the other way around.
+     */
+    static final class MoveRecord extends Code {
+        private final Record source;
+        private final Record target;
+
+        MoveRecord(Record source, Record target) {
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        void write(StringBuilder source, int indent) {
+            line(source, indent).append("MOVE ").append(this.source.getName()).append(" TO ")
+                    .append(target.getName()).append('\n');
+        }
+
+        @Override
+        void run(Simulation simulation) {
+            var from = source.getFields();
+            var to = target.getFields();
+            for (int i = 0; i < from.size(); i++) {
+                if (from.get(i).isNumber()) {
+                    simulation.setNumber(to.get(i), 1, simulation.getNumber(from.get(i), 1));
+                } else {
+                    simulation.setText(to.get(i), simulation.getText(from.get(i)));
+                }
+            }
+        }
+    }
+
+    /**
+     * ADD of a number or a numeric field to a numeric field.
+     */
+    static final class Add extends Code {
+        private final Value value;
+        private final Reference target;
+
+        Add(Value value, Reference target) {
+            this.value = value;
+            this.target = target;
+        }
+
+        @Override
+        void write(StringBuilder source, int indent) {
+            line(source, indent).append("ADD ").append(value.text()).append(" TO ").append(target.text())
+                    .append('\n');
+        }
+
+        @Override
+        void run(Simulation simulation) {
+            simulation.setNumber(target.getField(), target.index,
+                    value.number(simulation) + target.number(simulation));
+        }
+    }
+
+    /**
+     * IF that compares a numeric field with a number, with an ELSE.
+     */
+    static final class If extends Code {
+        private final Reference subject;
+        private final boolean less;
+        private final long constant;
+        private final List<Code> then;
+        private final List<Code> otherwise;
+
+        If(Reference subject, boolean less, long constant, List<Code> then, List<Code> otherwise) {
+            this.subject = subject;
+            this.less = less;
+            this.constant = constant;
+            this.then = then;
+            this.otherwise = otherwise;
+        }
+
+        @Override
+        void write(StringBuilder source, int indent) {
+            line(source, indent).append("IF ").append(subject.text()).append(less ? " < " : " > ")
+                    .append(literal(constant)).append(" THEN\n");
+            write(then, source, indent + 1);
+            line(source, indent).append("ELSE\n");
+            write(otherwise, source, indent + 1);
+            line(source, indent).append("END\n");
+        }
+
+        @Override
+        void run(Simulation simulation) {
+            long value = subject.number(simulation);
+            boolean holds = less ? value < constant : value > constant;
+            run(holds ? then : otherwise, simulation);
+        }
+    }
+
+    /**
+     * EVALUATE of a numeric field with a WHEN for each of a few distinct numbers, and maybe a WHEN OTHER at the end.
+     * The numbers differ, so at most one WHEN matches.
+     */
+    static final class Evaluate extends Code {
+        private final Reference subject;
+        private final long[] constants;
+        private final List<List<Code>> whens;
+        private final List<Code> other;
+
+        /**
+         * @param other the statements of WHEN OTHER, or null if there is none
+         */
+        Evaluate(Reference subject, long[] constants, List<List<Code>> whens, List<Code> other) {
+            this.subject = subject;
+            this.constants = constants;
+            this.whens = whens;
+            this.other = other;
+        }
+
+        @Override
+        void write(StringBuilder source, int indent) {
+            line(source, indent).append("EVALUATE ").append(subject.text()).append('\n');
+            for (int i = 0; i < constants.length; i++) {
+                line(source, indent + 1).append("WHEN ").append(literal(constants[i])).append('\n');
+                write(whens.get(i), source, indent + 2);
+            }
+            if (other != null) {
+                line(source, indent + 1).append("WHEN OTHER\n");
+                write(other, source, indent + 2);
+            }
+            line(source, indent).append("END\n");
+        }
+
+        @Override
+        void run(Simulation simulation) {
+            // The subject is evaluated once, the WHEN blocks do not see what the statements before them change
+            long value = subject.number(simulation);
+            for (int i = 0; i < constants.length; i++) {
+                if (constants[i] == value) {
+                    run(whens.get(i), simulation);
+                    return;
+                }
+            }
+            if (other != null) {
+                run(other, simulation);
+            }
+        }
+    }
+
+    /**
+     * LOOP VARYING a variable of its own from 1 to a small number.
+     */
+    static final class Loop extends Code {
+        private final String variable;
+        private final int times;
+        private final List<Code> body;
+
+        Loop(String variable, int times, List<Code> body) {
+            this.variable = variable;
+            this.times = times;
+            this.body = body;
+        }
+
+        @Override
+        void write(StringBuilder source, int indent) {
+            line(source, indent).append("LOOP VARYING ").append(variable).append(" FROM 1 TO ").append(times)
+                    .append('\n');
+            write(body, source, indent + 1);
+            line(source, indent).append("END\n");
+        }
+
+        @Override
+        void run(Simulation simulation) {
+            for (int i = 1; i <= times; i++) {
+                simulation.setVariable(variable, i);
+                run(body, simulation);
+            }
+        }
+    }
+
+    static final class Perform extends Code {
+        private final List<Paragraph> paragraphs;
+        private final int times;
+
+        /**
+         * @param paragraphs the performed paragraphs, more than one is written as THROUGH
+         * @param times      the number of TIMES, or 0 to leave it out
+         */
+        Perform(List<Paragraph> paragraphs, int times) {
+            this.paragraphs = paragraphs;
+            this.times = times;
+        }
+
+        @Override
+        void write(StringBuilder source, int indent) {
+            line(source, indent).append("PERFORM ").append(paragraphs.get(0).getName());
+            if (paragraphs.size() > 1) {
+                source.append(" THROUGH ").append(paragraphs.get(paragraphs.size() - 1).getName());
+            }
+            if (times > 0) {
+                source.append(' ').append(times).append(" TIMES");
+            }
+            source.append('\n');
+        }
+
+        @Override
+        void run(Simulation simulation) {
+            for (int i = 0; i < Math.max(times, 1); i++) {
+                for (var paragraph : paragraphs) {
+                    paragraph.run(simulation);
+                }
+            }
+        }
+    }
+
+    static final class GoTo extends Code {
+        private final String paragraph;
+        private final String label;
+
+        /**
+         * @param paragraph the paragraph the GO TO is in, it only goes elsewhere if that paragraph was altered
+         */
+        GoTo(String paragraph, String label) {
+            this.paragraph = paragraph;
+            this.label = label;
+        }
+
+        @Override
+        void write(StringBuilder source, int indent) {
+            line(source, indent).append("GO TO ").append(label).append('\n');
+        }
+
+        @Override
+        void run(Simulation simulation) {
+            simulation.goTo(paragraph, label);
+        }
+    }
+
+    static final class Alter extends Code {
+        private final String paragraph;
+        private final String label;
+
+        Alter(String paragraph, String label) {
+            this.paragraph = paragraph;
+            this.label = label;
+        }
+
+        @Override
+        void write(StringBuilder source, int indent) {
+            line(source, indent).append("ALTER ").append(paragraph).append(" TO PROCEED TO ").append(label)
+                    .append('\n');
+        }
+
+        @Override
+        void run(Simulation simulation) {
+            simulation.alter(paragraph, label);
+        }
+    }
+
+    static final class Stop extends Code {
+        @Override
+        void write(StringBuilder source, int indent) {
+            line(source, indent).append("STOP\n");
+        }
+
+        @Override
+        void run(Simulation simulation) {
+            simulation.stop();
+        }
+    }
+}
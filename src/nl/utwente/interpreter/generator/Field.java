@@ -0,0 +1,72 @@
+package nl.utwente.interpreter.generator;
+
+/**
+ * A field of a generated record, with the place of its value in the {@link Simulation}.
+ */
+final class Field {
+    private final String record;
+    private final String name;
+    private final boolean number;
+    private final int size;
+    private final int occurs;
+    private final int slot;
+
+    /**
+     * @param slot the first slot of the field among the numbers or the texts of the simulation, a field with OCCURS
+     *             takes up one slot for every occurrence
+     */
+    Field(String record, String name, boolean number, int size, int occurs, int slot) {
+        this.record = record;
+        this.name = name;
+        this.number = number;
+        this.size = size;
+        this.occurs = occurs;
+        this.slot = slot;
+    }
+
+    /**
+     * @return the same field in a record that is LIKE the record of this one
+     */
+    Field copy(String record, int slot) {
+        return new Field(record, name, number, size, occurs, slot);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    boolean isNumber() {
+        return number;
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    int getOccurs() {
+        return occurs;
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    /**
+     * @return the largest value plus one, a number that is stored only keeps what fits
+     */
+    long getModulus() {
+        long modulus = 1;
+        for (int i = 0; i < size; i++) {
+            modulus *= 10;
+        }
+        return modulus;
+    }
+
+    /**
+     * @param index the occurrence, from 1
+     * @return how the field is written in the procedure division, qualified by its record
+     */
+    String reference(int index) {
+        return name + " OF " + record + (occurs > 1 ? "(" + index + ")" : "");
+    }
+}
@@ -0,0 +1,79 @@
+package nl.utwente.interpreter.generator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A program made by the {@link ProgramGenerator}, with what it displays when it is run.
+ */
+public final class GeneratedProgram {
+    private final String name;
+    private final long seed;
+    private final String source;
+    private final List<String> expected;
+
+    GeneratedProgram(String name, long seed, String source, List<String> expected) {
+        this.name = name;
+        this.seed = seed;
+        this.source = source;
+        this.expected = List.copyOf(expected);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the seed the program was generated with, the same options and seed give the same program
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public int getLineCount() {
+        int lines = 0;
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * @return every line the program displays, in order
+     */
+    public List<String> getExpectedLines() {
+        return expected;
+    }
+
+    /**
+     * @return the output of the program as it is written to a sink, every line ends with the line separator
+     */
+    public String getExpectedOutput() {
+        var output = new StringBuilder();
+        for (var line : expected) {
+            output.append(line).append(System.lineSeparator());
+        }
+        return output.toString();
+    }
+
+    /**
+     * Writes the program to NAME.baby and its expected output to NAME.expected in the given directory.
+     *
+     * @return the path of the program
+     */
+    public Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        var program = directory.resolve(name + ".baby");
+        Files.writeString(program, source);
+        Files.writeString(directory.resolve(name + ".expected"), getExpectedOutput());
+        return program;
+    }
+}
@@ -0,0 +1,51 @@
+package nl.utwente.interpreter.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A generated paragraph. Its sentences are added after all paragraphs exist, so they can PERFORM any of them.
+ */
+final class Paragraph {
+    private final String name;
+    private final List<List<Code>> sentences = new ArrayList<>();
+
+    Paragraph(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void add(List<Code> sentence) {
+        sentences.add(sentence);
+    }
+
+    void add(Code statement) {
+        sentences.add(List.of(statement));
+    }
+
+    void run(Simulation simulation) {
+        for (var sentence : sentences) {
+            for (var statement : sentence) {
+                statement.run(simulation);
+                if (simulation.isLeaving()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    void write(StringBuilder source) {
+        source.append(name).append(".\n");
+        for (var sentence : sentences) {
+            for (var statement : sentence) {
+                statement.write(source, 1);
+            }
+            // The last statement ends the sentence
+            source.setLength(source.length() - 1);
+            source.append(".\n");
+        }
+    }
+}
@@ -0,0 +1,497 @@
+package nl.utwente.interpreter.generator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates valid BabyCobol programs of any size, each with the output it is expected to display. The same options
+ * and seed always give the same program.
+ * <p>
+ * The data division has records of nested groups, numeric fields of which some have OCCURS, text fields, and
+ * records that are LIKE an earlier one. The procedure division starts with MAIN, which fills the text fields, and
+ * then runs through the driver paragraphs D1, D2 and so on until FINISH, which stops the program. A driver can end
+ * with a GO TO that skips the next driver, and can be followed by a paragraph S1, S2... of a single GO TO to the
+ * next driver, which an earlier driver may ALTER to skip it. The worker paragraphs W1, W2... come after FINISH and
+ * are only reached by PERFORM: drivers perform the first half of them, those perform the second half, so every
+ * program ends and its running time grows with its size.
+ * <p>
+ * Every statement is generated as a model that can both write itself and run itself, which gives the expected
+ * output without running the interpreter.
+ */
+public class ProgramGenerator {
+    private int paragraphs = 20;
+    private int sentences = 4;
+    private int statements = 3;
+    private int fields = 30;
+    private int depth = 3;
+    private int nesting = 2;
+    private int occurs = 4;
+    private double like = 0.2;
+    private double goTo = 0.3;
+    private double perform = 0.1;
+    private double alter = 0.2;
+    private double evaluate = 0.1;
+    private double loop = 0.1;
+
+    /**
+     * Usage: --out DIRECTORY [--seed N] [--count N] [--paragraphs N] [--sentences N] [--statements N] [--fields N]
+     * [--depth N] [--nesting N] [--occurs N] [--like P] [--goto P] [--perform P] [--alter P] [--evaluate P]
+     * [--loop P]
+     * <p>
+     * Writes NAME.baby and NAME.expected for count programs, generated with the seed and the ones after it.
+     */
+    public static void main(String[] args) throws IOException {
+        var generator = new ProgramGenerator();
+        String out = null;
+        long seed = 1;
+        int count = 1;
+        for (int i = 0; i < args.length; i += 2) {
+            switch (args[i]) {
+                case "--out" -> out = args[i + 1];
+                case "--seed" -> seed = Long.parseLong(args[i + 1]);
+                case "--count" -> count = Integer.parseInt(args[i + 1]);
+                case "--paragraphs" -> generator.setParagraphs(Integer.parseInt(args[i + 1]));
+                case "--sentences" -> generator.setSentences(Integer.parseInt(args[i + 1]));
+                case "--statements" -> generator.setStatements(Integer.parseInt(args[i + 1]));
+                case "--fields" -> generator.setFields(Integer.parseInt(args[i + 1]));
+                case "--depth" -> generator.setDepth(Integer.parseInt(args[i + 1]));
+                case "--nesting" -> generator.setNesting(Integer.parseInt(args[i + 1]));
+                case "--occurs" -> generator.setOccurs(Integer.parseInt(args[i + 1]));
+                case "--like" -> generator.setLike(Double.parseDouble(args[i + 1]));
+                case "--goto" -> generator.setGoTo(Double.parseDouble(args[i + 1]));
+                case "--perform" -> generator.setPerform(Double.parseDouble(args[i + 1]));
+                case "--alter" -> generator.setAlter(Double.parseDouble(args[i + 1]));
+                case "--evaluate" -> generator.setEvaluate(Double.parseDouble(args[i + 1]));
+                case "--loop" -> generator.setLoop(Double.parseDouble(args[i + 1]));
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (out == null) {
+            throw new IllegalArgumentException("No output directory given, use --out DIRECTORY");
+        }
+        for (int i = 0; i < count; i++) {
+            var program = generator.generate(seed + i);
+            var path = program.write(Path.of(out));
+            System.out.println(path + ": " + program.getLineCount() + " lines, "
+                    + program.getExpectedLines().size() + " lines of output");
+        }
+    }
+
+    /**
+     * The number of drivers and workers together, a quarter of them are drivers.
+     */
+    public void setParagraphs(int paragraphs) {
+        this.paragraphs = Math.max(1, paragraphs);
+    }
+
+    /**
+     * The number of sentences in every driver and worker.
+     */
+    public void setSentences(int sentences) {
+        this.sentences = Math.max(1, sentences);
+    }
+
+    /**
+     * The number of statements in every sentence, and the most statements in a block of IF, EVALUATE or LOOP.
+     */
+    public void setStatements(int statements) {
+        this.statements = Math.max(1, statements);
+    }
+
+    /**
+     * The number of fields in the data division, counting the copies made by LIKE.
+     */
+    public void setFields(int fields) {
+        this.fields = Math.max(1, fields);
+    }
+
+    /**
+     * How deep the groups of a record are nested, 1 puts all fields right under the record.
+     */
+    public void setDepth(int depth) {
+        this.depth = Math.max(1, depth);
+    }
+
+    /**
+     * How deep IF, EVALUATE and LOOP are nested in each other, 0 leaves them out.
+     */
+    public void setNesting(int nesting) {
+        this.nesting = Math.max(0, nesting);
+    }
+
+    /**
+     * The largest number of occurrences of a field with OCCURS, below 2 leaves OCCURS out.
+     */
+    public void setOccurs(int occurs) {
+        this.occurs = occurs;
+    }
+
+    /**
+     * The chance that a record is LIKE an earlier one instead of declaring its own fields.
+     */
+    public void setLike(double like) {
+        this.like = like;
+    }
+
+    /**
+     * The chance that a driver ends with a GO TO.
+     */
+    public void setGoTo(double goTo) {
+        this.goTo = goTo;
+    }
+
+    /**
+     * The chance that a statement that is not nested is a PERFORM, where there is something to perform.
+     */
+    public void setPerform(double perform) {
+        this.perform = perform;
+    }
+
+    /**
+     * The chance that a driver is followed by a paragraph that is altered.
+     */
+    public void setAlter(double alter) {
+        this.alter = alter;
+    }
+
+    /**
+     * The chance that a statement is an EVALUATE, where it may be nested.
+     */
+    public void setEvaluate(double evaluate) {
+        this.evaluate = evaluate;
+    }
+
+    /**
+     * The chance that a statement is a LOOP, where it may be nested.
+     */
+    public void setLoop(double loop) {
+        this.loop = loop;
+    }
+
+    public GeneratedProgram generate(long seed) {
+        return new Generation(seed).generate();
+    }
+
+    /**
+     * The state of generating one program.
+     */
+    private final class Generation {
+        private final long seed;
+        private final Random random;
+        private final StringBuilder data = new StringBuilder();
+        private final List<Record> records = new ArrayList<>();
+        private final List<Record> likes = new ArrayList<>();
+        private final List<Field> numbers = new ArrayList<>();
+        private final List<Field> texts = new ArrayList<>();
+        private final List<Paragraph> drivers = new ArrayList<>();
+        private final List<Paragraph> workers = new ArrayList<>();
+        /**
+         * The variables of the LOOP statements around the statement that is generated.
+         */
+        private final Deque<String> loops = new ArrayDeque<>();
+        private int numberSlots = 0;
+        private int textSlots = 0;
+        private int loopCount = 0;
+
+        Generation(long seed) {
+            this.seed = seed;
+            this.random = new Random(seed);
+        }
+
+        GeneratedProgram generate() {
+            dataDivision();
+
+            int driverCount = Math.max(1, paragraphs / 4);
+            for (int i = 1; i <= driverCount; i++) {
+                drivers.add(new Paragraph("D" + i));
+            }
+            for (int i = 1; i <= paragraphs - driverCount; i++) {
+                workers.add(new Paragraph("W" + i));
+            }
+            var finish = new Paragraph("FINISH");
+            finish.add(List.of(new Code.Display(List.of(new Code.Literal("END", true))), new Code.Stop()));
+
+            var main = new Paragraph("MAIN");
+            for (var field : texts) {
+                main.add(new Code.Move(new Code.Literal(word(field.getSize()), true), new Code.Reference(field, 1)));
+            }
+            if (texts.isEmpty()) {
+                main.add(new Code.Display(List.of(new Code.Literal("START", true))));
+            }
+
+            // The drivers, each followed by the paragraph that can be altered to skip the next one
+            List<Paragraph> order = new ArrayList<>();
+            order.add(main);
+            List<List<Code>> alters = new ArrayList<>();
+            for (int i = 0; i < drivers.size(); i++) {
+                var driver = drivers.get(i);
+                order.add(driver);
+                alters.add(new ArrayList<>());
+                for (int j = 0; j < sentences; j++) {
+                    driver.add(sentence(-1));
+                }
+                if (i + 1 < drivers.size() && random.nextDouble() < alter) {
+                    var altered = new Paragraph("S" + (i + 1));
+                    altered.add(new Code.GoTo(altered.getName(), label(i + 1)));
+                    order.add(altered);
+                    alters.get(random.nextInt(i + 1)).add(new Code.Alter(altered.getName(), label(i + 2)));
+                }
+            }
+            for (int i = 0; i < drivers.size(); i++) {
+                var driver = drivers.get(i);
+                for (var statement : alters.get(i)) {
+                    driver.add(statement);
+                }
+                if (random.nextDouble() < goTo) {
+                    driver.add(new Code.GoTo(driver.getName(), label(i + 2)));
+                }
+            }
+            order.add(finish);
+
+            for (int i = 0; i < workers.size(); i++) {
+                var worker = workers.get(i);
+                for (int j = 0; j < sentences; j++) {
+                    worker.add(sentence(i < layer() ? 0 : 1));
+                }
+            }
+            order.addAll(workers);
+
+            var source = new StringBuilder();
+            source.append("IDENTIFICATION DIVISION. A. \"Generated").append(seed).append("\".\n");
+            source.append(data);
+            source.append("PROCEDURE DIVISION.\n");
+            for (var paragraph : order) {
+                paragraph.write(source);
+            }
+
+            var expected = new Simulation(numberSlots, textSlots).run(order);
+            return new GeneratedProgram("generated-" + seed, seed, source.toString(), expected);
+        }
+
+        /**
+         * @return the number of workers the drivers perform, the rest is performed by those
+         */
+        private int layer() {
+            return (workers.size() + 1) / 2;
+        }
+
+        /**
+         * @return the name of the driver with the given index, or FINISH after the last one
+         */
+        private String label(int driver) {
+            return driver < drivers.size() ? drivers.get(driver).getName() : "FINISH";
+        }
+
+        private void dataDivision() {
+            data.append("DATA DIVISION\n");
+            // The records that can be used for LIKE: those that declare their own fields, without OCCURS
+            List<Record> sources = new ArrayList<>();
+            int count = 0;
+            while (count < fields) {
+                var name = "R" + (records.size() + 1);
+                Record record;
+                if (!sources.isEmpty() && random.nextDouble() < like) {
+                    var source = sources.get(random.nextInt(sources.size()));
+                    record = new Record(name, source);
+                    for (var field : source.getFields()) {
+                        var copy = field.copy(name, field.isNumber() ? numberSlots++ : textSlots++);
+                        record.getFields().add(copy);
+                        (copy.isNumber() ? numbers : texts).add(copy);
+                    }
+                    data.append("01 ").append(name).append(" LIKE ").append(source.getName()).append(".\n");
+                    likes.add(record);
+                } else {
+                    record = new Record(name, null);
+                    data.append("01 ").append(name).append(".\n");
+                    members(record, 3, depth, Math.min(fields - count, 2 + random.nextInt(7)), new int[2]);
+                    if (!record.hasOccurs()) {
+                        sources.add(record);
+                    }
+                }
+                count += record.getFields().size();
+                records.add(record);
+            }
+        }
+
+        /**
+         * @param counters the number of groups and fields in the record so far, their names are numbered
+         */
+        private void members(Record record, int level, int depth, int leaves, int[] counters) {
+            var number = String.format("%02d", level);
+            while (leaves > 0) {
+                if (depth > 1 && leaves > 1 && random.nextBoolean()) {
+                    int size = 1 + random.nextInt(leaves);
+                    data.append(number).append(" G").append(++counters[0]).append(".\n");
+                    members(record, level + 2, depth - 1, size, counters);
+                    leaves -= size;
+                } else {
+                    data.append(number).append(' ').append(leaf(record, ++counters[1])).append(".\n");
+                    leaves--;
+                }
+            }
+        }
+
+        private String leaf(Record record, int index) {
+            var name = "F" + index;
+            Field field;
+            if (numbers.isEmpty() || random.nextInt(4) != 0) {
+                int size = 1 + random.nextInt(5);
+                int times = occurs > 1 && random.nextInt(4) == 0 ? 2 + random.nextInt(occurs - 1) : 1;
+                field = new Field(record.getName(), name, true, size, times, numberSlots);
+                numberSlots += times;
+                numbers.add(field);
+            } else {
+                field = new Field(record.getName(), name, false, 2 + random.nextInt(5), 1, textSlots++);
+                texts.add(field);
+            }
+            record.getFields().add(field);
+            var declaration = name + " PICTURE IS " + (field.isNumber() ? "9" : "X").repeat(field.getSize());
+            return field.getOccurs() > 1 ? declaration + " OCCURS " + field.getOccurs() + " TIMES" : declaration;
+        }
+
+        /**
+         * @param layer -1 for a driver, 0 for a worker performed by drivers, 1 for a worker performed by workers
+         */
+        private List<Code> sentence(int layer) {
+            List<Code> sentence = new ArrayList<>();
+            for (int i = 0; i < statements; i++) {
+                sentence.add(statement(0, layer));
+            }
+            return sentence;
+        }
+
+        private List<Code> block(int depth, int layer) {
+            List<Code> block = new ArrayList<>();
+            int size = 1 + random.nextInt(statements);
+            for (int i = 0; i < size; i++) {
+                block.add(statement(depth, layer));
+            }
+            return block;
+        }
+
+        private Code statement(int depth, int layer) {
+            // Only statements that are not nested perform, so a paragraph is not performed over and over
+            boolean performs = depth == 0 && (layer < 0 ? !workers.isEmpty() : layer == 0 && workers.size() > 1);
+            boolean nests = depth < nesting;
+            double chance = random.nextDouble();
+            if (performs && chance < perform) {
+                return perform(layer);
+            }
+            chance -= perform;
+            if (nests && chance < evaluate) {
+                return evaluate(depth, layer);
+            }
+            chance -= evaluate;
+            if (nests && chance < loop) {
+                return loop(depth, layer);
+            }
+            return switch (random.nextInt(nests ? 10 : 8)) {
+                case 0, 1, 2 -> display();
+                case 3, 4 -> move();
+                case 5, 6, 7 -> add();
+                default -> ifStatement(depth, layer);
+            };
+        }
+
+        private Code perform(int layer) {
+            if (layer == 0) {
+                // A worker performs a single worker of the second half
+                int from = layer() + random.nextInt(workers.size() - layer());
+                return new Code.Perform(List.of(workers.get(from)), 0);
+            }
+            int from = random.nextInt(layer());
+            int to = random.nextInt(3) == 0 ? Math.min(layer() - 1, from + 1 + random.nextInt(2)) : from;
+            int times = random.nextInt(3) == 0 ? 1 + random.nextInt(3) : 0;
+            return new Code.Perform(new ArrayList<>(workers.subList(from, to + 1)), times);
+        }
+
+        private Code evaluate(int depth, int layer) {
+            var subject = number();
+            var constants = random.longs(1 + random.nextInt(3), 0, 10).distinct().toArray();
+            List<List<Code>> whens = new ArrayList<>();
+            for (int i = 0; i < constants.length; i++) {
+                whens.add(block(depth + 1, layer));
+            }
+            var other = random.nextBoolean() ? block(depth + 1, layer) : null;
+            return new Code.Evaluate(subject, constants, whens, other);
+        }
+
+        private Code loop(int depth, int layer) {
+            var variable = "V" + ++loopCount;
+            loops.push(variable);
+            var body = block(depth + 1, layer);
+            loops.pop();
+            return new Code.Loop(variable, 1 + random.nextInt(3), body);
+        }
+
+        private Code ifStatement(int depth, int layer) {
+            var subject = number();
+            long constant = random.nextInt((int) Math.min(subject.getField().getModulus(), 1000));
+            return new Code.If(subject, random.nextBoolean(), constant, block(depth + 1, layer),
+                    block(depth + 1, layer));
+        }
+
+        private Code display() {
+            List<Code.Value> values = new ArrayList<>();
+            int size = 1 + random.nextInt(3);
+            for (int i = 0; i < size; i++) {
+                int kind = random.nextInt(10);
+                if (kind < 5) {
+                    values.add(number());
+                } else if (kind < 7 && !texts.isEmpty()) {
+                    values.add(new Code.Reference(texts.get(random.nextInt(texts.size())), 1));
+                } else if (kind < 9 || loops.isEmpty()) {
+                    values.add(new Code.Literal(word(2 + random.nextInt(5)), true));
+                } else {
+                    var variables = new ArrayList<>(loops);
+                    values.add(new Code.Variable(variables.get(random.nextInt(variables.size()))));
+                }
+            }
+            return new Code.Display(values);
+        }
+
+        private Code move() {
+            if (!likes.isEmpty() && random.nextInt(8) == 0) {
+                var record = likes.get(random.nextInt(likes.size()));
+                return random.nextBoolean() ? new Code.MoveRecord(record.getLike(), record)
+                        : new Code.MoveRecord(record, record.getLike());
+            }
+            if (!texts.isEmpty() && random.nextInt(4) == 0) {
+                var field = texts.get(random.nextInt(texts.size()));
+                return new Code.Move(new Code.Literal(word(field.getSize()), true), new Code.Reference(field, 1));
+            }
+            var target = number();
+            // Sometimes too large for the field, which only keeps the digits that fit
+            long value = (long) (random.nextDouble() * target.getField().getModulus() * 10);
+            return new Code.Move(new Code.Literal(Long.toString(value), false), target);
+        }
+
+        private Code add() {
+            var target = number();
+            Code.Value value = random.nextInt(4) == 0 ? number()
+                    : new Code.Literal(Integer.toString(1 + random.nextInt(20)), false);
+            return new Code.Add(value, target);
+        }
+
+        /**
+         * @return a numeric field, with a random occurrence if it has OCCURS
+         */
+        private Code.Reference number() {
+            var field = numbers.get(random.nextInt(numbers.size()));
+            return new Code.Reference(field, 1 + random.nextInt(field.getOccurs()));
+        }
+
+        private String word(int size) {
+            var word = new StringBuilder();
+            for (int i = 0; i < size; i++) {
+                word.append((char) ('A' + random.nextInt(26)));
+            }
+            return word.toString();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package nl.utwente.interpreter.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A generated record of the data division, with its fields in the order they are declared.
+ */
+final class Record {
+    private final String name;
+    private final Record like;
+    private final List<Field> fields = new ArrayList<>();
+
+    /**
+     * @param like the record this record is LIKE, or null if it declares its own fields
+     */
+    Record(String name, Record like) {
+        this.name = name;
+        this.like = like;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Record getLike() {
+        return like;
+    }
+
+    List<Field> getFields() {
+        return fields;
+    }
+
+    /**
+     * @return true if one of the fields has OCCURS, such a record is never used for LIKE
+     */
+    boolean hasOccurs() {
+        for (var field : fields) {
+            if (field.getOccurs() > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,108 @@
+package nl.utwente.interpreter.generator;
+
+import nl.utwente.interpreter.model.RecordBuffer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a generated program on its model, which gives the output the interpreter is expected to produce.
+ * <p>
+ * Only what the generator emits has to be supported: every jump goes forward, so the program always ends, and a
+ * PERFORM never reaches a GO TO.
+ */
+final class Simulation {
+    private final long[] numbers;
+    private final String[] texts;
+    private final Map<String, Long> variables = new HashMap<>();
+    private final Map<String, String> alters = new HashMap<>();
+    private final List<String> output = new ArrayList<>();
+    private String jump = null;
+    private boolean stopped = false;
+
+    Simulation(int numbers, int texts) {
+        this.numbers = new long[numbers];
+        this.texts = new String[texts];
+    }
+
+    /**
+     * Runs the paragraphs in the order they are written, from the first one until STOP or the last one.
+     */
+    List<String> run(List<Paragraph> paragraphs) {
+        Map<String, Integer> indices = new HashMap<>();
+        for (int i = 0; i < paragraphs.size(); i++) {
+            indices.put(paragraphs.get(i).getName(), i);
+        }
+        int pc = 0;
+        while (pc < paragraphs.size() && !stopped) {
+            jump = null;
+            paragraphs.get(pc).run(this);
+            pc = jump != null ? indices.get(jump) : pc + 1;
+        }
+        return output;
+    }
+
+    /**
+     * @return true once the rest of the paragraph is skipped, because of a GO TO or a STOP
+     */
+    boolean isLeaving() {
+        return jump != null || stopped;
+    }
+
+    void goTo(String paragraph, String label) {
+        jump = alters.getOrDefault(paragraph, label);
+    }
+
+    void alter(String paragraph, String label) {
+        alters.put(paragraph, label);
+    }
+
+    void stop() {
+        stopped = true;
+    }
+
+    void display(String line) {
+        output.add(line);
+    }
+
+    long getNumber(Field field, int index) {
+        return numbers[field.getSlot() + index - 1];
+    }
+
+    void setNumber(Field field, int index, long value) {
+        numbers[field.getSlot() + index - 1] = RecordBuffer.fit(value, field.getSize());
+    }
+
+    String getText(Field field) {
+        return texts[field.getSlot()];
+    }
+
+    void setText(Field field, String value) {
+        texts[field.getSlot()] = value;
+    }
+
+    /**
+     * @return the value as DISPLAY shows it, numbers are padded with zeros to the size of their picture
+     */
+    String show(Field field, int index) {
+        if (!field.isNumber()) {
+            return getText(field);
+        }
+        var digits = Long.toString(getNumber(field, index));
+        var padded = new StringBuilder();
+        for (int i = digits.length(); i < field.getSize(); i++) {
+            padded.append('0');
+        }
+        return padded.append(digits).toString();
+    }
+
+    long getVariable(String name) {
+        return variables.get(name);
+    }
+
+    void setVariable(String name, long value) {
+        variables.put(name, value);
+    }
+}
@@ -0,0 +1,68 @@
+package nl.utwente.interpreter.input;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Splits bytes into values on whitespace, without regular expressions. Whitespace is recognized on the bytes
+ * themselves, which is safe for encodings like UTF-8 where a multi-byte character never contains an ASCII byte.
+ * ASCII values are copied into the token as they are, other values are decoded with the default charset.
+ */
+abstract class ByteSource implements InputSource {
+    private final Token token = new Token();
+    private byte[] bytes = new byte[64];
+    private ByteBuffer buffer;
+    private boolean ended;
+
+    /**
+     * @return the buffer with the next bytes of the input, ready to be read, or null at the end of the input
+     */
+    protected abstract ByteBuffer nextBuffer();
+
+    @Override
+    public CharSequence next() {
+        token.clear();
+        int length = 0;
+        boolean ascii = true;
+        boolean started = false;
+        while (true) {
+            if (buffer == null || !buffer.hasRemaining()) {
+                buffer = ended ? null : nextBuffer();
+                if (buffer == null) {
+                    ended = true;
+                    break;
+                }
+            }
+            byte b = buffer.get();
+            if (isWhitespace(b)) {
+                if (started) {
+                    break;
+                }
+                continue;
+            }
+            started = true;
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, length * 2);
+            }
+            bytes[length++] = b;
+            if (b >= 0) {
+                token.append((char) b);
+            } else {
+                ascii = false;
+            }
+        }
+        if (!started) {
+            return null;
+        }
+        if (!ascii) {
+            token.clear();
+            token.append(new String(bytes, 0, length, Charset.defaultCharset()));
+        }
+        return token;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B;
+    }
+}
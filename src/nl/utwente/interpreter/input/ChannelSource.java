@@ -0,0 +1,63 @@
+package nl.utwente.interpreter.input;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads values from a channel through one large buffer.
+ */
+public class ChannelSource extends ByteSource {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final boolean ownsChannel;
+    private final ByteBuffer buffer;
+
+    public ChannelSource(ReadableByteChannel channel) {
+        this(channel, true, DEFAULT_CAPACITY);
+    }
+
+    private ChannelSource(ReadableByteChannel channel, boolean ownsChannel, int capacity) {
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * A source for standard input. Closing it leaves standard input open.
+     */
+    public static ChannelSource stdin() {
+        return new ChannelSource(Channels.newChannel(System.in), false, DEFAULT_CAPACITY);
+    }
+
+    @Override
+    protected ByteBuffer nextBuffer() {
+        buffer.clear();
+        try {
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            if (read < 0) {
+                return null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public void close() {
+        if (ownsChannel) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
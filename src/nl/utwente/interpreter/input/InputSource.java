@@ -0,0 +1,16 @@
+package nl.utwente.interpreter.input;
+
+import java.io.Closeable;
+
+/**
+ * Where ACCEPT reads its values from.
+ */
+public interface InputSource extends Closeable {
+    /**
+     * @return the next value, only valid until the next call, or null at the end of the input
+     */
+    CharSequence next();
+
+    @Override
+    void close();
+}
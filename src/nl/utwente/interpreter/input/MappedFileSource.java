@@ -0,0 +1,49 @@
+package nl.utwente.interpreter.input;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads values from a file that is mapped into memory, a window at a time, so the bytes are read where the
+ * operating system put them instead of being copied into a buffer first.
+ */
+public class MappedFileSource extends ByteSource {
+    private static final long WINDOW = 1L << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private long position = 0;
+
+    public MappedFileSource(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    @Override
+    protected ByteBuffer nextBuffer() {
+        if (position >= size) {
+            return null;
+        }
+        long length = Math.min(WINDOW, size - position);
+        try {
+            var window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            position += length;
+            return window;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package nl.utwente.interpreter.input;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Values handed to the program by the code that embeds the interpreter. Every value that is added is read by one
+ * ACCEPT as a whole, spaces included. Reading waits for the next value until the input is ended.
+ */
+public class QueueSource implements InputSource {
+    private static final String END = new String("END");
+
+    private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private boolean ended = false;
+
+    public void add(String value) {
+        queue.add(value);
+    }
+
+    /**
+     * Marks the end of the input, ACCEPT fails once the values before it are read.
+     */
+    public void end() {
+        queue.add(END);
+    }
+
+    @Override
+    public CharSequence next() {
+        if (ended) {
+            return null;
+        }
+        try {
+            var value = queue.take();
+            if (value == END) {
+                ended = true;
+                return null;
+            }
+            return value;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for input", e);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
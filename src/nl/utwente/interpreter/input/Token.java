@@ -0,0 +1,51 @@
+package nl.utwente.interpreter.input;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer for the characters of one value, so reading a value does not allocate.
+ */
+final class Token implements CharSequence {
+    private char[] chars = new char[64];
+    private int length;
+
+    void clear() {
+        length = 0;
+    }
+
+    void append(char c) {
+        if (length == chars.length) {
+            chars = Arrays.copyOf(chars, length * 2);
+        }
+        chars[length++] = c;
+    }
+
+    void append(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            append(text.charAt(i));
+        }
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
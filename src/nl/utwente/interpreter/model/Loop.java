@@ -1,19 +1,17 @@
 package nl.utwente.interpreter.model;
 
-import java.util.Objects;
-
 public class Loop {
-    private int to;
-    private int by;
-    private int increment;
+    private long to;
+    private long by;
+    private long increment;
     private boolean hasVarying = false;
     private boolean exitLoop = false;
 
-    public void initVarying(Integer from, Integer to, Integer by) {
-        this.to = Objects.requireNonNullElse(to, 1);
-        this.by = Objects.requireNonNullElse(by, 1);
+    public void initVarying(long from, long to, long by) {
+        this.to = to;
+        this.by = by;
 
-        this.increment = Objects.requireNonNullElse(from, 1);
+        this.increment = from;
         this.hasVarying = true;
     }
 
@@ -37,7 +35,7 @@ public class Loop {
         return this.exitLoop;
     }
 
-    public int getVaryingValue() {
+    public long getVaryingValue() {
         return increment;
     }
 }
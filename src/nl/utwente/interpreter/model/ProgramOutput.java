@@ -1,25 +1,196 @@
 package nl.utwente.interpreter.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
+/**
+ * Collects the lines a program displays, together with the line of the DISPLAY statement that produced them.
+ * <p>
+ * Lines are kept in one growable char buffer, with the offset and source line of every output line in int arrays.
+ * Optionally only the most recent lines are retained, the buffers then work as a ring and stop growing once the
+ * retained lines fit. A listener sees every line as it is produced, with or without storing it.
+ */
 public class ProgramOutput {
 
+    /**
+     * Receives the output of a program line by line.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void line(String text, int line);
+    }
+
+    private static final int INITIAL_LINES = 16;
+    private static final int INITIAL_CHARS = 256;
 
-    private ArrayList<Tuple<String,Integer>> outputs = new ArrayList<>();
+    private final Listener listener;
+    private final boolean storing;
+    private final int maxLines;
+
+    private char[] chars;
+    private int charCount;
+    /**
+     * The start of every retained line in chars and its source line, as a ring that starts at head.
+     */
+    private int[] starts;
+    private int[] lines;
+    private int head;
+    private int count;
 
     public ProgramOutput() {
+        this(null, true, Integer.MAX_VALUE);
+    }
+
+    private ProgramOutput(Listener listener, boolean storing, int maxLines) {
+        if (maxLines <= 0) {
+            throw new IllegalArgumentException("At least one line has to be retained");
+        }
+        this.listener = listener;
+        this.storing = storing;
+        this.maxLines = maxLines;
+        clearList();
+    }
+
+    /**
+     * @return output that only keeps the given number of most recent lines
+     */
+    public static ProgramOutput retaining(int maxLines) {
+        return new ProgramOutput(null, true, maxLines);
+    }
+
+    /**
+     * @return output that passes every line to the listener and keeps none of them
+     */
+    public static ProgramOutput streaming(Listener listener) {
+        return new ProgramOutput(listener, false, Integer.MAX_VALUE);
+    }
 
+    /**
+     * @return output that passes every line to the listener and also keeps the given number of most recent lines
+     */
+    public static ProgramOutput streaming(Listener listener, int maxLines) {
+        return new ProgramOutput(listener, true, maxLines);
+    }
+
+    public void add(String text, int line) {
+        if (listener != null) {
+            listener.line(text, line);
+        }
+        if (!storing) {
+            return;
+        }
+        if (count == maxLines) {
+            // Drop the oldest line, its characters are reclaimed when the char buffer is compacted.
+            head = (head + 1) % starts.length;
+            count--;
+        } else if (count == starts.length) {
+            growLines();
+        }
+        reserve(text.length());
+        int index = (head + count) % starts.length;
+        starts[index] = charCount;
+        lines[index] = line;
+        text.getChars(0, text.length(), chars, charCount);
+        charCount += text.length();
+        count++;
     }
 
     public void addToList(Tuple<String, Integer> item) {
-        outputs.add(item);
+        add(item._x, item._y);
     }
 
     public void clearList() {
-        outputs = new ArrayList<>();
+        chars = new char[storing ? INITIAL_CHARS : 0];
+        charCount = 0;
+        int capacity = storing ? Math.min(INITIAL_LINES, maxLines) : 0;
+        starts = new int[capacity];
+        lines = new int[capacity];
+        head = 0;
+        count = 0;
+    }
+
+    /**
+     * @return the number of retained lines
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @param i the index of a retained line, 0 for the oldest
+     */
+    public String getText(int i) {
+        int index = index(i);
+        return new String(chars, starts[index], end(i) - starts[index]);
+    }
+
+    /**
+     * @param i the index of a retained line, 0 for the oldest
+     * @return the line of the DISPLAY statement that produced it
+     */
+    public int getLine(int i) {
+        return lines[index(i)];
+    }
+
+    /**
+     * Passes every retained line to the listener, from the oldest to the most recent.
+     */
+    public void forEach(Listener listener) {
+        for (int i = 0; i < count; i++) {
+            listener.line(getText(i), getLine(i));
+        }
     }
 
     public ArrayList<Tuple<String, Integer>> getCopyOfList() {
-        return (ArrayList<Tuple<String, Integer>>) outputs.clone();
+        var copy = new ArrayList<Tuple<String, Integer>>(count);
+        forEach((text, line) -> copy.add(new Tuple<>(text, line)));
+        return copy;
+    }
+
+    private int index(int i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Line " + i + " of " + count);
+        }
+        return (head + i) % starts.length;
+    }
+
+    private int end(int i) {
+        return i + 1 < count ? starts[(head + i + 1) % starts.length] : charCount;
+    }
+
+    private void growLines() {
+        int capacity = (int) Math.min((long) starts.length * 2, maxLines);
+        var newStarts = new int[capacity];
+        var newLines = new int[capacity];
+        for (int i = 0; i < count; i++) {
+            int index = (head + i) % starts.length;
+            newStarts[i] = starts[index];
+            newLines[i] = lines[index];
+        }
+        starts = newStarts;
+        lines = newLines;
+        head = 0;
+    }
+
+    /**
+     * Makes room for the given number of characters. The characters of dropped lines are reclaimed first, the buffer
+     * only grows if the retained lines take up more than half of it.
+     */
+    private void reserve(int length) {
+        if (charCount + length <= chars.length) {
+            return;
+        }
+        int first = count > 0 ? starts[head] : charCount;
+        int live = charCount - first;
+        if (live + length > chars.length / 2) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, live + length));
+        }
+        if (first > 0) {
+            System.arraycopy(chars, first, chars, 0, live);
+            for (int i = 0; i < count; i++) {
+                starts[(head + i) % starts.length] -= first;
+            }
+            charCount = live;
+        }
     }
 }
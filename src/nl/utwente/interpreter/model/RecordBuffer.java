@@ -0,0 +1,254 @@
+package nl.utwente.interpreter.model;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The working storage of one 01-level record. All fields of the record are a fixed range of bytes in one array,
+ * one byte per character, so writing a field overwrites its bytes in place and a whole record is one array copy.
+ * <p>
+ * PICTURE 9 fields are kept as a long next to the bytes. Arithmetic only touches the long, the digits in the bytes
+ * are only brought up to date when the text of the field, or of a group containing it, is read. A number keeps
+ * what its text would keep in the field, see {@link #fit(long, int)}.
+ */
+public class RecordBuffer implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final byte[] data;
+    private long[] numbers = new long[0];
+    private int[] numberOffsets = new int[0];
+    private int[] numberLengths = new int[0];
+    /**
+     * Whether the digits in the bytes are behind the long of a number.
+     */
+    private boolean[] outdated = new boolean[0];
+    private int numberCount = 0;
+
+    public RecordBuffer(int size) {
+        this.data = new byte[size];
+    }
+
+    /**
+     * A copy with the same layout and contents, so an execution can work on its own copy of the initial record.
+     */
+    public RecordBuffer(RecordBuffer template) {
+        this.data = template.data.clone();
+        this.numbers = template.numbers.clone();
+        this.numberOffsets = template.numberOffsets.clone();
+        this.numberLengths = template.numberLengths.clone();
+        this.outdated = template.outdated.clone();
+        this.numberCount = template.numberCount;
+    }
+
+    public int size() {
+        return data.length;
+    }
+
+    public int getNumberCount() {
+        return numberCount;
+    }
+
+    /**
+     * The largest number that fits in the given number of digits.
+     */
+    public static long maxNumber(int digits) {
+        return digits < POWERS_OF_TEN.length ? POWERS_OF_TEN[digits] - 1 : Long.MAX_VALUE;
+    }
+
+    /**
+     * The number a PICTURE 9 field of the given number of digits keeps of a value. This is what is left of its text
+     * aligned to the right in the field: only the last digits are kept, and the minus sign of a negative value is
+     * kept only if there is room for it in front of the digits. So in three digits -5 is kept as 0-5, but -123 as 123.
+     */
+    public static long fit(long value, int digits) {
+        if (value < 0) {
+            if (digits > POWERS_OF_TEN.length || digits > 0 && value > -POWERS_OF_TEN[digits - 1]) {
+                return value;
+            }
+            value = value == Long.MIN_VALUE ? Long.MAX_VALUE : -value;
+        }
+        return digits < POWERS_OF_TEN.length ? value % POWERS_OF_TEN[digits] : value;
+    }
+
+    /**
+     * Registers a PICTURE 9 field at the given range. Fields are registered in the order of their offsets.
+     *
+     * @return the slot of the number in this buffer
+     */
+    public int addNumber(int offset, int length) {
+        if (numberCount == numbers.length) {
+            int capacity = Math.max(4, numberCount * 2);
+            numbers = Arrays.copyOf(numbers, capacity);
+            numberOffsets = Arrays.copyOf(numberOffsets, capacity);
+            numberLengths = Arrays.copyOf(numberLengths, capacity);
+            outdated = Arrays.copyOf(outdated, capacity);
+        }
+        numberOffsets[numberCount] = offset;
+        numberLengths[numberCount] = length;
+        numbers[numberCount] = parse(offset, length);
+        return numberCount++;
+    }
+
+    public long getNumber(int slot) {
+        return numbers[slot];
+    }
+
+    /**
+     * Stores a number, keeping what fits as {@link #fit(long, int)} does.
+     */
+    public void setNumber(int slot, long value) {
+        numbers[slot] = fit(value, numberLengths[slot]);
+        outdated[slot] = true;
+    }
+
+    public String readNumber(int slot) {
+        format(slot);
+        return read(numberOffsets[slot], numberLengths[slot]);
+    }
+
+    public String read(int offset, int length) {
+        return new String(data, offset, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Reads a range that can contain numbers, like a group.
+     */
+    public String readRange(int offset, int length) {
+        sync(offset, length);
+        return read(offset, length);
+    }
+
+    /**
+     * Writes the value in the given range. A shorter value is padded with spaces, a longer one is cut off.
+     */
+    public void write(int offset, int length, String value) {
+        int n = Math.min(length, value.length());
+        for (int i = 0; i < n; i++) {
+            data[offset + i] = (byte) value.charAt(i);
+        }
+        for (int i = n; i < length; i++) {
+            data[offset + i] = ' ';
+        }
+    }
+
+    /**
+     * Writes the value aligned to the right. A value that is too long keeps its first characters for a PICTURE X
+     * and its last digits for a PICTURE 9.
+     */
+    public void writeRightAligned(int offset, int length, String value, char padding, boolean keepLast) {
+        int pad = length - value.length();
+        if (pad >= 0) {
+            fill(offset, pad, padding);
+            for (int i = 0; i < value.length(); i++) {
+                data[offset + pad + i] = (byte) value.charAt(i);
+            }
+        } else {
+            int start = keepLast ? -pad : 0;
+            for (int i = 0; i < length; i++) {
+                data[offset + i] = (byte) value.charAt(start + i);
+            }
+        }
+    }
+
+    public void fill(int offset, int length, char c) {
+        for (int i = 0; i < length; i++) {
+            data[offset + i] = (byte) c;
+        }
+    }
+
+    public static void copy(RecordBuffer source, int sourceOffset, RecordBuffer target, int targetOffset,
+                            int length) {
+        source.sync(sourceOffset, length);
+        System.arraycopy(source.data, sourceOffset, target.data, targetOffset, length);
+        target.reload(targetOffset, length);
+    }
+
+    /**
+     * Writes the digits of every outdated number in the range to the bytes.
+     */
+    private void sync(int offset, int length) {
+        for (int i = firstNumberAt(offset); i < numberCount && numberOffsets[i] < offset + length; i++) {
+            format(i);
+        }
+    }
+
+    /**
+     * Reads the numbers in the range back from the bytes, after the bytes were overwritten.
+     */
+    private void reload(int offset, int length) {
+        for (int i = firstNumberAt(offset); i < numberCount && numberOffsets[i] < offset + length; i++) {
+            numbers[i] = parse(numberOffsets[i], numberLengths[i]);
+            outdated[i] = false;
+        }
+    }
+
+    /**
+     * The numbers are sorted by offset and do not overlap, so the ones in a range are found by a binary search for
+     * the first one that ends after its start, a table with many numbers is not walked for every group it has.
+     *
+     * @return the slot of the first number that ends after the offset
+     */
+    private int firstNumberAt(int offset) {
+        int low = 0;
+        int high = numberCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (numberOffsets[middle] + numberLengths[middle] <= offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void format(int slot) {
+        if (!outdated[slot]) {
+            return;
+        }
+        long value = numbers[slot];
+        int offset = numberOffsets[slot];
+        int i = numberLengths[slot] - 1;
+        long digits = Math.abs(value);
+        do {
+            data[offset + i--] = (byte) ('0' + digits % 10);
+            digits /= 10;
+        } while (i >= 0 && digits > 0);
+        // fit left room for the sign in front of the digits
+        if (value < 0) {
+            data[offset + i--] = '-';
+        }
+        while (i >= 0) {
+            data[offset + i--] = '0';
+        }
+        outdated[slot] = false;
+    }
+
+    /**
+     * A minus sign makes the digits after it negative, anything else that is not a digit counts as a zero.
+     */
+    private long parse(int offset, int length) {
+        long value = 0;
+        boolean negative = false;
+        for (int i = 0; i < length; i++) {
+            byte b = data[offset + i];
+            if (b == '-') {
+                negative = true;
+                value = 0;
+            } else {
+                value = value * 10 + (b >= '0' && b <= '9' ? b - '0' : 0);
+            }
+        }
+        return negative ? -value : value;
+    }
+}
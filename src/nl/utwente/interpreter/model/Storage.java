@@ -0,0 +1,102 @@
+package nl.utwente.interpreter.model;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * The working storage of the data division: a buffer for every record, and the text of every node that has no
+ * fixed layout. The storage that is allocated for a data division holds its initial values. It is never written
+ * to, every execution of the program works on its own {@link #copy}.
+ */
+public final class Storage implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final RecordBuffer[] records;
+    private final String[] values;
+
+    private Storage(RecordBuffer[] records, String[] values) {
+        this.records = records;
+        this.values = values;
+    }
+
+    /**
+     * Works out the size the storage of the data division is going to have, as {@link #getBytes()} counts it,
+     * without allocating anything. A data division that is too large can then be refused before it is made.
+     *
+     * @return the size, or Long.MAX_VALUE if it does not even fit in a long
+     * @throws nl.utwente.interpreter.exception.InterpreterException if a record is too large to address
+     */
+    public static long measure(List<Tree> dataStructures) {
+        long bytes = 0;
+        try {
+            for (var d : dataStructures) {
+                d.computeLength();
+                bytes = Math.addExact(bytes, d.getTotalLength());
+                bytes = Math.addExact(bytes, d.getValueBytes());
+            }
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+        return bytes;
+    }
+
+    /**
+     * Computes the layout of every record in the data division and gives each root its own buffer.
+     * A root with OCCURS has all of its occurrences in its buffer.
+     *
+     * @throws nl.utwente.interpreter.exception.InterpreterException if a record is too large to address
+     */
+    public static Storage allocate(List<Tree> dataStructures) {
+        List<RecordBuffer> records = new ArrayList<>();
+        for (var d : dataStructures) {
+            if (d.computeLength() > 0) {
+                records.add(new RecordBuffer(d.getTotalLength()));
+                d.allocate(records, records.size() - 1, 0);
+            }
+        }
+        List<String> values = new ArrayList<>();
+        for (var d : dataStructures) {
+            d.allocateValue(values);
+        }
+        return new Storage(records.toArray(new RecordBuffer[0]), values.toArray(new String[0]));
+    }
+
+    /**
+     * @return a storage with the same contents that can be changed independently of this one
+     */
+    public Storage copy() {
+        var copies = new RecordBuffer[records.length];
+        for (int i = 0; i < copies.length; i++) {
+            copies[i] = new RecordBuffer(records[i]);
+        }
+        return new Storage(copies, values.clone());
+    }
+
+    /**
+     * @return the size of the records, and of the texts of the nodes without a fixed layout, one byte per character
+     */
+    public long getBytes() {
+        long bytes = 0;
+        for (var record : records) {
+            bytes += record.size();
+        }
+        for (var value : values) {
+            if (value != null) {
+                bytes += value.length();
+            }
+        }
+        return bytes;
+    }
+
+    RecordBuffer record(int record) {
+        return records[record];
+    }
+
+    String value(int slot) {
+        return values[slot];
+    }
+
+    void setValue(int slot, String value) {
+        values[slot] = value;
+    }
+}
@@ -0,0 +1,27 @@
+package nl.utwente.interpreter.model;
+
+import java.io.Serializable;
+
+/**
+ * A key of a table, as declared by ASCENDING KEY IS or DESCENDING KEY IS after its OCCURS. The key is a field in
+ * every occurrence of the table, SEARCH ALL expects the occurrences to be sorted on it.
+ */
+public final class TableKey implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final boolean ascending;
+
+    public TableKey(String name, boolean ascending) {
+        this.name = name;
+        this.ascending = ascending;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+}
@@ -1,20 +1,65 @@
 package nl.utwente.interpreter.model;
 
+import nl.utwente.interpreter.exception.InterpreterException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.io.Serializable;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
-public class Tree {
-    private List<Tree> next;
+public class Tree implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Tree> next;
+    /**
+     * All nodes in this subtree (this node included) by name. Kept up to date by addNext and setNext, so looking
+     * up a name costs time proportional to the number of matches instead of the size of the tree.
+     */
+    private final Map<String, Set<Tree>> nodesByName;
     private Tree previous;
     private Integer level;
     private String value;
     private String name;
     private DataTypes picture;
     private int pictureSize;
-    private int index;
     private int occurs;
+    private List<TableKey> keys = Collections.emptyList();
+    private String indexName;
     private Tree like;
+    /**
+     * The record in the storage where the value of this node lives if it has a fixed layout, -1 if it has none.
+     * Nodes without one keep their value as a String, in the value slot of the storage.
+     */
+    private int record = -1;
+    private int valueSlot = -1;
+    private int offset;
+    /**
+     * The number of bytes of one occurrence, the next occurrence starts this many bytes further.
+     */
+    private int length;
+    /**
+     * The slot of the number in the buffer for a PICTURE 9 field, -1 for anything else.
+     */
+    private int numberSlot = -1;
+    /**
+     * The number of number slots and value slots one occurrence takes up. The slots of a table are allocated in the
+     * order of its occurrences, so the next occurrence of a node has its slots this much further.
+     */
+    private int numbers;
+    private int values;
+    /**
+     * For an occurrence of a table, the node as it is declared and how far this occurrence is from its first one.
+     * Null for a declared node, which is its own first occurrence.
+     */
+    private Tree declared;
+    private int byteShift;
+    private int numberShift;
+    private int valueShift;
+    /**
+     * The nodes with OCCURS from the outermost to this one, worked out the first time they are asked for. Declared
+     * nodes are shared by every execution of a program, so it is volatile to hand the list over to other threads.
+     */
+    private volatile List<Tree> dimensions;
 
 
     public Tree(Integer level, String value, String name) {
@@ -24,9 +69,44 @@ public class Tree {
         this.next = new ArrayList<>();
         this.previous = null;
         this.picture = null;
-        this.index = 1;
         this.occurs = 1;
         this.like = null;
+        this.nodesByName = new HashMap<>();
+        addToIndex(name, this);
+    }
+
+    /**
+     * An occurrence of a declared node. It is never looked up by name, so it has no index of names. Its children
+     * are the occurrences of the declared children at the same distance, they are made along with it so a view
+     * never changes once it is made and can be shared by executions on several threads.
+     */
+    private Tree(Tree declared, int bytes, int numbers, int values) {
+        this.declared = declared;
+        this.byteShift = bytes;
+        this.numberShift = numbers;
+        this.valueShift = values;
+        this.nodesByName = Collections.emptyMap();
+        this.level = declared.level;
+        this.value = declared.value;
+        this.name = declared.name;
+        this.previous = declared.previous;
+        this.picture = declared.picture;
+        this.pictureSize = declared.pictureSize;
+        this.occurs = declared.occurs;
+        this.keys = declared.keys;
+        this.indexName = declared.indexName;
+        this.record = declared.record;
+        this.offset = declared.record >= 0 ? declared.offset + bytes : declared.offset;
+        this.length = declared.length;
+        this.numberSlot = declared.numberSlot >= 0 ? declared.numberSlot + numbers : -1;
+        this.valueSlot = declared.valueSlot >= 0 ? declared.valueSlot + values : -1;
+        this.numbers = declared.numbers;
+        this.values = declared.values;
+        List<Tree> children = new ArrayList<>();
+        for (var c : declared.next) {
+            children.add(c.shift(bytes, numbers, values));
+        }
+        this.next = Collections.unmodifiableList(children);
     }
 
     public Tree deepCopy() {
@@ -38,6 +118,9 @@ public class Tree {
             copy.addNext(c.deepCopy());
         }
         copy.setPictureSize(this.getPictureSize());
+        copy.setOccurs(this.getOccurs());
+        copy.keys = this.keys;
+        copy.indexName = this.indexName;
         return copy;
     }
 
@@ -58,7 +141,7 @@ public class Tree {
     }
 
     public Boolean isRecord() {
-        return !this.next.isEmpty();
+        return !this.getNext().isEmpty();
     }
 
     public Tree getLike() {
@@ -73,16 +156,6 @@ public class Tree {
         return occurs;
     }
 
-    public List<Tree> getNodesWithOccurs(List<Tree> result) {
-        if (this.getOccurs() > 1) {
-            result.add(this);
-        }
-        for (var c: this.getNext()) {
-            c.getNodesWithOccurs(result);
-        }
-        return result;
-    }
-
     public List<Tree> getNodesWithLikes(List<Tree> result) {
         if (this.getLike() != null) {
             result.add(this);
@@ -97,12 +170,132 @@ public class Tree {
         this.occurs = occurs;
     }
 
-    public void setIndex(int index) {
-        this.index = index;
+    /**
+     * @return the keys of a table in the order they are declared, the first one is the most significant
+     */
+    public List<TableKey> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<TableKey> keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * @return the name given by INDEXED BY, SEARCH keeps the occurrence it is at in it, or null if there is none
+     */
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public void setIndexName(String indexName) {
+        this.indexName = indexName;
     }
 
-    public int getIndex() {
-        return index;
+    /**
+     * @return the nodes that have OCCURS, from the outermost to this node itself, a subscript is given for each
+     */
+    public List<Tree> getDimensions() {
+        if (declared != null) {
+            return declared.getDimensions();
+        }
+        var dimensions = this.dimensions;
+        if (dimensions == null) {
+            List<Tree> found = new ArrayList<>();
+            for (var n = this; n != null; n = n.getPrevious()) {
+                if (n.getOccurs() > 1) {
+                    found.add(0, n);
+                }
+            }
+            dimensions = Collections.unmodifiableList(found);
+            this.dimensions = dimensions;
+        }
+        return dimensions;
+    }
+
+    /**
+     * The distance between two occurrences of a table that contains this node, in what the value of this node is
+     * addressed by: number slots for a PICTURE 9 field, bytes for anything else in a record and value slots for
+     * the rest.
+     */
+    public int getStride(Tree table) {
+        return numberSlot >= 0 ? table.numbers : record >= 0 ? table.length : table.values;
+    }
+
+    /**
+     * The distance of the occurrence with the given subscripts from the first occurrence of this declared node, as
+     * {@link #getStride(Tree)} counts it. One subscript is given for each dimension from the outermost, missing
+     * outer subscripts are 1. Every occurrence is at a fixed distance from the first one, so finding it takes a
+     * multiplication per subscript and no search.
+     */
+    public int distance(long... subscripts) {
+        var dimensions = getDimensions();
+        int first = checkSubscripts(dimensions, subscripts);
+        long distance = 0;
+        for (int i = first; i < dimensions.size(); i++) {
+            distance += (subscripts[i - first] - 1) * getStride(dimensions.get(i));
+        }
+        return Math.toIntExact(distance);
+    }
+
+    /**
+     * The occurrence of this declared node with the given subscripts, as a node of its own. Its value can be read
+     * and written through {@link #distance(long...)} without one, so this is only needed to use the occurrence
+     * as a subtree.
+     *
+     * @return this node if all subscripts are 1, else a view of the occurrence that shares the layout of this node
+     */
+    public Tree element(long... subscripts) {
+        var dimensions = getDimensions();
+        int first = checkSubscripts(dimensions, subscripts);
+        long bytes = 0;
+        long numbers = 0;
+        long values = 0;
+        for (int i = first; i < dimensions.size(); i++) {
+            var dimension = dimensions.get(i);
+            long s = subscripts[i - first];
+            bytes += (s - 1) * dimension.length;
+            numbers += (s - 1) * dimension.numbers;
+            values += (s - 1) * dimension.values;
+        }
+        return shift(Math.toIntExact(bytes), Math.toIntExact(numbers), Math.toIntExact(values));
+    }
+
+    /**
+     * @return the dimension the first subscript is for, or the number of dimensions if there are more subscripts
+     * than dimensions, which are all 1
+     */
+    private int checkSubscripts(List<Tree> dimensions, long[] subscripts) {
+        if (subscripts.length > dimensions.size()) {
+            for (var s : subscripts) {
+                if (s != 1) {
+                    throw new RuntimeException("Identifier " + name + " has " + dimensions.size()
+                            + " subscripts, not " + subscripts.length);
+                }
+            }
+            return dimensions.size();
+        }
+        int first = dimensions.size() - subscripts.length;
+        for (int i = 0; i < subscripts.length; i++) {
+            var dimension = dimensions.get(first + i);
+            long s = subscripts[i];
+            if (s < 1 || s > dimension.getOccurs()) {
+                throw new RuntimeException("Subscript " + s + " of " + name + " is out of range, "
+                        + dimension.getName() + " occurs " + dimension.getOccurs() + " times");
+            }
+        }
+        return first;
+    }
+
+    /**
+     * @return the same nodes, the given distance further in the storage
+     */
+    private Tree shift(int bytes, int numbers, int values) {
+        if (bytes == 0 && numbers == 0 && values == 0) {
+            return this;
+        }
+        return new Tree(declared != null ? declared : this, byteShift + bytes, numberShift + numbers,
+                valueShift + values);
     }
 
     public void setPicture(String picture) {
@@ -115,16 +308,26 @@ public class Tree {
 
     public void addNext(Tree child) {
         next.add(child);
+        child.setPrevious(this);
+        // This node and all of its parents now also contain the subtree of the child.
+        for (var n = this; n != null; n = n.getPrevious()) {
+            n.addToIndex(child.nodesByName);
+        }
     }
 
     public void addNext(List<Tree> childs) {
-        this.next = Stream.concat(this.next.stream(), childs.stream()).collect(Collectors.toList());
+        for (var c : childs) {
+            addNext(c);
+        }
     }
 
     public void setPrevious(Tree previous) {
         this.previous = previous;
     }
 
+    /**
+     * Sets the value this node is declared with, before the storage is allocated.
+     */
     public void setValue(String value) {
         this.value = value;
     }
@@ -133,16 +336,90 @@ public class Tree {
         return level;
     }
 
+    /**
+     * @return the value this node is declared with, the value while running is in the storage
+     */
     public String getValue() {
         return value;
     }
 
-    public List<Tree> getNext() {
-        return next;
+    /**
+     * For a field this is its value, for a group it is the value of all its fields together.
+     */
+    public String getValue(Storage storage) {
+        return getValue(storage, 0);
     }
 
-    public void setNext(List<Tree> next) {
-        this.next = next;
+    /**
+     * The value of the occurrence of this node at the given distance from it, as {@link #getStride(Tree)} counts
+     * it.
+     */
+    public String getValue(Storage storage, int distance) {
+        if (numberSlot >= 0) {
+            return storage.record(record).readNumber(numberSlot + distance);
+        }
+        if (record >= 0) {
+            return storage.record(record).readRange(offset + distance, length);
+        }
+        return storage.value(valueSlot + distance);
+    }
+
+    /**
+     * @return true if this is a PICTURE 9 field with its number stored as a long
+     */
+    public boolean isNumber() {
+        return numberSlot >= 0;
+    }
+
+    public long getNumber(Storage storage) {
+        return storage.record(record).getNumber(numberSlot);
+    }
+
+    /**
+     * Stores a number in a PICTURE 9 field, only the last digits that fit in the picture are kept.
+     */
+    public void setNumber(Storage storage, long number) {
+        storage.record(record).setNumber(numberSlot, number);
+    }
+
+    /**
+     * Reads the number of this PICTURE 9 field in an occurrence of a table that contains it, without making a view
+     * of the occurrence.
+     *
+     * @param table one of the dimensions of this field
+     * @param steps the number of occurrences of the table from the one this node is in
+     */
+    public long getNumber(Storage storage, Tree table, int steps) {
+        return getNumber(storage, steps * table.numbers);
+    }
+
+    /**
+     * The value of this node in an occurrence of a table that contains it, like {@link #getNumber(Storage, Tree, int)}.
+     */
+    public String getValue(Storage storage, Tree table, int steps) {
+        return getValue(storage, steps * getStride(table));
+    }
+
+    /**
+     * Reads the number of an occurrence of this PICTURE 9 field, the given number of slots from this one.
+     */
+    public long getNumber(Storage storage, int distance) {
+        return storage.record(record).getNumber(numberSlot + distance);
+    }
+
+    public void setNumber(Storage storage, int distance, long number) {
+        storage.record(record).setNumber(numberSlot + distance, number);
+    }
+
+    public long getMaxNumber() {
+        return RecordBuffer.maxNumber(pictureSize);
+    }
+
+    /**
+     * The children of an occurrence are the children of the declared node at the same distance.
+     */
+    public List<Tree> getNext() {
+        return next;
     }
 
     public Tree getPrevious() {
@@ -161,6 +438,215 @@ public class Tree {
         this.pictureSize = pictureSize;
     }
 
+    /**
+     * Assigns a value to a field according to its picture: a PICTURE X is padded with spaces, a PICTURE 9 with zeros.
+     * Both are aligned to the right, a value that is too long loses its last characters or its first digits.
+     */
+    public void assign(Storage storage, String value) {
+        assign(storage, 0, value);
+    }
+
+    /**
+     * Assigns a value to the occurrence of this field at the given distance from it, as {@link #getStride(Tree)}
+     * counts it.
+     */
+    public void assign(Storage storage, int distance, String value) {
+        if (numberSlot >= 0) {
+            setNumber(storage, distance, parseNumber(value.trim()));
+        } else if (record >= 0) {
+            // The value of a group is made up of its fields, only a field can be assigned on its own.
+            if (picture != null) {
+                storage.record(record).writeRightAligned(offset + distance, length, value, ' ', false);
+            }
+        } else if (picture == null) {
+            storage.setValue(valueSlot + distance, value);
+        } else {
+            char padding = picture == DataTypes.NINE ? '0' : ' ';
+            if (value.length() < pictureSize) {
+                storage.setValue(valueSlot + distance,
+                        StringUtils.repeat(padding, pictureSize - value.length()) + value);
+            } else if (picture == DataTypes.NINE) {
+                storage.setValue(valueSlot + distance, value.substring(value.length() - pictureSize));
+            } else {
+                storage.setValue(valueSlot + distance, value.substring(0, pictureSize));
+            }
+        }
+    }
+
+    /**
+     * Digits with an optional sign are read as a decimal number, leading zeros included, and only the last 18 digits
+     * are kept. Anything else is left to createNumber.
+     */
+    private static long parseNumber(String text) {
+        int start = text.startsWith("-") || text.startsWith("+") ? 1 : 0;
+        if (text.length() == start || !StringUtils.isNumeric(text.substring(start))) {
+            return NumberUtils.createNumber(text).longValue();
+        }
+        long number = Long.parseLong(text.substring(Math.max(start, text.length() - 18)));
+        return text.charAt(0) == '-' ? -number : number;
+    }
+
+    /**
+     * Sets every character of this node to the given one, as is done by MOVE SPACES, HIGH-VALUES and LOW-VALUES.
+     */
+    public void fill(Storage storage, char c) {
+        if (numberSlot >= 0) {
+            setNumber(storage, c == '9' ? getMaxNumber() : 0);
+        } else if (record >= 0) {
+            storage.record(record).fill(offset, length, c);
+        } else {
+            storage.setValue(valueSlot, StringUtils.repeat(c, pictureSize));
+        }
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Computes the number of bytes of this node: the size of its picture for a field, or the total of its children
+     * for a group. A child with OCCURS takes up its length that many times.
+     *
+     * @throws InterpreterException if a record gets too large to address its bytes with an int
+     */
+    public int computeLength() {
+        if (next.isEmpty()) {
+            length = picture != null ? pictureSize : 0;
+        } else {
+            int total = 0;
+            for (var c : next) {
+                c.computeLength();
+                try {
+                    total = Math.addExact(total, c.getTotalLength());
+                } catch (ArithmeticException e) {
+                    throw tooLarge();
+                }
+            }
+            length = total;
+        }
+        return length;
+    }
+
+    /**
+     * Every offset, slot and stride in a record is at most its size, so once the sizes fit in an int all of them do.
+     *
+     * @return the number of bytes all occurrences of this node take up together, computeLength has to be called first
+     * @throws InterpreterException if they are too many to address with an int
+     */
+    public int getTotalLength() {
+        try {
+            return Math.multiplyExact(length, occurs);
+        } catch (ArithmeticException e) {
+            throw tooLarge();
+        }
+    }
+
+    /**
+     * @return the number of characters the nodes of this subtree without a fixed layout start out with, in all
+     * occurrences, computeLength has to be called first
+     * @throws ArithmeticException if that does not fit in a long
+     */
+    long getValueBytes() {
+        long bytes = length == 0 && value != null ? value.length() : 0;
+        for (var c : next) {
+            bytes = Math.addExact(bytes, c.getValueBytes());
+        }
+        return Math.multiplyExact(bytes, occurs);
+    }
+
+    private InterpreterException tooLarge() {
+        return new InterpreterException("Record " + name + " is too large, it takes more than " + Integer.MAX_VALUE
+                + " bytes");
+    }
+
+    /**
+     * Places every occurrence of this node and its children from the given offset of the record, and initializes the
+     * fields based on their picture. computeLength has to be called first.
+     * <p>
+     * The occurrences are laid out one after the other, and so are the numbers in them. The slots of the first
+     * occurrence are the ones of this node, the slots of the others are found by counting from there.
+     */
+    void allocate(List<RecordBuffer> records, int record, int offset) {
+        if (length == 0) {
+            return;
+        }
+        var buffer = records.get(record);
+        int before = buffer.getNumberCount();
+        for (int i = 0; i < occurs; i++) {
+            allocateOccurrence(records, record, offset + i * length);
+        }
+        numbers = (buffer.getNumberCount() - before) / occurs;
+    }
+
+    private void allocateOccurrence(List<RecordBuffer> records, int record, int offset) {
+        var buffer = records.get(record);
+        if (this.record < 0) {
+            this.record = record;
+            this.offset = offset;
+        }
+        if (next.isEmpty()) {
+            buffer.fill(offset, length, picture == DataTypes.NINE ? '0' : (char) 0);
+            if (picture == DataTypes.NINE) {
+                int slot = buffer.addNumber(offset, length);
+                if (numberSlot < 0) {
+                    numberSlot = slot;
+                }
+            }
+            return;
+        }
+        int childOffset = offset;
+        for (var c : next) {
+            c.allocate(records, record, childOffset);
+            childOffset += c.getTotalLength();
+        }
+    }
+
+    /**
+     * Gives every node in this subtree without a fixed layout a slot for its value in every occurrence, starting out
+     * with the value it is declared with.
+     */
+    void allocateValue(List<String> values) {
+        int before = values.size();
+        for (int i = 0; i < occurs; i++) {
+            if (record < 0) {
+                if (valueSlot < 0) {
+                    valueSlot = values.size();
+                }
+                values.add(value);
+            }
+            for (var c : next) {
+                c.allocateValue(values);
+            }
+        }
+        this.values = (values.size() - before) / occurs;
+    }
+
+    /**
+     * @return true if both nodes have storage and their children have the same names, pictures and offsets
+     */
+    public boolean hasSameLayout(Tree other) {
+        if (record < 0 || other.record < 0 || length != other.length || picture != other.picture
+                || pictureSize != other.pictureSize || getNext().size() != other.getNext().size()) {
+            return false;
+        }
+        for (int i = 0; i < getNext().size(); i++) {
+            var a = getNext().get(i);
+            var b = other.getNext().get(i);
+            if (!a.getName().equals(b.getName()) || a.getOccurs() != b.getOccurs()
+                    || a.offset - offset != b.offset - other.offset || !a.hasSameLayout(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies all bytes of the source into this node, both need the same length.
+     */
+    public void copyFrom(Storage storage, Tree source) {
+        RecordBuffer.copy(storage.record(source.record), source.offset, storage.record(record), offset, length);
+    }
+
     public void resetNode(){
         this.setValue(this.getName().toUpperCase());
         for (var c: this.getNext()) {
@@ -176,29 +662,60 @@ public class Tree {
     }
 
     public List<Tree> getNodes(String node, List<Tree> result) {
-        if (this.getName().equals(node)) {
-            result.add(this);
-        }
-        for (var c: this.getNext()) {
-            c.getNodes(node, result);
-        }
+        result.addAll(nodesByName.getOrDefault(node, Collections.emptySet()));
         return result;
     }
 
+    /**
+     * Finds the nodes in this subtree for a path like A OF B OF C. The (n) subscript is ignored.
+     */
     public List<Tree> getNodesFromPath(String path, List<Tree> result) {
-        var ls = path.split("\\(")[0].split("OF");
-        Collections.reverse(Arrays.asList(ls));
-        List<Tree> list = this.getNodes(ls[0], new ArrayList<>());
-        int index = 1;
-        while (index < ls.length) {
-            List<Tree> children = new ArrayList<>();
-            for (var l: list) {
-                children = Stream.concat(children.stream(), l.getNodes(ls[index], new ArrayList<>()).stream())
-                        .collect(Collectors.toList());
+        return getNodesFromPath(parsePath(path), result);
+    }
+
+    /**
+     * Finds the nodes in this subtree for a path given from the inside out, so A OF B OF C is [A, B, C].
+     * Only the nodes named A are looked at, each is kept if B and then C can be found by walking up its parents.
+     */
+    public List<Tree> getNodesFromPath(List<String> path, List<Tree> result) {
+        for (var candidate : nodesByName.getOrDefault(path.get(0), Collections.emptySet())) {
+            if (isQualifiedBy(candidate, path)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Splits a path like AOFBOFC(2), as it is written in the source without spaces, into [A, B, C].
+     */
+    public static List<String> parsePath(String path) {
+        return Arrays.asList(path.split("\\(")[0].split("OF"));
+    }
+
+    private boolean isQualifiedBy(Tree candidate, List<String> path) {
+        var n = candidate;
+        for (var qualifier : path) {
+            while (!n.getName().equals(qualifier)) {
+                // The qualifiers have to be found within this subtree
+                if (n == this || n.getPrevious() == null) {
+                    return false;
+                }
+                n = n.getPrevious();
+            }
+        }
+        return true;
+    }
+
+    private void addToIndex(String key, Tree node) {
+        nodesByName.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(node);
+    }
+
+    private void addToIndex(Map<String, Set<Tree>> entries) {
+        for (var e : entries.entrySet()) {
+            for (var node : e.getValue()) {
+                addToIndex(e.getKey(), node);
             }
-            list = children;
-            index += 1;
         }
-        return list;
     }
 }
@@ -0,0 +1,20 @@
+package nl.utwente.interpreter.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The time an ACCEPT waits for its values, including flushing the output before it.
+ */
+@Name("nl.utwente.interpreter.Accept")
+@Label("ACCEPT")
+@Category("BabyCobol")
+@Description("Waiting for the input of an ACCEPT")
+@StackTrace(false)
+public class AcceptEvent extends jdk.jfr.Event {
+    @Label("Values")
+    public int values;
+}
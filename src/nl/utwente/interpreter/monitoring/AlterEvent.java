@@ -0,0 +1,18 @@
+package nl.utwente.interpreter.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("nl.utwente.interpreter.Alter")
+@Label("ALTER")
+@Category("BabyCobol")
+@StackTrace(false)
+public class AlterEvent extends jdk.jfr.Event {
+    @Label("Paragraph")
+    public String paragraph;
+
+    @Label("Proceed To")
+    public String to;
+}
@@ -0,0 +1,44 @@
+package nl.utwente.interpreter.monitoring;
+
+/**
+ * What one execution did so far, counted by the thread that runs it. Other threads read the counts without
+ * synchronizing, so {@link InterpreterMetrics} may see them a little late.
+ */
+public final class Counters {
+    private long statements = 0;
+    private long lookups = 0;
+    private long evaluations = 0;
+    private long outputCharacters = 0;
+
+    public void statement() {
+        statements++;
+    }
+
+    public void lookup() {
+        lookups++;
+    }
+
+    public void evaluation() {
+        evaluations++;
+    }
+
+    public void output(int characters) {
+        outputCharacters += characters;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getLookups() {
+        return lookups;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    public long getOutputCharacters() {
+        return outputCharacters;
+    }
+}
@@ -0,0 +1,21 @@
+package nl.utwente.interpreter.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The time a DISPLAY spends handing its text to the output sink, which includes writing it out when the sink is
+ * full or flushes after a number of bytes.
+ */
+@Name("nl.utwente.interpreter.Display")
+@Label("DISPLAY")
+@Category("BabyCobol")
+@Description("Writing the text of a DISPLAY to the output")
+@StackTrace(false)
+public class DisplayEvent extends jdk.jfr.Event {
+    @Label("Characters")
+    public int characters;
+}
@@ -0,0 +1,128 @@
+package nl.utwente.interpreter.monitoring;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Emits the Flight Recorder events of the interpreter.
+ * <p>
+ * Events that can happen for every statement are only created while a recording runs, so without one the
+ * interpreter pays for reading one volatile field where they would be emitted. Which of the events are recorded is
+ * then up to the settings of the recording, like for the events of the JVM itself.
+ */
+public final class Events {
+    private static volatile boolean recording = false;
+
+    static {
+        try {
+            FlightRecorder.addListener(new FlightRecorderListener() {
+                @Override
+                public void recorderInitialized(FlightRecorder recorder) {
+                    update(recorder);
+                }
+
+                @Override
+                public void recordingStateChanged(Recording changed) {
+                    update(FlightRecorder.getFlightRecorder());
+                }
+            });
+        } catch (RuntimeException | LinkageError e) {
+            // No Flight Recorder in this JVM: nothing is ever recorded.
+        }
+    }
+
+    private Events() {
+    }
+
+    /**
+     * @return true while the Flight Recorder has a running recording
+     */
+    public static boolean isRecording() {
+        return recording;
+    }
+
+    private static void update(FlightRecorder recorder) {
+        boolean running = false;
+        for (var recording : recorder.getRecordings()) {
+            running |= recording.getState() == RecordingState.RUNNING;
+        }
+        recording = running;
+    }
+
+    public static void goTo(String from, String to) {
+        var event = new GoToEvent();
+        if (event.shouldCommit()) {
+            event.from = from;
+            event.to = to;
+            event.commit();
+        }
+    }
+
+    public static void alter(String paragraph, String to) {
+        var event = new AlterEvent();
+        if (event.shouldCommit()) {
+            event.paragraph = paragraph;
+            event.to = to;
+            event.commit();
+        }
+    }
+
+    public static void signalRecovery(Throwable error, String paragraph, String signalParagraph) {
+        var event = new SignalRecoveryEvent();
+        if (event.shouldCommit()) {
+            event.error = error.getMessage() != null ? error.getMessage() : error.getClass().getName();
+            event.paragraph = paragraph;
+            event.signalParagraph = signalParagraph;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return the started event of the paragraph, or null if it is not recorded
+     */
+    public static ParagraphEvent beginParagraph(String paragraph, int depth) {
+        if (!recording) {
+            return null;
+        }
+        var event = new ParagraphEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.paragraph = paragraph;
+        event.depth = depth;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @return the started event of the ACCEPT, or null if it is not recorded
+     */
+    public static AcceptEvent beginAccept() {
+        if (!recording) {
+            return null;
+        }
+        var event = new AcceptEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @return the started event of the DISPLAY, or null if it is not recorded
+     */
+    public static DisplayEvent beginDisplay() {
+        if (!recording) {
+            return null;
+        }
+        var event = new DisplayEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+}
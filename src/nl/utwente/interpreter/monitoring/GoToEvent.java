@@ -0,0 +1,18 @@
+package nl.utwente.interpreter.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("nl.utwente.interpreter.GoTo")
+@Label("GO TO")
+@Category("BabyCobol")
+@StackTrace(false)
+public class GoToEvent extends jdk.jfr.Event {
+    @Label("From")
+    public String from;
+
+    @Label("To")
+    public String to;
+}
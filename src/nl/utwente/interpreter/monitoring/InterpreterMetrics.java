@@ -0,0 +1,107 @@
+package nl.utwente.interpreter.monitoring;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Adds up the {@link Counters} of every execution. The counters of running executions are read when the metrics
+ * are asked for, the ones of finished executions are kept in totals, so executions only touch shared state when
+ * they start and finish.
+ */
+public final class InterpreterMetrics implements InterpreterMetricsMBean {
+    public static final String NAME = "nl.utwente.interpreter:type=Interpreter";
+
+    private static final InterpreterMetrics INSTANCE = register(new InterpreterMetrics());
+
+    private final Set<Counters> active = ConcurrentHashMap.newKeySet();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder outputCharacters = new LongAdder();
+
+    private InterpreterMetrics() {
+    }
+
+    /**
+     * @return the metrics of this JVM, registered with the platform MBean server the first time they are used
+     */
+    public static InterpreterMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the metrics on a thread of their own: starting the platform MBean server takes longer than most
+     * programs run, they should not wait for it.
+     */
+    private static InterpreterMetrics register(InterpreterMetrics metrics) {
+        var thread = new Thread(() -> {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(NAME));
+            } catch (JMException | SecurityException e) {
+                // Already registered by another class loader, or not allowed: the counts are still kept.
+            }
+        }, "babycobol-metrics");
+        thread.setDaemon(true);
+        thread.start();
+        return metrics;
+    }
+
+    public void start(Counters counters) {
+        started.increment();
+        active.add(counters);
+    }
+
+    public void finish(Counters counters) {
+        if (!active.remove(counters)) {
+            return;
+        }
+        statements.add(counters.getStatements());
+        lookups.add(counters.getLookups());
+        evaluations.add(counters.getEvaluations());
+        outputCharacters.add(counters.getOutputCharacters());
+    }
+
+    @Override
+    public long getStatementsExecuted() {
+        return sum(statements, Counters::getStatements);
+    }
+
+    @Override
+    public long getIdentifierLookups() {
+        return sum(lookups, Counters::getLookups);
+    }
+
+    @Override
+    public long getExpressionEvaluations() {
+        return sum(evaluations, Counters::getEvaluations);
+    }
+
+    @Override
+    public long getOutputCharacters() {
+        return sum(outputCharacters, Counters::getOutputCharacters);
+    }
+
+    @Override
+    public int getActiveExecutions() {
+        return active.size();
+    }
+
+    @Override
+    public long getExecutionsStarted() {
+        return started.sum();
+    }
+
+    private long sum(LongAdder finished, ToLongFunction<Counters> count) {
+        long sum = finished.sum();
+        for (var counters : active) {
+            sum += count.applyAsLong(counters);
+        }
+        return sum;
+    }
+}
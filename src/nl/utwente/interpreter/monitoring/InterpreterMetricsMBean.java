@@ -0,0 +1,28 @@
+package nl.utwente.interpreter.monitoring;
+
+/**
+ * The counters of all executions in this JVM, published over JMX as {@value InterpreterMetrics#NAME}. The counts
+ * include the executions that are still running.
+ */
+public interface InterpreterMetricsMBean {
+    long getStatementsExecuted();
+
+    /**
+     * @return the number of times an identifier was resolved to its symbol
+     */
+    long getIdentifierLookups();
+
+    /**
+     * @return the number of conditions and EVALUATE subjects that were evaluated
+     */
+    long getExpressionEvaluations();
+
+    /**
+     * @return the number of characters written by DISPLAY
+     */
+    long getOutputCharacters();
+
+    int getActiveExecutions();
+
+    long getExecutionsStarted();
+}
@@ -0,0 +1,26 @@
+package nl.utwente.interpreter.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The time from entering a paragraph until the program leaves it, by a PERFORM, a GO TO, the end of a performed
+ * paragraph or falling through to the next one. A paragraph the program returns to after a PERFORM gets an event
+ * of its own.
+ */
+@Name("nl.utwente.interpreter.Paragraph")
+@Label("Paragraph")
+@Category("BabyCobol")
+@Description("A stretch of execution in one paragraph")
+@StackTrace(false)
+public class ParagraphEvent extends jdk.jfr.Event {
+    @Label("Paragraph")
+    public String paragraph;
+
+    @Label("Depth")
+    @Description("The number of PERFORM statements the paragraph runs under")
+    public int depth;
+}
@@ -0,0 +1,40 @@
+package nl.utwente.interpreter.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Loading one program, from its source to a program image.
+ */
+@Name("nl.utwente.interpreter.ProgramLoad")
+@Label("Program Load")
+@Category("BabyCobol")
+@Description("Lexing, parsing and analysing a program")
+@StackTrace(false)
+public class ProgramLoadEvent extends jdk.jfr.Event {
+    @Label("Lines")
+    public int lines;
+
+    @Label("Tokens")
+    public int tokens;
+
+    @Label("From Cache")
+    @Description("The analysed program was read from the program cache, it was not lexed, parsed or analysed")
+    public boolean cached;
+
+    @Label("Lexing")
+    @Timespan
+    public long lexing;
+
+    @Label("Parsing")
+    @Timespan
+    public long parsing;
+
+    @Label("Analysis")
+    @Timespan
+    public long analysis;
+}
@@ -0,0 +1,27 @@
+package nl.utwente.interpreter.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * An error that was handled by continuing with the SIGNAL paragraph.
+ */
+@Name("nl.utwente.interpreter.SignalRecovery")
+@Label("SIGNAL Recovery")
+@Category("BabyCobol")
+@Description("An error handled by the SIGNAL paragraph")
+@StackTrace(false)
+public class SignalRecoveryEvent extends jdk.jfr.Event {
+    @Label("Error")
+    public String error;
+
+    @Label("Paragraph")
+    @Description("The paragraph the program was in when the error happened")
+    public String paragraph;
+
+    @Label("Signal Paragraph")
+    public String signalParagraph;
+}
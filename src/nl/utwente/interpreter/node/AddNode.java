@@ -0,0 +1,45 @@
+package nl.utwente.interpreter.node;
+
+import nl.utwente.interpreter.ast.Add;
+import nl.utwente.interpreter.expression.Scope;
+
+/**
+ * ADD, which becomes a sum of longs when it adds numbers, or a concatenation when its second argument is a field
+ * that holds text.
+ */
+public class AddNode extends SpecializingNode {
+    private final Operand[] atomics;
+    private final Operand to;
+    private final Operand giving;
+
+    public AddNode(Add add, Scope scope, StatementNode generic) {
+        super(generic);
+        this.atomics = Operand.of(add.getAtomics(), scope);
+        this.to = atomics[add.getToIndex()];
+        this.giving = Operand.of(add.getGiving(), scope);
+    }
+
+    @Override
+    protected StatementNode specialize() {
+        var target = giving != null ? giving : to;
+        if (to.isTextField()) {
+            return () -> {
+                var result = new StringBuilder();
+                for (var atomic : atomics) {
+                    result.append(atomic.get().toString().trim());
+                }
+                target.set(result.toString());
+            };
+        }
+        if (allNumbers(atomics) && (giving != null || to.isNumberField())) {
+            return () -> {
+                long sum = 0;
+                for (var atomic : atomics) {
+                    sum += atomic.getLong();
+                }
+                target.setLong(sum);
+            };
+        }
+        return null;
+    }
+}
@@ -0,0 +1,41 @@
+package nl.utwente.interpreter.node;
+
+import nl.utwente.interpreter.ast.Divide;
+import nl.utwente.interpreter.expression.Scope;
+
+/**
+ * DIVIDE on numbers only, as longs.
+ */
+public class DivideNode extends SpecializingNode {
+    private final Operand a;
+    private final Operand[] atomics;
+    private final Operand giving;
+    private final Operand remainder;
+
+    public DivideNode(Divide divide, Scope scope, StatementNode generic) {
+        super(generic);
+        this.a = Operand.of(divide.getAtomic(), scope);
+        this.atomics = Operand.of(divide.getAtomics(), scope);
+        this.giving = Operand.of(divide.getGiving(), scope);
+        this.remainder = Operand.of(divide.getRemainder(), scope);
+    }
+
+    @Override
+    protected StatementNode specialize() {
+        if (!a.isNumber() || !allNumbers(atomics) || (giving == null && !a.isNumberField())) {
+            return null;
+        }
+        var target = giving != null ? giving : a;
+        return () -> {
+            long prod = 1;
+            for (var atomic : atomics) {
+                prod *= atomic.getLong();
+            }
+            long value = a.getLong();
+            target.setLong(value / prod);
+            if (remainder != null) {
+                remainder.setLong(value % prod);
+            }
+        };
+    }
+}
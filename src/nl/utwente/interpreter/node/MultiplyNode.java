@@ -0,0 +1,44 @@
+package nl.utwente.interpreter.node;
+
+import nl.utwente.interpreter.ast.Multiply;
+import nl.utwente.interpreter.expression.Scope;
+
+/**
+ * MULTIPLY on numbers only, as longs. Without GIVING every operand after BY is assigned in turn, and the ones that
+ * follow see its new value.
+ */
+public class MultiplyNode extends SpecializingNode {
+    private final Operand a;
+    private final Operand[] atomics;
+    private final Operand giving;
+
+    public MultiplyNode(Multiply multiply, Scope scope, StatementNode generic) {
+        super(generic);
+        this.a = Operand.of(multiply.getAtomic(), scope);
+        this.atomics = Operand.of(multiply.getAtomics(), scope);
+        this.giving = Operand.of(multiply.getGiving(), scope);
+    }
+
+    @Override
+    protected StatementNode specialize() {
+        if (!a.isNumber() || !allNumbers(atomics) || (giving == null && !allNumberFields(atomics))) {
+            return null;
+        }
+        return () -> {
+            long product = a.getLong();
+            long prod = 1;
+            for (var target : atomics) {
+                prod = 1;
+                for (var atomic : atomics) {
+                    prod *= atomic.getLong();
+                }
+                if (giving == null) {
+                    target.setLong(prod * product);
+                }
+            }
+            if (giving != null) {
+                giving.setLong(prod * product);
+            }
+        };
+    }
+}
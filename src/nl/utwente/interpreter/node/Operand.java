@@ -0,0 +1,145 @@
+package nl.utwente.interpreter.node;
+
+import nl.utwente.interpreter.ast.Atomic;
+import nl.utwente.interpreter.ast.Identifier;
+import nl.utwente.interpreter.expression.Accessor;
+import nl.utwente.interpreter.expression.Scope;
+import nl.utwente.interpreter.expression.Values;
+
+/**
+ * A literal or identifier used by a statement. An identifier resolves its accessor the first time it is used and
+ * caches it at the site, every later execution goes straight to the storage.
+ */
+public abstract class Operand {
+
+    public static Operand of(Atomic atomic, Scope scope) {
+        if (atomic.isIdentifier()) {
+            return of(atomic.getIdentifier(), scope);
+        }
+        return new Constant(atomic.getLiteral());
+    }
+
+    public static Operand of(Identifier identifier, Scope scope) {
+        return identifier == null ? null : new Site(identifier, scope);
+    }
+
+    public static Operand[] of(Atomic[] atomics, Scope scope) {
+        var operands = new Operand[atomics.length];
+        for (int i = 0; i < operands.length; i++) {
+            operands[i] = of(atomics[i], scope);
+        }
+        return operands;
+    }
+
+    /**
+     * @return the value as the visitor would give it: a Long for a number literal, otherwise the text
+     */
+    public abstract Object get();
+
+    public abstract long getLong();
+
+    /**
+     * @return true if reading this operand always gives a number: a number literal or a PICTURE 9 field
+     */
+    public abstract boolean isNumber();
+
+    /**
+     * @return true for a PICTURE 9 field, which can be read and written as a long
+     */
+    public boolean isNumberField() {
+        return false;
+    }
+
+    /**
+     * @return true for a field that does not hold numbers, like a PICTURE X field or a record
+     */
+    public boolean isTextField() {
+        return false;
+    }
+
+    public void set(Object value) {
+        throw new UnsupportedOperationException("Cannot assign to a literal");
+    }
+
+    public void setLong(long value) {
+        set(value);
+    }
+
+    private static final class Constant extends Operand {
+        private final Object value;
+
+        private Constant(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object get() {
+            return value;
+        }
+
+        @Override
+        public long getLong() {
+            return Values.toLong(value);
+        }
+
+        @Override
+        public boolean isNumber() {
+            return value instanceof Long;
+        }
+    }
+
+    private static final class Site extends Operand {
+        private final Identifier identifier;
+        private final Scope scope;
+        private Accessor accessor;
+
+        private Site(Identifier identifier, Scope scope) {
+            this.identifier = identifier;
+            this.scope = scope;
+        }
+
+        private Accessor accessor() {
+            var cached = accessor;
+            if (cached == null) {
+                cached = scope.accessor(identifier);
+                accessor = cached;
+            }
+            return cached;
+        }
+
+        @Override
+        public Object get() {
+            return accessor().get();
+        }
+
+        @Override
+        public long getLong() {
+            return accessor().getLong();
+        }
+
+        @Override
+        public boolean isNumber() {
+            return accessor().isNumber();
+        }
+
+        @Override
+        public boolean isNumberField() {
+            return accessor().isNumber();
+        }
+
+        @Override
+        public boolean isTextField() {
+            return accessor().isText();
+        }
+
+        @Override
+        public void set(Object value) {
+            accessor().set(value);
+        }
+
+        @Override
+        public void setLong(long value) {
+            accessor().setLong(value);
+        }
+    }
+}
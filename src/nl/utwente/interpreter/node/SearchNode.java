@@ -0,0 +1,354 @@
+package nl.utwente.interpreter.node;
+
+import nl.utwente.interpreter.ast.Atomic;
+import nl.utwente.interpreter.ast.Identifier;
+import nl.utwente.interpreter.ast.Search;
+import nl.utwente.interpreter.ast.SearchWhen;
+import nl.utwente.interpreter.exception.InterpreterException;
+import nl.utwente.interpreter.expression.*;
+import nl.utwente.interpreter.model.Storage;
+import nl.utwente.interpreter.model.Tree;
+import nl.utwente.interpreter.symbol.Symbol;
+import nl.utwente.interpreter.symbol.SymbolTable;
+import nl.utwente.interpreter.symbol.WorkingStorage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * SEARCH and SEARCH ALL over the occurrences of a table, with the index named by its INDEXED BY.
+ * <p>
+ * A WHEN that compares fields of the occurrence the index points at with values that do not depend on the index,
+ * joined by AND, is searched on the storage of the table: the values are evaluated once per search, and every
+ * occurrence is compared a field at a time, a number as a long and anything else by its text, the same way an
+ * expression compares them. Any other WHEN is evaluated as an expression, with the index set to each occurrence.
+ * <p>
+ * SEARCH ALL only takes a single WHEN that compares keys of the table with =, the first key and any keys after it in
+ * the order they are declared. The occurrences have to be sorted on those keys, the occurrence is then found with a
+ * binary search.
+ */
+public class SearchNode {
+    private final Search search;
+    private final Scope scope;
+    private final WorkingStorage memory;
+    private final SymbolTable symbols;
+    private final Predicate<BooleanExpression> test;
+    private Tree table;
+    private Symbol index;
+    /**
+     * The comparisons of every WHEN, null for a WHEN that is evaluated as an expression.
+     */
+    private Key[][] keys;
+    private boolean evaluated;
+
+    /**
+     * @param test evaluates the condition of a WHEN, as IF would
+     */
+    public SearchNode(Search search, Scope scope, WorkingStorage memory, Predicate<BooleanExpression> test) {
+        this.search = search;
+        this.scope = scope;
+        this.memory = memory;
+        this.symbols = memory.getSymbols();
+        this.test = test;
+    }
+
+    /**
+     * Sets the index to the occurrence that was found.
+     *
+     * @return the WHEN block that holds for the occurrence, or null if the search reached the end of the table
+     */
+    public SearchWhen search() {
+        if (keys == null) {
+            prepare();
+        }
+        var storage = memory.getStorage();
+        for (var when : keys) {
+            if (when != null) {
+                for (var key : when) {
+                    key.start(scope);
+                }
+            }
+        }
+        return search.isAll() ? searchAll(storage) : searchSerial(storage);
+    }
+
+    /**
+     * From the occurrence the index is at, or the first one if it was never set, to the last one.
+     */
+    private SearchWhen searchSerial(Storage storage) {
+        var whens = search.getWhens();
+        long start = 1;
+        if (memory.isSet(index)) {
+            start = Math.max(1, Values.toLong(memory.read(index)));
+        }
+        for (long occurrence = start; occurrence <= table.getOccurs(); occurrence++) {
+            int steps = (int) (occurrence - 1);
+            if (evaluated) {
+                memory.write(index, occurrence);
+            }
+            for (int i = 0; i < whens.length; i++) {
+                if (keys[i] != null ? matches(keys[i], storage, steps) : test.test(whens[i].getCondition())) {
+                    memory.write(index, occurrence);
+                    return whens[i];
+                }
+            }
+        }
+        memory.write(index, table.getOccurs() + 1L);
+        return null;
+    }
+
+    private SearchWhen searchAll(Storage storage) {
+        var when = keys[0];
+        for (var key : when) {
+            // Text has no place in the order of a number key, the occurrences cannot be halved on it
+            if (key.field.isNumber() && !(key.target instanceof Long)) {
+                throw new InterpreterException(search.getLine(), "SEARCH ALL cannot look for " + key.target
+                        + " in " + key.field.getName() + ", its key is a number");
+            }
+        }
+        int low = 0;
+        int high = table.getOccurs() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compared = 0;
+            for (var key : when) {
+                compared = key.compare(storage, table, middle);
+                if (compared != 0) {
+                    compared = key.ascending ? compared : -compared;
+                    break;
+                }
+            }
+            if (compared < 0) {
+                low = middle + 1;
+            } else if (compared > 0) {
+                high = middle - 1;
+            } else {
+                memory.write(index, middle + 1L);
+                return search.getWhens()[0];
+            }
+        }
+        return null;
+    }
+
+    private boolean matches(Key[] keys, Storage storage, int steps) {
+        for (var key : keys) {
+            if (!key.operator.test(key.compare(storage, table, steps))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void prepare() {
+        var symbol = symbols.resolve(search.getTable());
+        table = symbol.isField() ? symbols.field(symbol) : null;
+        if (table == null || table.getOccurs() <= 1) {
+            throw new InterpreterException(search.getLine(), search.getTable().getText() + " is not a table");
+        }
+        if (table.getIndexName() == null) {
+            throw new InterpreterException(search.getLine(),
+                    "Table " + table.getName() + " has no INDEXED BY to search with");
+        }
+        index = symbols.resolve(table.getIndexName());
+
+        var whens = search.getWhens();
+        var keys = new Key[whens.length][];
+        for (int i = 0; i < whens.length; i++) {
+            List<Key> comparisons = new ArrayList<>();
+            if (collect(whens[i].getCondition(), comparisons)) {
+                keys[i] = comparisons.toArray(new Key[0]);
+            } else {
+                evaluated = true;
+            }
+        }
+        if (search.isAll()) {
+            checkKeys(keys);
+        }
+        this.keys = keys;
+    }
+
+    /**
+     * Orders the comparisons of SEARCH ALL by the keys of the table.
+     */
+    private void checkKeys(Key[][] keys) {
+        if (keys.length != 1 || keys[0] == null) {
+            throw new InterpreterException(search.getLine(),
+                    "SEARCH ALL needs a single WHEN that compares keys of " + table.getName() + " joined by AND");
+        }
+        var tableKeys = table.getKeys();
+        for (var key : keys[0]) {
+            key.position = -1;
+            for (int i = 0; i < tableKeys.size(); i++) {
+                if (tableKeys.get(i).getName().equals(key.field.getName())) {
+                    key.position = i;
+                    key.ascending = tableKeys.get(i).isAscending();
+                }
+            }
+            if (key.position < 0 || key.operator != ComparisonOperator.EQUAL) {
+                throw new InterpreterException(search.getLine(), "SEARCH ALL can only test keys of "
+                        + table.getName() + " with =, not " + key.field.getName() + " " + key.operator);
+            }
+        }
+        Arrays.sort(keys[0], Comparator.comparingInt(key -> key.position));
+        for (int i = 0; i < keys[0].length; i++) {
+            if (keys[0][i].position != i) {
+                throw new InterpreterException(search.getLine(), "SEARCH ALL has to test "
+                        + tableKeys.get(i).getName() + " to test the keys after it");
+            }
+        }
+    }
+
+    /**
+     * @return false if the condition is not made of comparisons of fields of the occurrence joined by AND
+     */
+    private boolean collect(BooleanExpression condition, List<Key> keys) {
+        if (condition instanceof BinaryBoolean) {
+            var and = (BinaryBoolean) condition;
+            return and.getOperator() == BooleanOperator.AND && collect(and.getLeft(), keys)
+                    && collect(and.getRight(), keys);
+        }
+        if (!(condition instanceof Comparison)) {
+            return false;
+        }
+        var comparison = (Comparison) condition;
+        var key = key(comparison.getLeft(), comparison.getOperator(), comparison.getRight());
+        if (key == null) {
+            key = key(comparison.getRight(), comparison.getOperator().swapped(), comparison.getLeft());
+        }
+        if (key == null) {
+            return false;
+        }
+        keys.add(key);
+        return true;
+    }
+
+    /**
+     * @return the comparison if the field is in the occurrence the index points at and the value does not depend on
+     * the index, else null
+     */
+    private Key key(ArithmeticExpression field, ComparisonOperator operator, ArithmeticExpression value) {
+        if (!(field instanceof IdentifierReference) || dependsOnIndex(value)) {
+            return null;
+        }
+        var identifier = ((IdentifierReference) field).getIdentifier();
+        var subscripts = identifier.getSubscripts();
+        if (subscripts.length == 0 || !isIndex(subscripts[subscripts.length - 1])) {
+            return null;
+        }
+        for (int i = 0; i < subscripts.length - 1; i++) {
+            if (subscripts[i].isIdentifier() && dependsOnIndex(subscripts[i].getIdentifier())) {
+                return null;
+            }
+        }
+        var symbol = symbols.resolve(identifier);
+        if (!symbol.isField()) {
+            return null;
+        }
+        var node = symbols.field(symbol);
+        var dimensions = node.getDimensions();
+        // The index has to be the subscript of the table, the innermost dimension of the field
+        if (dimensions.isEmpty() || dimensions.get(dimensions.size() - 1) != table
+                || subscripts.length > dimensions.size()) {
+            return null;
+        }
+        var outer = new Accessor[subscripts.length - 1];
+        var constants = new long[subscripts.length - 1];
+        for (int i = 0; i < outer.length; i++) {
+            if (subscripts[i].isIdentifier()) {
+                outer[i] = scope.accessor(subscripts[i].getIdentifier());
+            } else {
+                constants[i] = (Long) subscripts[i].getLiteral();
+            }
+        }
+        return new Key(node, outer, constants, operator, value);
+    }
+
+    private boolean dependsOnIndex(ArithmeticExpression value) {
+        if (value instanceof Literal) {
+            return false;
+        }
+        // Other expressions are not looked into, they are evaluated for every occurrence
+        return !(value instanceof IdentifierReference)
+                || dependsOnIndex(((IdentifierReference) value).getIdentifier());
+    }
+
+    private boolean dependsOnIndex(Identifier identifier) {
+        if (identifier.getPath().size() == 1 && identifier.getPath().get(0).equals(table.getIndexName())) {
+            return true;
+        }
+        for (var subscript : identifier.getSubscripts()) {
+            if (subscript.isIdentifier() && dependsOnIndex(subscript.getIdentifier())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isIndex(Atomic subscript) {
+        if (!subscript.isIdentifier()) {
+            return false;
+        }
+        var identifier = subscript.getIdentifier();
+        return identifier.getPath().size() == 1 && identifier.getSubscripts().length == 0
+                && identifier.getPath().get(0).equals(table.getIndexName());
+    }
+
+    /**
+     * A comparison of a field of the occurrence with a value.
+     */
+    private static final class Key {
+        private final Tree field;
+        private final Accessor[] outer;
+        private final long[] constants;
+        private final ComparisonOperator operator;
+        private final ArithmeticExpression value;
+        private final long[] subscripts;
+        /**
+         * The field in the first occurrence of the table, within the occurrences of the outer tables.
+         */
+        private Tree first;
+        private Object target;
+        private int position;
+        private boolean ascending = true;
+
+        /**
+         * @param outer the subscripts of the tables around the searched one, null where it is the constant
+         */
+        Key(Tree field, Accessor[] outer, long[] constants, ComparisonOperator operator,
+            ArithmeticExpression value) {
+            this.field = field;
+            this.outer = outer;
+            this.constants = constants;
+            this.operator = operator;
+            this.value = value;
+            this.subscripts = new long[outer.length + 1];
+        }
+
+        void start(Scope scope) {
+            for (int i = 0; i < outer.length; i++) {
+                subscripts[i] = outer[i] != null ? outer[i].getLong() : constants[i];
+            }
+            subscripts[outer.length] = 1;
+            first = field.element(subscripts);
+            target = value.value(scope);
+        }
+
+        /**
+         * A number is compared with text by its digits, like a comparison outside of SEARCH. Values are only
+         * text when they are not a whole number, SEARCH ALL refuses those for a number key.
+         *
+         * @return how the field in the occurrence the given number of steps from the first compares to the value
+         */
+        int compare(Storage storage, Tree table, int steps) {
+            if (field.isNumber()) {
+                long number = first.getNumber(storage, table, steps);
+                return target instanceof Long ? Long.compare(number, (Long) target)
+                        : Long.toString(number).compareTo(target.toString());
+            }
+            return Values.compare(Values.normalize(first.getValue(storage, table, steps)), target);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package nl.utwente.interpreter.node;
+
+/**
+ * A statement that picks the implementation to use the first time it is executed, once the kinds of its operands
+ * are known, and keeps using it from then on. When none of the specialized versions fit, it stays with the generic
+ * statement of the visitor.
+ */
+public abstract class SpecializingNode implements StatementNode {
+    private final StatementNode generic;
+    private StatementNode specialized;
+
+    protected SpecializingNode(StatementNode generic) {
+        this.generic = generic;
+    }
+
+    @Override
+    public final void execute() {
+        var node = specialized;
+        if (node == null) {
+            node = specialize();
+            if (node == null) {
+                node = generic;
+            }
+            specialized = node;
+        }
+        node.execute();
+    }
+
+    /**
+     * @return the specialized statement, or null to keep using the generic one
+     */
+    protected abstract StatementNode specialize();
+
+    protected static boolean allNumbers(Operand[] operands) {
+        for (var operand : operands) {
+            if (!operand.isNumber()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected static boolean allNumberFields(Operand[] operands) {
+        for (var operand : operands) {
+            if (!operand.isNumberField()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
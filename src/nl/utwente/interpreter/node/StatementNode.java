@@ -0,0 +1,9 @@
+package nl.utwente.interpreter.node;
+
+/**
+ * An executable statement, prepared once from its parse tree.
+ */
+@FunctionalInterface
+public interface StatementNode {
+    void execute();
+}
@@ -0,0 +1,35 @@
+package nl.utwente.interpreter.node;
+
+import nl.utwente.interpreter.ast.Subtract;
+import nl.utwente.interpreter.expression.Scope;
+
+/**
+ * SUBTRACT on numbers only, as longs.
+ */
+public class SubtractNode extends SpecializingNode {
+    private final Operand[] atomics;
+    private final Operand from;
+    private final Operand giving;
+
+    public SubtractNode(Subtract subtract, Scope scope, StatementNode generic) {
+        super(generic);
+        this.atomics = Operand.of(subtract.getAtomics(), scope);
+        this.from = Operand.of(subtract.getFrom(), scope);
+        this.giving = Operand.of(subtract.getGiving(), scope);
+    }
+
+    @Override
+    protected StatementNode specialize() {
+        if (!allNumbers(atomics) || !from.isNumber() || (giving == null && !from.isNumberField())) {
+            return null;
+        }
+        var target = giving != null ? giving : from;
+        return () -> {
+            long sum = 0;
+            for (var atomic : atomics) {
+                sum += atomic.getLong();
+            }
+            target.setLong(from.getLong() - sum);
+        };
+    }
+}
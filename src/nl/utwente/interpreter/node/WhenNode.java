@@ -0,0 +1,55 @@
+package nl.utwente.interpreter.node;
+
+import nl.utwente.interpreter.ast.AnyExpression;
+import nl.utwente.interpreter.ast.When;
+import nl.utwente.interpreter.expression.ArithmeticExpression;
+import nl.utwente.interpreter.expression.Scope;
+
+import java.util.function.Function;
+
+/**
+ * The expressions of a WHEN block. An arithmetic expression that always gives a number is compared to a number
+ * subject as a long, everything else by its text.
+ */
+public class WhenNode {
+    private final Scope scope;
+    private final AnyExpression[] expressions;
+    private final ArithmeticExpression[] arithmetic;
+    private final Function<AnyExpression, Object> evaluate;
+    private boolean[] numeric;
+
+    /**
+     * @param evaluate gives the value of any expression, as the visitor would
+     */
+    public WhenNode(When when, Scope scope, Function<AnyExpression, Object> evaluate) {
+        this.scope = scope;
+        this.expressions = when.getExpressions();
+        this.arithmetic = new ArithmeticExpression[expressions.length];
+        for (int i = 0; i < expressions.length; i++) {
+            arithmetic[i] = expressions[i].getArithmeticExpression();
+        }
+        this.evaluate = evaluate;
+    }
+
+    /**
+     * @return true if one of the expressions equals the subject of the EVALUATE
+     */
+    public boolean matches(Object subject) {
+        if (numeric == null) {
+            numeric = new boolean[expressions.length];
+            for (int i = 0; i < expressions.length; i++) {
+                numeric[i] = arithmetic[i] != null && arithmetic[i].isNumber(scope);
+            }
+        }
+        for (int i = 0; i < expressions.length; i++) {
+            if (numeric[i] && subject instanceof Long) {
+                if (arithmetic[i].evaluate(scope) == (Long) subject) {
+                    return true;
+                }
+            } else if (evaluate.apply(expressions[i]).toString().equals(subject.toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
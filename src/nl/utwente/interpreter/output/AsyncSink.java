@@ -0,0 +1,119 @@
+package nl.utwente.interpreter.output;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Hands the output to a writer thread through a bounded queue, so the program only waits for the output when it
+ * produces it faster than the target can take it. Flushing waits until everything before it has been written.
+ * An error of the writer thread is thrown by the next write, flush or close.
+ */
+public class AsyncSink implements OutputSink {
+    public static final int DEFAULT_QUEUE_SIZE = 1024;
+    private static final Object END = new Object();
+
+    private final OutputSink target;
+    private final BlockingQueue<Object> queue;
+    private final Thread writer;
+    private volatile RuntimeException failure;
+
+    public AsyncSink(OutputSink target) {
+        this(target, DEFAULT_QUEUE_SIZE);
+    }
+
+    /**
+     * @param queueSize the number of writes that can wait for the writer thread
+     */
+    public AsyncSink(OutputSink target, int queueSize) {
+        this.target = target;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.writer = new Thread(this::drain, "babycobol-output");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void write(String text) {
+        check();
+        put(text);
+    }
+
+    @Override
+    public void flush() {
+        var flushed = new CountDownLatch(1);
+        put(flushed);
+        try {
+            flushed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while flushing the output", e);
+        }
+        check();
+    }
+
+    @Override
+    public void close() {
+        if (writer.isAlive()) {
+            put(END);
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while closing the output", e);
+            }
+        }
+        check();
+    }
+
+    private void put(Object item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while writing the output", e);
+        }
+    }
+
+    private void check() {
+        var error = failure;
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * The writer thread. After an error it keeps taking items, so nobody waits forever on a flush.
+     */
+    private void drain() {
+        try {
+            while (true) {
+                var item = queue.take();
+                try {
+                    if (item == END) {
+                        target.close();
+                        return;
+                    } else if (item instanceof CountDownLatch) {
+                        if (failure == null) {
+                            target.flush();
+                        }
+                        ((CountDownLatch) item).countDown();
+                    } else if (failure == null) {
+                        target.write((String) item);
+                    }
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                    if (item == END) {
+                        return;
+                    } else if (item instanceof CountDownLatch) {
+                        ((CountDownLatch) item).countDown();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
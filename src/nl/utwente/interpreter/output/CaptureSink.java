@@ -0,0 +1,32 @@
+package nl.utwente.interpreter.output;
+
+/**
+ * Keeps all output in memory, for tests and for programs that embed the interpreter.
+ */
+public class CaptureSink implements OutputSink {
+    private final StringBuilder text = new StringBuilder();
+
+    @Override
+    public void write(String text) {
+        this.text.append(text);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * @return everything written so far, including line separators
+     */
+    public String getText() {
+        return text.toString();
+    }
+
+    public void clear() {
+        text.setLength(0);
+    }
+}
@@ -0,0 +1,109 @@
+package nl.utwente.interpreter.output;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Encodes the output into one large buffer and writes it to a channel once the buffer is full, once the number of
+ * bytes of the {@link FlushPolicy} is reached, or when it is flushed.
+ */
+public class ChannelSink implements OutputSink {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final boolean ownsChannel;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer buffer;
+    private final int flushBytes;
+
+    public ChannelSink(WritableByteChannel channel) {
+        this(channel, DEFAULT_CAPACITY, 0);
+    }
+
+    /**
+     * @param capacity   the size of the buffer in bytes
+     * @param flushBytes write the buffer out once this many bytes are in it, 0 to wait until it is full
+     */
+    public ChannelSink(WritableByteChannel channel, int capacity, int flushBytes) {
+        this(channel, true, capacity, flushBytes);
+    }
+
+    private ChannelSink(WritableByteChannel channel, boolean ownsChannel, int capacity, int flushBytes) {
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+        // Replace what cannot be encoded, like System.out does.
+        this.encoder = Charset.defaultCharset().newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.buffer = ByteBuffer.allocate(Math.max(capacity, (int) Math.ceil(encoder.maxBytesPerChar())));
+        this.flushBytes = flushBytes;
+    }
+
+    /**
+     * A sink for standard output. Closing it only flushes, standard output stays open.
+     */
+    public static ChannelSink stdout(int flushBytes) {
+        return new ChannelSink(Channels.newChannel(System.out), false, DEFAULT_CAPACITY, flushBytes);
+    }
+
+    @Override
+    public void write(String text) {
+        var chars = CharBuffer.wrap(text);
+        while (true) {
+            var result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isError()) {
+                try {
+                    result.throwException();
+                } catch (CharacterCodingException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                break;
+            }
+        }
+        encoder.reset();
+        if (flushBytes > 0 && buffer.position() >= flushBytes) {
+            drain();
+        }
+    }
+
+    @Override
+    public void flush() {
+        drain();
+    }
+
+    @Override
+    public void close() {
+        drain();
+        if (ownsChannel) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void drain() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package nl.utwente.interpreter.output;
+
+/**
+ * When buffered output is flushed. Everything is always flushed when the program stops, by STOP or by reaching
+ * the end of the procedure division. On top of that a program can flush before every ACCEPT, so a prompt shows
+ * before the input is read, and every given number of bytes.
+ */
+public final class FlushPolicy {
+    /**
+     * Only flush when the program stops, or when the buffer is full.
+     */
+    public static final FlushPolicy ON_STOP = new FlushPolicy(false, 0);
+    public static final FlushPolicy DEFAULT = new FlushPolicy(true, 0);
+
+    private final boolean onAccept;
+    private final int everyBytes;
+
+    /**
+     * @param onAccept   flush before an ACCEPT statement reads its input
+     * @param everyBytes flush once this many bytes are buffered, 0 to only flush when the buffer is full
+     */
+    public FlushPolicy(boolean onAccept, int everyBytes) {
+        if (everyBytes < 0) {
+            throw new IllegalArgumentException("The number of bytes to flush at cannot be negative");
+        }
+        this.onAccept = onAccept;
+        this.everyBytes = everyBytes;
+    }
+
+    public boolean isOnAccept() {
+        return onAccept;
+    }
+
+    public int getEveryBytes() {
+        return everyBytes;
+    }
+}
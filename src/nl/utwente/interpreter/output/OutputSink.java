@@ -0,0 +1,21 @@
+package nl.utwente.interpreter.output;
+
+import java.io.Closeable;
+import java.io.Flushable;
+
+/**
+ * Where the text of DISPLAY statements goes. A sink may hold on to what is written until it is flushed, when that
+ * happens is decided by the {@link FlushPolicy} of the program.
+ */
+public interface OutputSink extends Flushable, Closeable {
+    void write(String text);
+
+    @Override
+    void flush();
+
+    /**
+     * Flushes the sink and releases what it holds on to.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,52 @@
+package nl.utwente.interpreter.server;
+
+import nl.utwente.interpreter.output.OutputSink;
+
+import java.io.PrintWriter;
+
+/**
+ * Streams the output of a job back to the client, every line as soon as it is complete, prefixed with OUT.
+ * Text that is not followed by a line separator is sent when the sink is closed.
+ */
+final class LineSink implements OutputSink {
+    private final PrintWriter writer;
+    private final StringBuilder line = new StringBuilder();
+
+    LineSink(PrintWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(String text) {
+        int start = 0;
+        int end;
+        while ((end = text.indexOf('\n', start)) >= 0) {
+            line.append(text, start, end);
+            if (line.length() > 0 && line.charAt(line.length() - 1) == '\r') {
+                line.setLength(line.length() - 1);
+            }
+            writer.print("OUT ");
+            writer.print(line);
+            writer.print('\n');
+            line.setLength(0);
+            start = end + 1;
+        }
+        line.append(text, start, text.length());
+    }
+
+    @Override
+    public void flush() {
+        writer.flush();
+    }
+
+    @Override
+    public void close() {
+        if (line.length() > 0) {
+            writer.print("OUT ");
+            writer.print(line);
+            writer.print('\n');
+            line.setLength(0);
+        }
+        writer.flush();
+    }
+}
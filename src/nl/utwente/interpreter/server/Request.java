@@ -0,0 +1,84 @@
+package nl.utwente.interpreter.server;
+
+import nl.utwente.interpreter.input.QueueSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * One job sent to the {@link Server}. A request is a number of UTF-8 lines:
+ * <pre>
+ * PATH file          or   SOURCE n, followed by the n lines of the program
+ * INPUT n            optional, followed by n lines, each the value of one ACCEPT
+ * RUN
+ * </pre>
+ */
+final class Request {
+    private Path path;
+    private String source;
+    private final QueueSource input = new QueueSource();
+
+    /**
+     * @throws IllegalArgumentException if the request does not follow the protocol
+     */
+    static Request read(BufferedReader reader) throws IOException {
+        var request = new Request();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int space = line.indexOf(' ');
+            String command = space < 0 ? line : line.substring(0, space);
+            String argument = space < 0 ? "" : line.substring(space + 1).trim();
+            switch (command) {
+                case "PATH" -> request.path = Path.of(argument);
+                case "SOURCE" -> request.source = String.join("\n", lines(reader, argument));
+                case "INPUT" -> {
+                    for (var value : lines(reader, argument)) {
+                        request.input.add(value);
+                    }
+                }
+                case "RUN" -> {
+                    if (request.path == null && request.source == null) {
+                        throw new IllegalArgumentException("No PATH or SOURCE given");
+                    }
+                    request.input.end();
+                    return request;
+                }
+                default -> throw new IllegalArgumentException("Unknown command " + command);
+            }
+        }
+        throw new IllegalArgumentException("The request ended before RUN");
+    }
+
+    private static String[] lines(BufferedReader reader, String count) throws IOException {
+        int n;
+        try {
+            n = Integer.parseInt(count);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid line count " + count);
+        }
+        var lines = new String[n];
+        for (int i = 0; i < n; i++) {
+            lines[i] = reader.readLine();
+            if (lines[i] == null) {
+                throw new IllegalArgumentException("The request ended after " + i + " of " + n + " lines");
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * @return the program file, or null if the source was sent along
+     */
+    Path getPath() {
+        return path;
+    }
+
+    String getSource() {
+        return source;
+    }
+
+    QueueSource getInput() {
+        return input;
+    }
+}
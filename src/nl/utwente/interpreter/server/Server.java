@@ -0,0 +1,191 @@
+package nl.utwente.interpreter.server;
+
+import nl.utwente.interpreter.Engine;
+import nl.utwente.interpreter.ExecutionResult;
+import nl.utwente.interpreter.ProgramImage;
+import org.antlr.v4.runtime.CharStreams;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the programs that are sent to it, so they share one warmed up JVM instead of starting one each.
+ * <p>
+ * The server only listens on the loopback address. Every connection is one {@link Request}; the response is the
+ * output of the program, one {@code OUT line} per line as it is displayed, followed by
+ * {@code END status milliseconds [message]}, or by {@code ERR message} if the program could not be loaded.
+ * <p>
+ * Every job runs on its own thread, a virtual thread where the JVM has them, with its own execution of the
+ * program. At most a fixed number of jobs are read, loaded and run at the same time, the others wait for their turn
+ * before anything of their request is read. Programs that are sent by path are loaded once and run again as long as
+ * the file does not change.
+ */
+public class Server implements Closeable {
+    /**
+     * How long a client may take to send the next line of its request.
+     */
+    private static final int READ_TIMEOUT = 30_000;
+    /**
+     * How long jobs without a timeout are waited for when the server is closed, before they are interrupted.
+     */
+    private static final long SHUTDOWN_GRACE = 30_000;
+
+    private final Engine engine;
+    private final ServerSocket socket;
+    private final ExecutorService threads = newThreadPerTaskExecutor();
+    private final Semaphore jobs;
+    private final Duration timeout;
+    private final Map<Path, Loaded> images = new ConcurrentHashMap<>();
+    private volatile boolean closing = false;
+
+    /**
+     * @param port    the port to listen on, 0 for any free port
+     * @param maxJobs the number of jobs that may run at the same time
+     * @param timeout how long a job may run before it is cancelled, or null for no limit
+     */
+    public Server(Engine engine, int port, int maxJobs, Duration timeout) throws IOException {
+        this.engine = engine;
+        this.socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.jobs = new Semaphore(maxJobs);
+        this.timeout = timeout;
+    }
+
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     */
+    public void serve() throws IOException {
+        while (!closing) {
+            Socket connection;
+            try {
+                connection = socket.accept();
+            } catch (SocketException e) {
+                if (closing) {
+                    return;
+                }
+                throw e;
+            }
+            threads.execute(() -> handle(connection));
+        }
+    }
+
+    /**
+     * Stops accepting connections and waits for the jobs that were accepted to finish. Jobs that are still running
+     * after their timeout and a second, or after {@link #SHUTDOWN_GRACE} without a timeout, are interrupted.
+     */
+    @Override
+    public void close() throws IOException {
+        closing = true;
+        socket.close();
+        threads.shutdown();
+        try {
+            long grace = timeout != null ? timeout.toMillis() + 1000 : SHUTDOWN_GRACE;
+            if (!threads.awaitTermination(grace, TimeUnit.MILLISECONDS)) {
+                threads.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            threads.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handle(Socket connection) {
+        try (connection) {
+            connection.setSoTimeout(READ_TIMEOUT);
+            var reader = new BufferedReader(new InputStreamReader(connection.getInputStream(),
+                    StandardCharsets.UTF_8));
+            var writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(),
+                    StandardCharsets.UTF_8)));
+            try {
+                jobs.acquire();
+                ExecutionResult result;
+                try {
+                    var request = Request.read(reader);
+                    var image = load(request);
+                    var output = new LineSink(writer);
+                    result = engine.run(image, request.getInput(), output, timeout);
+                    output.close();
+                } finally {
+                    jobs.release();
+                }
+                writer.print("END " + result.getStatus() + " " + result.getNanos() / 1_000_000
+                        + (result.getError() != null ? " " + oneLine(result.getError().getMessage()) : "") + "\n");
+            } catch (InterruptedException e) {
+                writer.print("ERR The server is shutting down\n");
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                writer.print("ERR " + oneLine(e.getMessage()) + "\n");
+            }
+            writer.flush();
+        } catch (IOException e) {
+            // The client went away, there is no one to tell.
+        }
+    }
+
+    private ProgramImage load(Request request) throws IOException {
+        if (request.getPath() == null) {
+            return engine.load(CharStreams.fromString(request.getSource()));
+        }
+        var path = request.getPath().toAbsolutePath().normalize();
+        var modified = Files.getLastModifiedTime(path);
+        var loaded = images.get(path);
+        if (loaded == null || !loaded.modified.equals(modified)) {
+            loaded = new Loaded(engine.load(path), modified);
+            images.put(path, loaded);
+        }
+        return loaded.image;
+    }
+
+    private static String oneLine(String message) {
+        return String.valueOf(message).replace('\r', ' ').replace('\n', ' ');
+    }
+
+    /**
+     * A virtual thread for every task on Java 21 and later. The interpreter is built for older versions as well,
+     * those get a platform thread for every task instead.
+     */
+    private static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                var thread = new Thread(task, "babycobol-job");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static final class Loaded {
+        private final ProgramImage image;
+        private final FileTime modified;
+
+        private Loaded(ProgramImage image, FileTime modified) {
+            this.image = image;
+            this.modified = modified;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package nl.utwente.interpreter.symbol;
+
+import nl.utwente.interpreter.ast.Atomic;
+import nl.utwente.interpreter.model.Tree;
+
+import java.io.Serializable;
+
+/**
+ * An identifier after resolution: either a field declared in the DATA DIVISION or a variable that is only used
+ * in the PROCEDURE DIVISION. The slot is the index of its storage in the symbol table.
+ * <p>
+ * A field with subscripts that are numbers refers to its occurrence directly. A field with a subscript that is an
+ * identifier refers to the field as it is declared, with the subscripts that pick the occurrence while running.
+ */
+public final class Symbol implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Kind {
+        FIELD, VARIABLE
+    }
+
+    private final Kind kind;
+    private final int slot;
+    private final String name;
+    private final Tree field;
+    private final Atomic[] subscripts;
+
+    Symbol(Kind kind, int slot, String name) {
+        this(kind, slot, name, null, null);
+    }
+
+    Symbol(Kind kind, int slot, String name, Tree field, Atomic[] subscripts) {
+        this.kind = kind;
+        this.slot = slot;
+        this.name = name;
+        this.field = field;
+        this.subscripts = subscripts;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isField() {
+        return kind == Kind.FIELD;
+    }
+
+    /**
+     * @return the node or occurrence of a field, null for a variable
+     */
+    Tree getField() {
+        return field;
+    }
+
+    /**
+     * @return the subscripts that are only known while running, null if the occurrence is known
+     */
+    Atomic[] getSubscripts() {
+        return subscripts;
+    }
+
+    public boolean hasSubscripts() {
+        return subscripts != null;
+    }
+}
@@ -0,0 +1,187 @@
+package nl.utwente.interpreter.symbol;
+
+import nl.utwente.interpreter.ast.Identifier;
+import nl.utwente.interpreter.exception.InterpreterException;
+import nl.utwente.interpreter.model.DataTypes;
+import nl.utwente.interpreter.model.Tree;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Resolves identifiers to storage slots once, before the procedure division is executed.
+ * <p>
+ * Every node in the DATA DIVISION gets a field slot, every other identifier gets a variable slot. Reading or
+ * writing a resolved identifier is then an index into one of the two slot lists, instead of a search through all
+ * the data structures. Identifiers that cannot be resolved are reported while resolving, not on every access.
+ * <p>
+ * The table only knows where a value lives, the values themselves are in the {@link WorkingStorage} of an execution.
+ * Once it is {@link #freeze frozen} it no longer changes, and can be shared by executions on different threads.
+ */
+public class SymbolTable implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Tree> dataStructures;
+    private final List<Tree> fields = new ArrayList<>();
+    private final Map<Tree, Integer> fieldSlots = new IdentityHashMap<>();
+    private final Map<String, Integer> variableSlots = new HashMap<>();
+    private final Map<Identifier, Symbol> resolved = new IdentityHashMap<>();
+    private final Map<String, Symbol> resolvedNames = new HashMap<>();
+    private boolean frozen;
+
+    public SymbolTable(List<Tree> dataStructures) {
+        this.dataStructures = dataStructures;
+        for (var d : dataStructures) {
+            addFields(d);
+        }
+    }
+
+    private void addFields(Tree node) {
+        fieldSlots.put(node, fields.size());
+        fields.add(node);
+        for (var c : node.getNext()) {
+            addFields(c);
+        }
+    }
+
+    /**
+     * Resolves every given identifier.
+     */
+    public void resolveAll(Collection<Identifier> identifiers) {
+        for (var identifier : identifiers) {
+            resolve(identifier);
+        }
+    }
+
+    public Symbol resolve(Identifier identifier) {
+        var symbol = resolved.get(identifier);
+        if (symbol == null) {
+            symbol = lookup(identifier.getPath(), identifier.getText());
+            if (symbol == null) {
+                throw new InterpreterException(identifier.getLine(),
+                        "Identifier " + identifier.getText() + " is too ambiguous");
+            }
+            if (symbol.isField() && identifier.getSubscripts().length > 0) {
+                symbol = subscripted(symbol, identifier);
+            }
+            if (!frozen) {
+                resolved.put(identifier, symbol);
+            }
+        }
+        return symbol;
+    }
+
+    /**
+     * Resolves every given name ahead of time. A name that cannot be resolved is only an error if it is used, so it
+     * is reported when it is resolved again while running.
+     */
+    public void resolveNames(Collection<String> names) {
+        for (var name : names) {
+            try {
+                resolve(name);
+            } catch (RuntimeException e) {
+                // Reported on use
+            }
+        }
+    }
+
+    /**
+     * Stops resolving new variables. Everything the program refers to has been resolved by now, from here on the
+     * table is only read.
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * @return the number of variables outside the data division, each execution keeps a value for every one of them
+     */
+    public int getVariableCount() {
+        return variableSlots.size();
+    }
+
+    /**
+     * Resolves a name that is only known at runtime, like the target of a computed GO TO.
+     */
+    public Symbol resolve(String name) {
+        var symbol = resolvedNames.get(name);
+        if (symbol == null) {
+            symbol = lookup(Tree.parsePath(name), name);
+            if (symbol == null) {
+                throw new RuntimeException("Ambiguous Identifier given " + name);
+            }
+            if (!frozen) {
+                resolvedNames.put(name, symbol);
+            }
+        }
+        return symbol;
+    }
+
+    /**
+     * The occurrence a subscripted field refers to. Subscripts that are numbers are worked out now, so using the
+     * field costs the same as using one without subscripts.
+     */
+    private Symbol subscripted(Symbol symbol, Identifier identifier) {
+        if (!identifier.hasConstantSubscripts()) {
+            return new Symbol(Symbol.Kind.FIELD, symbol.getSlot(), symbol.getName(), symbol.getField(),
+                    identifier.getSubscripts());
+        }
+        var subscripts = new long[identifier.getSubscripts().length];
+        for (int i = 0; i < subscripts.length; i++) {
+            subscripts[i] = (Long) identifier.getSubscripts()[i].getLiteral();
+        }
+        try {
+            var element = symbol.getField().element(subscripts);
+            return new Symbol(Symbol.Kind.FIELD, symbol.getSlot(), symbol.getName(), element, null);
+        } catch (RuntimeException e) {
+            throw new InterpreterException(identifier.getLine(), e.getMessage());
+        }
+    }
+
+    /**
+     * Lookup if there is exactly one node with the given path.
+     * If there are none, and the path is not qualified, it is a variable that is not part of the data division.
+     *
+     * @param path the names from the inside out, A OF B is [A, B]
+     * @param text the identifier as written in the source
+     * @return the symbol, or null if the path is ambiguous
+     */
+    private Symbol lookup(List<String> path, String text) {
+        List<Tree> nodes = new ArrayList<>();
+        for (var d : dataStructures) {
+            d.getNodesFromPath(path, nodes);
+        }
+        if (nodes.size() == 1) {
+            var match = nodes.get(0);
+            return new Symbol(Symbol.Kind.FIELD, fieldSlots.get(match), match.getName(), match, null);
+        }
+        if (nodes.isEmpty() && path.size() == 1) {
+            String key = text.toLowerCase(Locale.ROOT);
+            Integer slot = variableSlots.get(key);
+            if (slot == null) {
+                if (frozen) {
+                    throw new IllegalStateException("Variable " + text + " was not resolved before running");
+                }
+                slot = variableSlots.size();
+                variableSlots.put(key, slot);
+            }
+            return new Symbol(Symbol.Kind.VARIABLE, slot, text);
+        }
+        return null;
+    }
+
+    /**
+     * @return the occurrence the field refers to, or the field as it is declared if its subscripts are only known
+     * while running
+     */
+    public Tree field(Symbol symbol) {
+        return symbol.getField();
+    }
+
+    /**
+     * Variables outside the data division have no picture and may hold numbers.
+     */
+    public boolean isNumeric(Symbol symbol) {
+        return !symbol.isField() || symbol.getField().getPicture() == DataTypes.NINE;
+    }
+}
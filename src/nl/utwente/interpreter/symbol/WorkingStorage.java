@@ -0,0 +1,356 @@
+package nl.utwente.interpreter.symbol;
+
+import nl.utwente.interpreter.ast.Atomic;
+import nl.utwente.interpreter.expression.Accessor;
+import nl.utwente.interpreter.model.DataTypes;
+import nl.utwente.interpreter.model.Storage;
+import nl.utwente.interpreter.model.Tree;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The values of one execution of a program: its own copy of the data division, and the values of the variables
+ * outside of it. The symbols are resolved by the {@link SymbolTable} that is shared by all executions.
+ */
+public class WorkingStorage {
+    private final SymbolTable symbols;
+    private final Storage storage;
+    private final Object[] values;
+
+    /**
+     * @param initial the data division as it is declared, it is copied and not changed
+     */
+    public WorkingStorage(SymbolTable symbols, Storage initial) {
+        this.symbols = symbols;
+        this.storage = initial.copy();
+        this.values = new Object[symbols.getVariableCount()];
+    }
+
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    /**
+     * @return the size of the data division and of the values of the variables outside of it, one byte per
+     * character of a text and eight for a number
+     */
+    public long getBytes() {
+        long bytes = storage.getBytes();
+        for (var value : values) {
+            if (value instanceof CharSequence) {
+                bytes += ((CharSequence) value).length();
+            } else if (value != null) {
+                bytes += Long.BYTES;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Reads and writes find the occurrence of a field with subscripts that are identifiers by its distance, this
+     * is only needed to use the occurrence as a subtree.
+     *
+     * @return the symbol of the occurrence a field with subscripts that are identifiers refers to now, the symbol
+     * itself for anything else
+     */
+    public Symbol element(Symbol symbol) {
+        if (!symbol.hasSubscripts()) {
+            return symbol;
+        }
+        var element = symbol.getField().element(subscripts(symbol));
+        return new Symbol(Symbol.Kind.FIELD, symbol.getSlot(), symbol.getName(), element, null);
+    }
+
+    /**
+     * @return the distance of the occurrence a field with subscripts that are identifiers refers to now from its
+     * first occurrence, 0 for anything else
+     */
+    private int distance(Symbol symbol) {
+        return symbol.hasSubscripts() ? symbol.getField().distance(subscripts(symbol)) : 0;
+    }
+
+    private long[] subscripts(Symbol symbol) {
+        var subscripts = symbol.getSubscripts();
+        var values = new long[subscripts.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = subscript(subscripts[i]);
+        }
+        return values;
+    }
+
+    private long subscript(Atomic subscript) {
+        if (!subscript.isIdentifier()) {
+            return (Long) subscript.getLiteral();
+        }
+        var symbol = symbols.resolve(subscript.getIdentifier());
+        if (symbol.isField() && symbol.getField().isNumber()) {
+            return getNumber(symbol);
+        }
+        try {
+            return Long.parseLong(read(symbol).toString().trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Subscript " + subscript.getText() + " is not a number");
+        }
+    }
+
+    /**
+     * A variable that was never assigned holds its own name.
+     */
+    public Object read(Symbol symbol) {
+        if (symbol.isField()) {
+            return symbols.field(symbol).getValue(storage, distance(symbol));
+        }
+        var value = values[symbol.getSlot()];
+        if (value == null) {
+            value = symbol.getName().toUpperCase();
+            values[symbol.getSlot()] = value;
+        }
+        return value;
+    }
+
+    public void write(Symbol symbol, Object val) {
+        if (!symbol.isField()) {
+            values[symbol.getSlot()] = val;
+            return;
+        }
+        var node = symbols.field(symbol);
+        if (node.isRecord()) {
+            throw new RuntimeException("Cannot assign value to a record!");
+        }
+        int distance = distance(symbol);
+        if (node.isNumber() && val instanceof Number) {
+            node.setNumber(storage, distance, ((Number) val).longValue());
+            return;
+        }
+        assign(node, distance, val.toString());
+    }
+
+    /**
+     * Assigns text to a field, a PICTURE 9 field only takes digits with an optional sign.
+     */
+    public void assign(Tree node, String value) {
+        assign(node, 0, value);
+    }
+
+    private void assign(Tree node, int distance, String value) {
+        if (node.getPicture() == DataTypes.NINE && !isDigits(value.trim())) {
+            throw new RuntimeException("Non-numeric value cannot be assigned to identifier with picture of type 9");
+        }
+        node.assign(storage, distance, value);
+    }
+
+    /**
+     * @return the number in a PICTURE 9 field
+     */
+    public long getNumber(Symbol symbol) {
+        return symbols.field(symbol).getNumber(storage, distance(symbol));
+    }
+
+    private static boolean isDigits(String value) {
+        int start = value.startsWith("-") || value.startsWith("+") ? 1 : 0;
+        return value.length() > start && StringUtils.isNumeric(value.substring(start));
+    }
+
+    /**
+     * Assigns a value read by ACCEPT. Plain digits go straight into a PICTURE 9 field as a long, without creating
+     * a string first.
+     */
+    public void accept(Symbol symbol, CharSequence val) {
+        if (symbol.isField() && symbols.field(symbol).isNumber()) {
+            int length = val.length();
+            if (length > 0 && length <= 18) {
+                long number = 0;
+                int i = 0;
+                while (i < length && val.charAt(i) >= '0' && val.charAt(i) <= '9') {
+                    number = number * 10 + (val.charAt(i++) - '0');
+                }
+                if (i == length) {
+                    symbols.field(symbol).setNumber(storage, distance(symbol), number);
+                    return;
+                }
+            }
+        }
+        write(symbol, val.toString());
+    }
+
+    /**
+     * @return direct access to the slot of the symbol, PICTURE 9 fields are read and written as longs. A field with
+     * subscripts that are identifiers finds its occurrence on every access.
+     */
+    public Accessor accessor(Symbol symbol) {
+        if (symbol.hasSubscripts()) {
+            return new ElementAccessor(symbol);
+        }
+        if (symbol.isField() && symbols.field(symbol).isNumber()) {
+            return new NumberAccessor(symbol, symbols.field(symbol));
+        }
+        return new SlotAccessor(symbol, !symbols.isNumeric(symbol));
+    }
+
+    /**
+     * @return true if a field was declared, or a variable has been given a value
+     */
+    public boolean isSet(Symbol symbol) {
+        return symbol.isField() || values[symbol.getSlot()] != null;
+    }
+
+    /**
+     * The paragraph a GO TO with the given name refers to. A field refers to the paragraph with its own name,
+     * a variable to the paragraph named by its value.
+     */
+    public String labelValue(String name) {
+        var symbol = symbols.resolve(name);
+        if (symbol.isField()) {
+            return symbols.field(symbol).getName();
+        }
+        return String.valueOf(read(symbol));
+    }
+
+    private class SlotAccessor implements Accessor {
+        private final Symbol symbol;
+        private final boolean text;
+
+        SlotAccessor(Symbol symbol, boolean text) {
+            this.symbol = symbol;
+            this.text = text;
+        }
+
+        @Override
+        public Object get() {
+            return read(symbol);
+        }
+
+        @Override
+        public void set(Object value) {
+            write(symbol, value);
+        }
+
+        @Override
+        public boolean isText() {
+            return text;
+        }
+    }
+
+    private class NumberAccessor extends SlotAccessor {
+        private final Tree field;
+
+        NumberAccessor(Symbol symbol, Tree field) {
+            super(symbol, false);
+            this.field = field;
+        }
+
+        @Override
+        public long getLong() {
+            return field.getNumber(storage);
+        }
+
+        @Override
+        public void setLong(long value) {
+            field.setNumber(storage, value);
+        }
+
+        @Override
+        public boolean isNumber() {
+            return true;
+        }
+    }
+
+    /**
+     * A field with subscripts that change while running. The occurrence is found by its distance from the first
+     * one, the strides of the dimensions are worked out once and no view of the occurrence is made.
+     */
+    private class ElementAccessor implements Accessor {
+        private final Symbol symbol;
+        private final Tree field;
+        private final long[] occurs;
+        private final int[] strides;
+        private final Accessor[] subscripts;
+        private final long[] constants;
+
+        ElementAccessor(Symbol symbol) {
+            this.symbol = symbol;
+            this.field = symbol.getField();
+            var atomics = symbol.getSubscripts();
+            var dimensions = field.getDimensions();
+            // Missing outer subscripts are 1, so the subscripts go with the innermost dimensions.
+            // Subscripts beyond the dimensions may only be 1, they are checked like a dimension that occurs once.
+            int first = dimensions.size() - atomics.length;
+            this.occurs = new long[atomics.length];
+            this.strides = new int[atomics.length];
+            for (int i = 0; i < atomics.length; i++) {
+                var dimension = first + i >= 0 ? dimensions.get(first + i) : null;
+                occurs[i] = dimension != null ? dimension.getOccurs() : 1;
+                strides[i] = dimension != null ? field.getStride(dimension) : 0;
+            }
+            this.subscripts = new Accessor[atomics.length];
+            this.constants = new long[atomics.length];
+            for (int i = 0; i < atomics.length; i++) {
+                if (atomics[i].isIdentifier()) {
+                    subscripts[i] = accessor(symbols.resolve(atomics[i].getIdentifier()));
+                } else {
+                    constants[i] = (Long) atomics[i].getLiteral();
+                }
+            }
+        }
+
+        @Override
+        public Object get() {
+            return field.getValue(storage, distance());
+        }
+
+        @Override
+        public void set(Object value) {
+            if (field.isRecord()) {
+                throw new RuntimeException("Cannot assign value to a record!");
+            }
+            if (field.isNumber() && value instanceof Number) {
+                field.setNumber(storage, distance(), ((Number) value).longValue());
+            } else {
+                assign(field, distance(), value.toString());
+            }
+        }
+
+        @Override
+        public long getLong() {
+            return field.isNumber() ? field.getNumber(storage, distance()) : Accessor.super.getLong();
+        }
+
+        @Override
+        public void setLong(long value) {
+            if (field.isNumber()) {
+                field.setNumber(storage, distance(), value);
+            } else {
+                set(value);
+            }
+        }
+
+        @Override
+        public boolean isNumber() {
+            return field.isNumber();
+        }
+
+        @Override
+        public boolean isText() {
+            return !symbols.isNumeric(symbol);
+        }
+
+        /**
+         * @return the distance from the first occurrence to the current one
+         */
+        private int distance() {
+            int distance = 0;
+            for (int i = 0; i < subscripts.length; i++) {
+                long s = subscripts[i] != null ? subscripts[i].getLong() : constants[i];
+                if (s < 1 || s > occurs[i]) {
+                    // Reports the subscript that is out of range
+                    return WorkingStorage.this.distance(symbol);
+                }
+                distance += (int) (s - 1) * strides[i];
+            }
+            return distance;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package nl.utwente.interpreter.vm;
+
+import nl.utwente.interpreter.exception.BudgetExceededException;
+
+import java.time.Duration;
+
+/**
+ * The most one execution may use: a number of statements, an amount of time and a size of working storage. An
+ * execution that goes over one of them ends with a {@link BudgetExceededException}, which, like cancelling, cannot
+ * be handled by a SIGNAL paragraph.
+ * <p>
+ * The budget is checked where a program can keep running without end, at the end of every loop iteration and every
+ * jump to a paragraph, so a program may run a little over it. The statements are checked every time, the clock and
+ * the working storage only every {@value #SAMPLE} times. A data division that does not fit in the working storage
+ * is refused before it is allocated or copied.
+ */
+public final class Budget {
+    public static final Budget UNLIMITED = new Budget(0, null, 0);
+
+    /**
+     * The number of checks after which the clock and the working storage are looked at again.
+     */
+    static final int SAMPLE = 1024;
+
+    private final long maxStatements;
+    private final Duration deadline;
+    private final long maxStorageBytes;
+
+    /**
+     * @param maxStatements   the number of statements the execution may execute, 0 for no limit
+     * @param deadline        how long the execution may run, or null for no limit
+     * @param maxStorageBytes the size the working storage may grow to, it goes over the budget once it is larger,
+     *                        0 for no limit
+     */
+    public Budget(long maxStatements, Duration deadline, long maxStorageBytes) {
+        if (maxStatements < 0 || maxStorageBytes < 0) {
+            throw new IllegalArgumentException("A budget cannot be negative");
+        }
+        if (deadline != null && deadline.isNegative()) {
+            throw new IllegalArgumentException("A deadline cannot be negative");
+        }
+        this.maxStatements = maxStatements;
+        this.deadline = deadline;
+        this.maxStorageBytes = maxStorageBytes;
+    }
+
+    public long getMaxStatements() {
+        return maxStatements;
+    }
+
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    public long getMaxStorageBytes() {
+        return maxStorageBytes;
+    }
+
+    /**
+     * The statements are checked every time whatever this returns, the clock and the working storage only every
+     * {@value #SAMPLE} times.
+     *
+     * @return true if the clock or the working storage are limited
+     */
+    boolean isSampled() {
+        return deadline != null || maxStorageBytes > 0;
+    }
+
+    /**
+     * Checks the size of a working storage before it is allocated or copied.
+     *
+     * @throws BudgetExceededException if it is larger than the budget
+     */
+    public void checkStorage(long bytes) {
+        if (maxStorageBytes > 0 && bytes > maxStorageBytes) {
+            throw new BudgetExceededException("The data division of " + bytes + " bytes goes over the budget of "
+                    + maxStorageBytes + " bytes of working storage");
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package nl.utwente.interpreter.vm;
+
+/**
+ * A paragraph compiled to a JVM class by the {@link ParagraphCompiler}.
+ */
+public interface CompiledParagraph {
+    /**
+     * Runs the paragraph from the given instruction until it reaches an instruction that has to be left to the
+     * {@link Machine}: a GO TO, ALTER, PERFORM, the end of the paragraph or an error found while lowering.
+     *
+     * @return the instruction the machine continues with
+     */
+    int run(int pc);
+}
@@ -0,0 +1,73 @@
+package nl.utwente.interpreter.vm;
+
+import nl.utwente.interpreter.ast.AnyExpression;
+import nl.utwente.interpreter.ast.Atomic;
+import nl.utwente.interpreter.ast.Search;
+import nl.utwente.interpreter.ast.Statement;
+import nl.utwente.interpreter.ast.Varying;
+import nl.utwente.interpreter.ast.When;
+import nl.utwente.interpreter.expression.BooleanExpression;
+import nl.utwente.interpreter.model.Loop;
+import nl.utwente.interpreter.monitoring.Counters;
+import nl.utwente.interpreter.node.SearchNode;
+import nl.utwente.interpreter.node.StatementNode;
+import nl.utwente.interpreter.node.WhenNode;
+
+/**
+ * Executes the parts of a program that do not change the flow of control, on behalf of the {@link Machine}.
+ */
+public interface Executor {
+    /**
+     * @return the node that executes the statement, created once before the program runs
+     */
+    StatementNode prepare(Statement statement);
+
+    /**
+     * @return the node that tests whether one of the expressions of the WHEN block equals the subject
+     */
+    WhenNode prepare(When when);
+
+    /**
+     * @return the node that searches the table of a SEARCH for the WHEN block that holds
+     */
+    SearchNode prepare(Search search);
+
+    boolean test(BooleanExpression condition);
+
+    Object evaluate(AnyExpression expression);
+
+    /**
+     * Assigns the next value of a VARYING to its identifier.
+     */
+    void vary(Varying varying, Loop loop);
+
+    /**
+     * @return the number of times a PERFORM has to be executed
+     */
+    long times(Atomic times);
+
+    /**
+     * @return the name of the paragraph a GO TO with the given label jumps to
+     */
+    String labelValue(String label);
+
+    /**
+     * @return the paragraph to continue with after an error, or null if errors end the program
+     */
+    String getSignalParagraph();
+
+    /**
+     * @return the counters of the execution, the machine adds the statements it executes
+     */
+    Counters getCounters();
+
+    /**
+     * @return what the execution may use, checked by the machine
+     */
+    Budget getBudget();
+
+    /**
+     * @return the size of the working storage: the records of the data division and the text of every value
+     */
+    long getStorageBytes();
+}
@@ -0,0 +1,58 @@
+package nl.utwente.interpreter.vm;
+
+import nl.utwente.interpreter.ast.Node;
+
+import java.io.Serializable;
+
+/**
+ * One instruction of a lowered program. Which operands are used depends on the opcode.
+ */
+final class Instruction implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    final Opcode opcode;
+    /**
+     * The line of the source the instruction comes from, used to report errors.
+     */
+    final int line;
+    /**
+     * The statement, condition or expression the instruction executes.
+     */
+    final Object operand;
+    /**
+     * The slot of a loop, EVALUATE or SEARCH, or the index of a paragraph for PERFORM and PARAGRAPH_END.
+     */
+    final int slot;
+    /**
+     * The label of a GO TO or ALTER, or the message of a FAIL.
+     */
+    final String label;
+    /**
+     * The instruction to jump to. Forward jumps are patched once their target has been emitted.
+     */
+    int target = -1;
+
+    Instruction(Opcode opcode, int line, Object operand, int slot, String label) {
+        this.opcode = opcode;
+        this.line = line;
+        this.operand = operand;
+        this.slot = slot;
+        this.label = label;
+    }
+
+    Instruction(Opcode opcode, int line, Object operand, int slot) {
+        this(opcode, line, operand, slot, null);
+    }
+
+    Instruction(Opcode opcode, Node node, int slot, String label) {
+        this(opcode, node.getLine(), node, slot, label);
+    }
+
+    Instruction(Opcode opcode, Node node, int slot) {
+        this(opcode, node, slot, null);
+    }
+
+    Instruction(Opcode opcode, Node node) {
+        this(opcode, node, -1, null);
+    }
+}
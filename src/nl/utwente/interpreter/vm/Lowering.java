@@ -0,0 +1,289 @@
+package nl.utwente.interpreter.vm;
+
+import nl.utwente.interpreter.ast.*;
+import nl.utwente.interpreter.exception.InterpreterException;
+
+import java.util.*;
+
+/**
+ * Lowers the procedure division to a {@link Program}.
+ * <p>
+ * IF, EVALUATE, SEARCH and LOOP become conditional jumps around their statements, NEXT SENTENCE becomes a jump to the end
+ * of its sentence and PERFORM a call that returns at the PARAGRAPH_END of its last paragraph. Paragraphs and GO TO
+ * statements can be referred to before they are emitted, those jumps are patched once everything is lowered.
+ */
+public class Lowering {
+    private final List<Instruction> code = new ArrayList<>();
+    private final List<Integer> paragraphOf = new ArrayList<>();
+    private final List<Integer> sentenceOf = new ArrayList<>();
+    private final Map<String, Integer> paragraphIndices = new HashMap<>();
+    private final Map<String, Paragraph> paragraphs = new LinkedHashMap<>();
+    private final Map<String, Integer> paragraphStarts = new HashMap<>();
+    private final Map<GoTo, Integer> gotoSites = new IdentityHashMap<>();
+    private final Map<Instruction, String> performs = new IdentityHashMap<>();
+    private final Map<Instruction, GoTo> alters = new IdentityHashMap<>();
+    private List<Instruction> sentenceExits = new ArrayList<>();
+    private int paragraph = -1;
+    private int sentence = -1;
+    private int loopSlots = 0;
+    private int evaluateSlots = 0;
+
+    public Program lower(Procedure procedure) {
+        // Add all paragraphs as valid GOTO, PERFORM and SIGNAL
+        for (Paragraph pc : procedure.getParagraphs()) {
+            String paraName = pc.getName();
+            if (paragraphs.containsKey(paraName)) {
+                throw new InterpreterException(procedure.getLine(),
+                        "Paragraph with name: " + paraName + " is already declared!");
+            }
+            paragraphIndices.put(paraName, paragraphs.size());
+            paragraphs.put(paraName, pc);
+        }
+
+        for (var sentence : procedure.getSentences()) {
+            lowerSentence(sentence);
+        }
+        for (var pc : procedure.getParagraphs()) {
+            paragraph = paragraphIndices.get(pc.getName());
+            paragraphStarts.put(pc.getName(), code.size());
+            for (var sentence : pc.getSentences()) {
+                lowerSentence(sentence);
+            }
+            emit(new Instruction(Opcode.PARAGRAPH_END, pc, paragraph));
+        }
+
+        for (var perform : performs.entrySet()) {
+            perform.getKey().target = paragraphStarts.get(perform.getValue());
+        }
+        for (var alter : alters.entrySet()) {
+            alter.getKey().target = gotoSites.get(alter.getValue());
+        }
+
+        int[] paragraphs = new int[paragraphOf.size()];
+        int[] sentences = new int[sentenceOf.size()];
+        for (int i = 0; i < paragraphs.length; i++) {
+            paragraphs[i] = paragraphOf.get(i);
+            sentences[i] = sentenceOf.get(i);
+        }
+        return new Program(procedure.getLine(), code.toArray(new Instruction[0]), paragraphs, sentences,
+                paragraphStarts, loopSlots, evaluateSlots, procedure.getCacheSlots());
+    }
+
+    private int emit(Instruction instruction) {
+        code.add(instruction);
+        paragraphOf.add(paragraph);
+        sentenceOf.add(sentence);
+        return code.size() - 1;
+    }
+
+    private void patch(Instruction jump) {
+        jump.target = code.size();
+    }
+
+    private void lowerSentence(Sentence sentence) {
+        var outer = sentenceExits;
+        sentenceExits = new ArrayList<>();
+        this.sentence = sentence.getLine();
+        for (var statement : sentence.getStatements()) {
+            lowerStatement(statement);
+        }
+        this.sentence = -1;
+        sentenceExits.forEach(this::patch);
+        sentenceExits = outer;
+    }
+
+    private void lowerStatements(Statement[] statements) {
+        for (var statement : statements) {
+            lowerStatement(statement);
+        }
+    }
+
+    private void lowerStatement(Statement statement) {
+        if (statement instanceof If) {
+            lowerIf((If) statement);
+        } else if (statement instanceof Evaluate) {
+            lowerEvaluate((Evaluate) statement);
+        } else if (statement instanceof Loop) {
+            lowerLoop((Loop) statement);
+        } else if (statement instanceof Search) {
+            lowerSearch((Search) statement);
+        } else if (statement instanceof Perform) {
+            lowerPerform((Perform) statement);
+        } else if (statement instanceof GoTo) {
+            var gotoStatement = (GoTo) statement;
+            gotoSites.put(gotoStatement, emit(new Instruction(Opcode.GOTO, gotoStatement, -1,
+                    gotoStatement.getLabel())));
+        } else if (statement instanceof NextSentence) {
+            var jump = new Instruction(Opcode.JUMP, statement);
+            emit(jump);
+            sentenceExits.add(jump);
+        } else if (statement instanceof Alter) {
+            lowerAlter((Alter) statement);
+        } else {
+            emit(new Instruction(Opcode.EXECUTE, statement));
+        }
+    }
+
+    private void lowerIf(If statement) {
+        var otherwise = new Instruction(Opcode.JUMP_IF_FALSE, statement.getLine(), statement.getCondition(), -1);
+        emit(otherwise);
+        lowerStatements(statement.getThen());
+        if (statement.getOtherwise().length == 0) {
+            patch(otherwise);
+            return;
+        }
+        var end = new Instruction(Opcode.JUMP, statement);
+        emit(end);
+        patch(otherwise);
+        lowerStatements(statement.getOtherwise());
+        patch(end);
+    }
+
+    /**
+     * Every WHEN that matches is executed. Only if none of them did, WHEN OTHER is executed, after which the subject
+     * is evaluated again for the WHEN blocks that follow it.
+     */
+    private void lowerEvaluate(Evaluate statement) {
+        When other = null;
+        for (var block : statement.getWhens()) {
+            if (block.isOther()) {
+                if (other != null) {
+                    emit(new Instruction(Opcode.FAIL, statement, -1, "Multiple WHEN OTHER parts not allowed"));
+                    return;
+                }
+                other = block;
+            }
+        }
+
+        int slot = evaluateSlots++;
+        emit(new Instruction(Opcode.EVALUATE, statement.getLine(), statement.getSubject(), slot));
+        for (var block : statement.getWhens()) {
+            if (!block.isOther()) {
+                lowerWhen(block, slot);
+            }
+        }
+        if (other == null) {
+            return;
+        }
+
+        var skip = new Instruction(Opcode.OTHER, other, slot);
+        emit(skip);
+        var whens = statement.getWhens();
+        for (int i = Arrays.asList(whens).indexOf(other); i < whens.length; i++) {
+            var block = whens[i];
+            if (block == other) {
+                lowerStatements(other.getStatements());
+                emit(new Instruction(Opcode.EVALUATE, statement.getLine(), statement.getSubject(), slot));
+            } else {
+                lowerWhen(block, slot);
+            }
+        }
+        patch(skip);
+    }
+
+    private void lowerWhen(When when, int slot) {
+        var skip = new Instruction(Opcode.WHEN, when, slot);
+        emit(skip);
+        lowerStatements(when.getStatements());
+        patch(skip);
+    }
+
+    /**
+     * The search runs as one instruction, after which only the statements of the WHEN block it found, or those of
+     * AT END, are executed.
+     */
+    private void lowerSearch(Search statement) {
+        int slot = evaluateSlots++;
+        emit(new Instruction(Opcode.SEARCH, statement, slot));
+        List<Instruction> ends = new ArrayList<>();
+        if (statement.getAtEnd().length > 0) {
+            var skip = new Instruction(Opcode.FOUND, statement.getLine(), null, slot);
+            emit(skip);
+            lowerStatements(statement.getAtEnd());
+            var end = new Instruction(Opcode.JUMP, statement);
+            emit(end);
+            ends.add(end);
+            patch(skip);
+        }
+        for (var when : statement.getWhens()) {
+            var skip = new Instruction(Opcode.FOUND, when, slot);
+            emit(skip);
+            lowerStatements(when.getStatements());
+            var end = new Instruction(Opcode.JUMP, when);
+            emit(end);
+            ends.add(end);
+            patch(skip);
+        }
+        ends.forEach(this::patch);
+    }
+
+    /**
+     * The loop expressions are executed in order, the loop only ends at the end of the iteration in which one of
+     * them asked to.
+     */
+    private void lowerLoop(Loop statement) {
+        if (statement.getParts().length == 0) {
+            return;
+        }
+        int slot = loopSlots++;
+        emit(new Instruction(Opcode.LOOP_START, statement, slot));
+        int body = code.size();
+        for (var part : statement.getParts()) {
+            if (part instanceof Varying) {
+                emit(new Instruction(Opcode.VARYING, part, slot));
+            } else if (part instanceof LoopCondition) {
+                var condition = (LoopCondition) part;
+                emit(new Instruction(condition.isUntil() ? Opcode.UNTIL : Opcode.WHILE, condition.getLine(),
+                        condition.getCondition(), slot));
+            } else {
+                lowerStatement((Statement) part);
+            }
+        }
+        var end = new Instruction(Opcode.LOOP_END, statement, slot);
+        end.target = body;
+        emit(end);
+    }
+
+    /**
+     * A PERFORM returns at the end of its last paragraph. If the THROUGH paragraph comes before the first one,
+     * only the first paragraph is performed.
+     */
+    private void lowerPerform(Perform statement) {
+        var startLabel = statement.getLabel();
+        if (!paragraphs.containsKey(startLabel)) {
+            emit(new Instruction(Opcode.FAIL, statement, -1, "label: " + startLabel + "does not exist"));
+            return;
+        }
+        int end = paragraphIndices.get(startLabel);
+        if (statement.getThrough() != null) {
+            var endLabel = statement.getThrough();
+            if (!paragraphs.containsKey(endLabel)) {
+                emit(new Instruction(Opcode.FAIL, statement, -1, "label: " + startLabel + "does not exist"));
+                return;
+            }
+            end = Math.max(end, paragraphIndices.get(endLabel));
+        }
+        var perform = new Instruction(Opcode.PERFORM, statement, end);
+        emit(perform);
+        performs.put(perform, startLabel);
+    }
+
+    /**
+     * Only a paragraph that consists of a single GO TO can be altered, for any other paragraph ALTER does nothing.
+     */
+    private void lowerAlter(Alter statement) {
+        var label1 = statement.getFrom();
+        var label2 = statement.getTo();
+        if (!paragraphs.containsKey(label1) || !paragraphs.containsKey(label2)) {
+            emit(new Instruction(Opcode.FAIL, statement, -1, "Label does not exist!"));
+            return;
+        }
+        var sentences = paragraphs.get(label1).getSentences();
+        if (sentences.length == 1 && sentences[0].getStatements().length == 1
+                && sentences[0].getStatements()[0] instanceof GoTo) {
+            var alter = new Instruction(Opcode.ALTER, statement, -1, label2);
+            emit(alter);
+            alters.put(alter, (GoTo) sentences[0].getStatements()[0]);
+        }
+    }
+}
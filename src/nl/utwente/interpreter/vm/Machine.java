@@ -0,0 +1,377 @@
+package nl.utwente.interpreter.vm;
+
+import nl.utwente.interpreter.ast.AnyExpression;
+import nl.utwente.interpreter.ast.Perform;
+import nl.utwente.interpreter.ast.Search;
+import nl.utwente.interpreter.ast.Statement;
+import nl.utwente.interpreter.ast.Varying;
+import nl.utwente.interpreter.ast.When;
+import nl.utwente.interpreter.exception.CancelledException;
+import nl.utwente.interpreter.exception.InterpreterException;
+import nl.utwente.interpreter.exception.StopException;
+import nl.utwente.interpreter.expression.BooleanExpression;
+import nl.utwente.interpreter.monitoring.Events;
+import nl.utwente.interpreter.monitoring.ParagraphEvent;
+import nl.utwente.interpreter.node.SearchNode;
+import nl.utwente.interpreter.node.StatementNode;
+import nl.utwente.interpreter.node.WhenNode;
+
+import java.util.Arrays;
+
+/**
+ * Executes a lowered {@link Program}.
+ * <p>
+ * PERFORM pushes a frame with the instruction to return to, the paragraph it ends with and how many times it still
+ * has to run, so performed paragraphs do not use the Java stack. A GO TO out of a performed paragraph leaves its
+ * frame behind, like it would in COBOL. When an error occurs and there is a SIGNAL paragraph, the frames are
+ * dropped and execution continues with that paragraph, unless the error came from the signal paragraph itself.
+ * <p>
+ * Depending on the {@link Tier}, paragraphs are compiled to JVM classes, up front or once they have been entered
+ * often enough. A compiled paragraph runs until it reaches an instruction that leaves it, which is then
+ * interpreted as usual.
+ * <p>
+ * Whether the program was cancelled or went over its {@link Budget} is checked at every jump to a paragraph and at
+ * the end of every loop iteration, also in compiled paragraphs.
+ * <p>
+ * While the Flight Recorder records, every paragraph the machine enters, GO TO, ALTER and recovery by the SIGNAL
+ * paragraph is an event, see {@link Events}.
+ */
+public class Machine {
+    private final Program program;
+    private final Executor executor;
+    private final Instruction[] code;
+    /**
+     * The node of every EXECUTE, WHEN and SEARCH, the operand of every other instruction.
+     */
+    private final Object[] operands;
+    /**
+     * The label of every GO TO, as changed by ALTER.
+     */
+    private final String[] labels;
+    private final State state;
+    private final ParagraphCompiler compiler;
+    private final int threshold;
+    /**
+     * The compiled paragraph for every instruction it can be entered at, null for everything that is interpreted.
+     */
+    private final CompiledParagraph[] compiled;
+    private final int[] entries;
+    private final Profiler profiler;
+    /**
+     * The event of the paragraph the machine is in, while it is recorded.
+     */
+    private ParagraphEvent paragraphEvent = null;
+
+    private int[] returns = new int[16];
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private long[] remaining = new long[16];
+    private int depth = 0;
+    private int pc = 0;
+
+    public Machine(Program program, Executor executor) {
+        this(program, executor, Tier.ADAPTIVE, Tier.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param threshold the number of times a paragraph is entered before it is compiled, for the ADAPTIVE tier
+     */
+    public Machine(Program program, Executor executor, Tier tier, int threshold) {
+        this(program, executor, tier, threshold, null);
+    }
+
+    /**
+     * @param profiler measures every instruction, or null. With a profiler the tier is ignored and every paragraph
+     *                 is interpreted.
+     */
+    public Machine(Program program, Executor executor, Tier tier, int threshold, Profiler profiler) {
+        this.program = program;
+        this.profiler = profiler;
+        this.executor = executor;
+        this.code = program.getInstructions();
+        this.labels = new String[code.length];
+        this.operands = new Object[code.length];
+        for (int i = 0; i < code.length; i++) {
+            labels[i] = code[i].label;
+            operands[i] = switch (code[i].opcode) {
+                case EXECUTE -> executor.prepare((Statement) code[i].operand);
+                case WHEN -> executor.prepare((When) code[i].operand);
+                case SEARCH -> executor.prepare((Search) code[i].operand);
+                default -> code[i].operand;
+            };
+        }
+        this.state = new State(program.getLoopSlots(), program.getEvaluateSlots(), executor.getCounters(),
+                executor.getBudget(), executor::getStorageBytes);
+        this.compiler = tier == Tier.INTERPRET || profiler != null ? null : program.compiler();
+        // Paragraphs are compiled up front with COMPILE, a threshold of 0 is never reached by counting.
+        this.threshold = tier == Tier.COMPILE ? 0 : Math.max(1, threshold);
+        this.compiled = new CompiledParagraph[code.length];
+        this.entries = new int[program.paragraphCount()];
+        if (tier == Tier.COMPILE && compiler != null) {
+            for (int paragraph = 0; paragraph < entries.length; paragraph++) {
+                compile(paragraph);
+            }
+        }
+    }
+
+    public void run() {
+        pc = 0;
+        depth = 0;
+        // A data division that is too large does not get to run at all.
+        state.checkBudget();
+        if (profiler != null) {
+            profiler.start();
+        }
+        if (Events.isRecording()) {
+            traceParagraph();
+        }
+        try {
+            while (true) {
+                try {
+                    dispatch();
+                    return;
+                } catch (StopException stop) {
+                    return;
+                } catch (CancelledException cancelled) {
+                    throw cancelled;
+                } catch (Throwable throwable) {
+                    pc = recover(throwable);
+                }
+            }
+        } finally {
+            if (profiler != null) {
+                profiler.finish();
+            }
+            if (paragraphEvent != null) {
+                paragraphEvent.commit();
+                paragraphEvent = null;
+            }
+        }
+    }
+
+    /**
+     * Ends the program at its next loop iteration or jump to a paragraph, with a {@link CancelledException}.
+     * Can be called from any thread.
+     */
+    public void cancel() {
+        state.cancel();
+    }
+
+    private void dispatch() {
+        while (pc < code.length) {
+            if (profiler != null) {
+                profiler.step(pc, depth);
+            }
+            var paragraph = compiled[pc];
+            if (paragraph != null) {
+                pc = paragraph.run(pc);
+                continue;
+            }
+            var instruction = code[pc];
+            switch (instruction.opcode) {
+                case EXECUTE -> {
+                    state.executed();
+                    ((StatementNode) operands[pc]).execute();
+                    pc++;
+                }
+                case JUMP -> pc = instruction.target;
+                case JUMP_IF_FALSE -> {
+                    state.executed();
+                    pc = executor.test((BooleanExpression) instruction.operand) ? pc + 1 : instruction.target;
+                }
+                case GOTO -> {
+                    state.executed();
+                    var label = executor.labelValue(labels[pc]);
+                    int target = program.paragraphStart(label);
+                    if (target < 0) {
+                        throw new InterpreterException(instruction.line, "Paragraph " + label + " not found");
+                    }
+                    if (Events.isRecording()) {
+                        Events.goTo(paragraphName(program.paragraphOf(pc)), label);
+                    }
+                    pc = target;
+                    enter();
+                }
+                case ALTER -> {
+                    state.executed();
+                    labels[instruction.target] = instruction.label;
+                    if (Events.isRecording()) {
+                        Events.alter(paragraphName(program.paragraphOf(instruction.target)), instruction.label);
+                    }
+                    pc++;
+                }
+                case PERFORM -> {
+                    state.executed();
+                    perform(instruction);
+                }
+                case PARAGRAPH_END -> {
+                    if (depth > 0 && ends[depth - 1] == instruction.slot) {
+                        if (--remaining[depth - 1] > 0) {
+                            pc = starts[depth - 1];
+                        } else {
+                            pc = returns[--depth];
+                        }
+                    } else {
+                        pc++;
+                    }
+                    enter();
+                }
+                case LOOP_START -> {
+                    state.executed();
+                    state.startLoop(instruction.slot);
+                    pc++;
+                }
+                case VARYING -> {
+                    executor.vary((Varying) instruction.operand,
+                            state.loop(instruction.slot));
+                    pc++;
+                }
+                case WHILE -> {
+                    if (!executor.test((BooleanExpression) instruction.operand)) {
+                        state.loop(instruction.slot).exit();
+                    }
+                    pc++;
+                }
+                case UNTIL -> {
+                    if (executor.test((BooleanExpression) instruction.operand)) {
+                        state.loop(instruction.slot).exit();
+                    }
+                    pc++;
+                }
+                case LOOP_END -> pc = state.endLoop(instruction.slot) ? pc + 1 : instruction.target;
+                case EVALUATE -> {
+                    state.executed();
+                    state.setSubject(instruction.slot,
+                            executor.evaluate((AnyExpression) instruction.operand));
+                    pc++;
+                }
+                case WHEN -> {
+                    if (((WhenNode) operands[pc]).matches(state.getSubject(instruction.slot))) {
+                        state.match(instruction.slot);
+                        pc++;
+                    } else {
+                        pc = instruction.target;
+                    }
+                }
+                case OTHER -> pc = state.isMatched(instruction.slot) ? instruction.target : pc + 1;
+                case SEARCH -> {
+                    state.executed();
+                    state.setSubject(instruction.slot, ((SearchNode) operands[pc]).search());
+                    pc++;
+                }
+                case FOUND -> pc = state.getSubject(instruction.slot) == operands[pc] ? pc + 1 : instruction.target;
+                case FAIL -> {
+                    state.executed();
+                    throw new InterpreterException(instruction.line, instruction.label);
+                }
+            }
+        }
+    }
+
+    private void perform(Instruction instruction) {
+        var statement = (Perform) instruction.operand;
+        long times = statement.getTimes() != null ? executor.times(statement.getTimes()) : 1;
+        if (times <= 0) {
+            pc++;
+            return;
+        }
+        if (depth == returns.length) {
+            int capacity = depth * 2;
+            returns = Arrays.copyOf(returns, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            remaining = Arrays.copyOf(remaining, capacity);
+        }
+        returns[depth] = pc + 1;
+        starts[depth] = instruction.target;
+        ends[depth] = instruction.slot;
+        remaining[depth] = times;
+        depth++;
+        pc = instruction.target;
+        enter();
+    }
+
+    /**
+     * Counts a jump into the paragraph of the current instruction, and compiles it once that happened often enough.
+     */
+    private void enter() {
+        state.checkCancelled();
+        if (paragraphEvent != null || Events.isRecording()) {
+            traceParagraph();
+        }
+        if (compiler == null || pc >= code.length) {
+            return;
+        }
+        int paragraph = program.paragraphOf(pc);
+        if (paragraph >= 0 && ++entries[paragraph] == threshold) {
+            compile(paragraph);
+        }
+    }
+
+    private void compile(int paragraph) {
+        var compiledParagraph = compiler.compile(paragraph, executor, state, operands);
+        if (compiledParagraph == null) {
+            return;
+        }
+        for (int pc = program.firstOf(paragraph); pc <= program.lastOf(paragraph); pc++) {
+            // Instructions that leave the paragraph would only be handed straight back.
+            if (!leaves(code[pc].opcode)) {
+                compiled[pc] = compiledParagraph;
+            }
+        }
+    }
+
+    static boolean leaves(Opcode opcode) {
+        return switch (opcode) {
+            case GOTO, ALTER, PERFORM, PARAGRAPH_END, FAIL -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * @return the instruction to continue with after the error
+     */
+    private int recover(Throwable throwable) {
+        var signalParagraph = executor.getSignalParagraph();
+        if (signalParagraph == null) {
+            // No fallback method specified. Just throw the error.
+            throw new InterpreterException(throwable);
+        }
+        int start = program.paragraphStart(signalParagraph);
+        if (start < 0) {
+            throw new InterpreterException(program.getLine(), "The signalParagraph has an invalid identifier!");
+        }
+        // The paragraph the program was in when it got here, not the one it was performing.
+        int current = program.paragraphOf(depth > 0 ? returns[0] - 1 : pc);
+        // If another fatal error happens during the execution of the SIGNAL paragraph, it causes abnormal termination.
+        if (program.paragraphOf(start) == current) {
+            throw new InterpreterException(program.getLine(), "Error in the signal paragraph, exiting program");
+        }
+        if (Events.isRecording()) {
+            Events.signalRecovery(throwable, paragraphName(current), signalParagraph);
+        }
+        depth = 0;
+        pc = start;
+        if (paragraphEvent != null || Events.isRecording()) {
+            traceParagraph();
+        }
+        return start;
+    }
+
+    /**
+     * Ends the event of the paragraph the machine left, and starts one for the paragraph it continues in.
+     */
+    private void traceParagraph() {
+        if (paragraphEvent != null) {
+            paragraphEvent.commit();
+            paragraphEvent = null;
+        }
+        if (pc < code.length && program.paragraphOf(pc) >= 0) {
+            paragraphEvent = Events.beginParagraph(program.paragraphName(program.paragraphOf(pc)), depth);
+        }
+    }
+
+    private String paragraphName(int paragraph) {
+        return paragraph >= 0 ? program.paragraphName(paragraph) : "(procedure)";
+    }
+}
@@ -0,0 +1,68 @@
+package nl.utwente.interpreter.vm;
+
+/**
+ * The operations of the lowered procedure division. Only the statements that change the flow of control have
+ * their own opcode, everything else is handed back to the {@link Executor} as a whole.
+ */
+enum Opcode {
+    /**
+     * Execute a statement that does not jump, like DISPLAY or MOVE.
+     */
+    EXECUTE,
+    /**
+     * Jump to the target, used for NEXT SENTENCE and to skip the ELSE branch of an IF.
+     */
+    JUMP,
+    /**
+     * Jump to the target when the condition of an IF does not hold.
+     */
+    JUMP_IF_FALSE,
+    /**
+     * Jump to the paragraph named by the (possibly altered and computed) label.
+     */
+    GOTO,
+    /**
+     * Point the GO TO at the target to another label.
+     */
+    ALTER,
+    /**
+     * Push a return frame and jump to the first paragraph of the PERFORM.
+     */
+    PERFORM,
+    /**
+     * Return from a PERFORM if the paragraph in the slot is its last one, otherwise fall through.
+     */
+    PARAGRAPH_END,
+    LOOP_START,
+    VARYING,
+    WHILE,
+    UNTIL,
+    /**
+     * Jump back to the start of the loop body unless one of the loop expressions ended the loop.
+     */
+    LOOP_END,
+    /**
+     * Evaluate the subject of an EVALUATE into its slot.
+     */
+    EVALUATE,
+    /**
+     * Jump to the target if none of the expressions of the WHEN equals the subject.
+     */
+    WHEN,
+    /**
+     * Jump to the target, past WHEN OTHER, if one of the WHEN blocks before it was entered.
+     */
+    OTHER,
+    /**
+     * Search the table of a SEARCH, and keep the WHEN block that holds, or null at the end of the table, in the slot.
+     */
+    SEARCH,
+    /**
+     * Jump to the target unless the search in the slot ended at the operand: a WHEN block, or null for AT END.
+     */
+    FOUND,
+    /**
+     * Throw an error that was found while lowering, at the moment the statement would have been executed.
+     */
+    FAIL
+}
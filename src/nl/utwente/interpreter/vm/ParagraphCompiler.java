@@ -0,0 +1,332 @@
+package nl.utwente.interpreter.vm;
+
+import nl.utwente.interpreter.ast.AnyExpression;
+import nl.utwente.interpreter.ast.SearchWhen;
+import nl.utwente.interpreter.ast.Varying;
+import nl.utwente.interpreter.expression.BooleanExpression;
+import nl.utwente.interpreter.model.Loop;
+import nl.utwente.interpreter.node.SearchNode;
+import nl.utwente.interpreter.node.StatementNode;
+import nl.utwente.interpreter.node.WhenNode;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Compiles the instructions of one paragraph to a JVM class implementing {@link CompiledParagraph}.
+ * <p>
+ * A class is generated once per paragraph and shared by every machine running the program, each machine creates its
+ * own instance with its own executor, state and operands.
+ * <p>
+ * Every instruction becomes a direct call on its node, the {@link Executor} or the {@link State}, and jumps inside the
+ * paragraph become JVM jumps, so HotSpot sees the paragraph as one method it can inline and optimize. The method
+ * starts with a switch on the instruction to start at. Instructions that leave the paragraph, or that the machine
+ * has to keep track of, return their own index so the machine executes them.
+ */
+class ParagraphCompiler {
+    private static final String EXECUTOR = Type.getInternalName(Executor.class);
+    private static final String STATE = Type.getInternalName(State.class);
+    private static final String LOOP = Type.getInternalName(Loop.class);
+    private static final String OPERANDS = Type.getDescriptor(Object[].class);
+
+    private final Program program;
+    private final Loader loader = new Loader(ParagraphCompiler.class.getClassLoader());
+    private final Class<?>[] classes;
+    /**
+     * Paragraphs that could not be compiled, they are not tried again.
+     */
+    private final boolean[] failed;
+
+    ParagraphCompiler(Program program) {
+        this.program = program;
+        this.classes = new Class<?>[program.paragraphCount()];
+        this.failed = new boolean[program.paragraphCount()];
+    }
+
+    /**
+     * @param operands the node or operand of every instruction of the program
+     * @return the compiled paragraph, or null if it cannot be compiled
+     */
+    CompiledParagraph compile(int paragraph, Executor executor, State state, Object[] operands) {
+        if (program.isAltered(paragraph)) {
+            // The target of an altered GO TO changes while running, it stays with the interpreter.
+            return null;
+        }
+        int first = program.firstOf(paragraph);
+        int last = program.lastOf(paragraph);
+        var own = new Object[last - first + 1];
+        System.arraycopy(operands, first, own, 0, own.length);
+        try {
+            var type = classOf(paragraph);
+            if (type == null) {
+                return null;
+            }
+            return (CompiledParagraph) type.getConstructor(Executor.class, State.class, Object[].class)
+                    .newInstance(executor, state, own);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            // Rejected by the verifier: keep interpreting it.
+            synchronized (this) {
+                failed[paragraph] = true;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @return the class of the paragraph, generated the first time it is asked for, or null if it cannot be compiled
+     */
+    private synchronized Class<?> classOf(int paragraph) {
+        if (failed[paragraph]) {
+            return null;
+        }
+        if (classes[paragraph] == null) {
+            String name = "nl/utwente/interpreter/vm/compiled/Paragraph" + paragraph;
+            try {
+                classes[paragraph] = loader.define(name.replace('/', '.'),
+                        generate(name, program.firstOf(paragraph), program.lastOf(paragraph)));
+            } catch (RuntimeException | LinkageError e) {
+                // Too large for one method: keep interpreting it.
+                failed[paragraph] = true;
+                return null;
+            }
+        }
+        return classes[paragraph];
+    }
+
+    private byte[] generate(String name, int first, int last) {
+        var writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, name, null, "java/lang/Object",
+                new String[]{Type.getInternalName(CompiledParagraph.class)});
+        writer.visitField(ACC_PRIVATE | ACC_FINAL, "executor", "L" + EXECUTOR + ";", null, null).visitEnd();
+        writer.visitField(ACC_PRIVATE | ACC_FINAL, "state", "L" + STATE + ";", null, null).visitEnd();
+        writer.visitField(ACC_PRIVATE | ACC_FINAL, "operands", OPERANDS, null, null).visitEnd();
+
+        var init = writer.visitMethod(ACC_PUBLIC, "<init>", "(L" + EXECUTOR + ";L" + STATE + ";" + OPERANDS + ")V",
+                null, null);
+        init.visitCode();
+        init.visitVarInsn(ALOAD, 0);
+        init.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitVarInsn(ALOAD, 0);
+        init.visitVarInsn(ALOAD, 1);
+        init.visitFieldInsn(PUTFIELD, name, "executor", "L" + EXECUTOR + ";");
+        init.visitVarInsn(ALOAD, 0);
+        init.visitVarInsn(ALOAD, 2);
+        init.visitFieldInsn(PUTFIELD, name, "state", "L" + STATE + ";");
+        init.visitVarInsn(ALOAD, 0);
+        init.visitVarInsn(ALOAD, 3);
+        init.visitFieldInsn(PUTFIELD, name, "operands", OPERANDS);
+        init.visitInsn(RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        var run = writer.visitMethod(ACC_PUBLIC, "run", "(I)I", null, null);
+        run.visitCode();
+        new Body(run, name, first, last).emit();
+        run.visitMaxs(0, 0);
+        run.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * Emits the run method of one paragraph.
+     */
+    private class Body {
+        private final MethodVisitor method;
+        private final String name;
+        private final int first;
+        private final int last;
+        private final Label[] labels;
+
+        Body(MethodVisitor method, String name, int first, int last) {
+            this.method = method;
+            this.name = name;
+            this.first = first;
+            this.last = last;
+            this.labels = new Label[last - first + 1];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = new Label();
+            }
+        }
+
+        void emit() {
+            var outside = new Label();
+            method.visitVarInsn(ILOAD, 1);
+            method.visitTableSwitchInsn(first, last, outside, labels);
+
+            var instructions = program.getInstructions();
+            for (int pc = first; pc <= last; pc++) {
+                method.visitLabel(labels[pc - first]);
+                emit(pc, instructions[pc]);
+            }
+
+            method.visitLabel(outside);
+            method.visitVarInsn(ILOAD, 1);
+            method.visitInsn(IRETURN);
+        }
+
+        private void emit(int pc, Instruction instruction) {
+            if (program.startsStatement(pc) && !Machine.leaves(instruction.opcode)) {
+                method.visitVarInsn(ALOAD, 0);
+                method.visitFieldInsn(GETFIELD, name, "state", "L" + STATE + ";");
+                method.visitMethodInsn(INVOKEVIRTUAL, STATE, "executed", "()V", false);
+            }
+            switch (instruction.opcode) {
+                case EXECUTE -> {
+                    operand(pc, StatementNode.class);
+                    method.visitMethodInsn(INVOKEINTERFACE, Type.getInternalName(StatementNode.class), "execute",
+                            "()V", true);
+                }
+                case JUMP -> jump(GOTO, instruction.target);
+                case JUMP_IF_FALSE -> {
+                    test(pc);
+                    jump(IFEQ, instruction.target);
+                }
+                case LOOP_START -> {
+                    state(instruction.slot);
+                    method.visitMethodInsn(INVOKEVIRTUAL, STATE, "startLoop", "(I)V", false);
+                }
+                case VARYING -> {
+                    executor();
+                    operand(pc, Varying.class);
+                    loop(instruction.slot);
+                    invokeExecutor("vary", "(" + descriptor(Varying.class) + "L" + LOOP + ";)V");
+                }
+                case WHILE, UNTIL -> {
+                    test(pc);
+                    var next = labels[pc + 1 - first];
+                    method.visitJumpInsn(instruction.opcode == Opcode.WHILE ? IFNE : IFEQ, next);
+                    loop(instruction.slot);
+                    method.visitMethodInsn(INVOKEVIRTUAL, LOOP, "exit", "()V", false);
+                }
+                case LOOP_END -> {
+                    state(instruction.slot);
+                    method.visitMethodInsn(INVOKEVIRTUAL, STATE, "endLoop", "(I)Z", false);
+                    jump(IFEQ, instruction.target);
+                }
+                case EVALUATE -> {
+                    state(instruction.slot);
+                    executor();
+                    operand(pc, AnyExpression.class);
+                    invokeExecutor("evaluate", "(" + descriptor(AnyExpression.class) + ")Ljava/lang/Object;");
+                    method.visitMethodInsn(INVOKEVIRTUAL, STATE, "setSubject", "(ILjava/lang/Object;)V", false);
+                }
+                case WHEN -> {
+                    operand(pc, WhenNode.class);
+                    state(instruction.slot);
+                    method.visitMethodInsn(INVOKEVIRTUAL, STATE, "getSubject", "(I)Ljava/lang/Object;", false);
+                    method.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(WhenNode.class), "matches",
+                            "(Ljava/lang/Object;)Z", false);
+                    jump(IFEQ, instruction.target);
+                    state(instruction.slot);
+                    method.visitMethodInsn(INVOKEVIRTUAL, STATE, "match", "(I)V", false);
+                }
+                case OTHER -> {
+                    state(instruction.slot);
+                    method.visitMethodInsn(INVOKEVIRTUAL, STATE, "isMatched", "(I)Z", false);
+                    jump(IFNE, instruction.target);
+                }
+                case SEARCH -> {
+                    state(instruction.slot);
+                    operand(pc, SearchNode.class);
+                    method.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(SearchNode.class), "search",
+                            "()" + descriptor(SearchWhen.class), false);
+                    method.visitMethodInsn(INVOKEVIRTUAL, STATE, "setSubject", "(ILjava/lang/Object;)V", false);
+                }
+                case FOUND -> {
+                    state(instruction.slot);
+                    method.visitMethodInsn(INVOKEVIRTUAL, STATE, "getSubject", "(I)Ljava/lang/Object;", false);
+                    operand(pc, Object.class);
+                    jump(IF_ACMPNE, instruction.target);
+                }
+                // GOTO, ALTER, PERFORM, PARAGRAPH_END and FAIL are left to the machine.
+                default -> exit(pc);
+            }
+        }
+
+        /**
+         * Jumps to an instruction of this paragraph, or returns it to the machine if it lies outside.
+         */
+        private void jump(int opcode, int target) {
+            if (target >= first && target <= last) {
+                method.visitJumpInsn(opcode, labels[target - first]);
+            } else if (opcode == GOTO) {
+                exit(target);
+            } else {
+                var stay = new Label();
+                method.visitJumpInsn(inverse(opcode), stay);
+                exit(target);
+                method.visitLabel(stay);
+            }
+        }
+
+        private int inverse(int opcode) {
+            return switch (opcode) {
+                case IFEQ -> IFNE;
+                case IFNE -> IFEQ;
+                case IF_ACMPEQ -> IF_ACMPNE;
+                default -> IF_ACMPEQ;
+            };
+        }
+
+        private void exit(int pc) {
+            method.visitLdcInsn(pc);
+            method.visitInsn(IRETURN);
+        }
+
+        private void test(int pc) {
+            executor();
+            operand(pc, BooleanExpression.class);
+            invokeExecutor("test", "(" + descriptor(BooleanExpression.class) + ")Z");
+        }
+
+        private void executor() {
+            method.visitVarInsn(ALOAD, 0);
+            method.visitFieldInsn(GETFIELD, name, "executor", "L" + EXECUTOR + ";");
+        }
+
+        private void state(int slot) {
+            method.visitVarInsn(ALOAD, 0);
+            method.visitFieldInsn(GETFIELD, name, "state", "L" + STATE + ";");
+            method.visitLdcInsn(slot);
+        }
+
+        private void loop(int slot) {
+            state(slot);
+            method.visitMethodInsn(INVOKEVIRTUAL, STATE, "loop", "(I)L" + LOOP + ";", false);
+        }
+
+        private void operand(int pc, Class<?> type) {
+            method.visitVarInsn(ALOAD, 0);
+            method.visitFieldInsn(GETFIELD, name, "operands", OPERANDS);
+            method.visitLdcInsn(pc - first);
+            method.visitInsn(AALOAD);
+            method.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+        }
+
+        private void invokeExecutor(String method, String descriptor) {
+            this.method.visitMethodInsn(INVOKEINTERFACE, EXECUTOR, method, descriptor, true);
+        }
+
+        private String descriptor(Class<?> type) {
+            return Type.getDescriptor(type);
+        }
+    }
+
+    /**
+     * Defines the classes of one program, so they can be unloaded together with it.
+     */
+    private static class Loader extends ClassLoader {
+        Loader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
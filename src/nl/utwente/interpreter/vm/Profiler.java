@@ -0,0 +1,345 @@
+package nl.utwente.interpreter.vm;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Measures where a program spends its time, per paragraph, per sentence and per line of a statement.
+ * <p>
+ * The machine reports every instruction before it executes it, and the wall and CPU time since the one before is
+ * charged to that one, in the paragraph it was executed in and under the paragraphs that performed it. A PERFORM
+ * or GO TO is charged to the paragraph it goes to, so the time of a paragraph includes the paragraphs it performs
+ * in its total, but not in its own time. Recursion is folded: a paragraph that is performed while it is already
+ * being performed is counted in the frame it has, so a deep recursion does not give an equally deep profile.
+ * <p>
+ * A machine with a profiler only interprets, compiled paragraphs do not report their instructions. A machine
+ * without one only pays for a check of a field that is null. A profiler can be used by one machine at a time, runs
+ * after each other add up.
+ */
+public class Profiler {
+    private final Program program;
+    private final ThreadMXBean threads;
+    private final Frame root = new Frame(null, -2, 0, 0);
+    private Frame[] stack = new Frame[16];
+    private int depth = 0;
+    private int last = -1;
+    private long wall;
+    private long cpu;
+
+    public Profiler(Program program) {
+        this.program = program;
+        var threads = ManagementFactory.getThreadMXBean();
+        this.threads = threads.isCurrentThreadCpuTimeSupported() ? threads : null;
+    }
+
+    void start() {
+        stack[0] = root;
+        depth = 0;
+        last = -1;
+        wall = System.nanoTime();
+        cpu = cpuTime();
+    }
+
+    /**
+     * @param pc    the instruction that is executed next
+     * @param depth the number of PERFORM frames of the machine
+     */
+    void step(int pc, int depth) {
+        charge();
+        this.depth = Math.min(this.depth, depth);
+        int paragraph = program.paragraphOf(pc);
+        boolean performed = this.depth < depth;
+        while (this.depth < depth) {
+            if (this.depth + 1 == stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[this.depth + 1] = enter(stack[this.depth], paragraph);
+            this.depth++;
+        }
+        if (stack[this.depth].paragraph != paragraph) {
+            // A GO TO, or falling through to the next paragraph
+            stack[this.depth] = enter(this.depth > 0 ? stack[this.depth - 1] : root, paragraph);
+        } else if (!performed && pc == stack[this.depth].first && pc != last + 1) {
+            // A jump back to the start of the same paragraph, by a GO TO or the next time of a PERFORM
+            stack[this.depth].entries++;
+        }
+        var frame = stack[this.depth];
+        if (program.startsStatement(pc)) {
+            frame.executions[pc - frame.first]++;
+        }
+        last = pc;
+    }
+
+    void finish() {
+        charge();
+        last = -1;
+    }
+
+    private void charge() {
+        long wall = System.nanoTime();
+        long cpu = cpuTime();
+        if (last >= 0) {
+            var frame = stack[depth];
+            frame.wall[last - frame.first] += wall - this.wall;
+            frame.cpu[last - frame.first] += cpu - this.cpu;
+        }
+        this.wall = wall;
+        this.cpu = cpu;
+    }
+
+    private long cpuTime() {
+        return threads != null ? threads.getCurrentThreadCpuTime() : 0;
+    }
+
+    private Frame enter(Frame caller, int paragraph) {
+        for (var frame = caller; frame != root; frame = frame.parent) {
+            if (frame.paragraph == paragraph) {
+                frame.entries++;
+                return frame;
+            }
+        }
+        var frame = caller.children.computeIfAbsent(paragraph, p -> {
+            if (p >= 0) {
+                return new Frame(caller, p, program.firstOf(p), program.lastOf(p) - program.firstOf(p) + 1);
+            }
+            // The sentences before the first paragraph
+            return new Frame(caller, p, 0, program.paragraphCount() > 0 ? program.firstOf(0) : program.size());
+        });
+        frame.entries++;
+        return frame;
+    }
+
+    /**
+     * @return the number of times the paragraph was entered, by PERFORM, GO TO or falling through to it
+     */
+    public long getEntries(String paragraph) {
+        long entries = 0;
+        for (var frame : frames()) {
+            if (frame.paragraph >= 0 && program.paragraphName(frame.paragraph).equals(paragraph)) {
+                entries += frame.entries;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * @return the number of times the statements on the line were executed
+     */
+    public long getExecutions(int line) {
+        long executions = 0;
+        for (var frame : frames()) {
+            for (int i = 0; i < frame.executions.length; i++) {
+                if (program.lineOf(frame.first + i) == line) {
+                    executions += frame.executions[i];
+                }
+            }
+        }
+        return executions;
+    }
+
+    /**
+     * Writes the report to the given file, and the stacks for a flame graph next to it, with .collapsed added to
+     * its name.
+     */
+    public void write(Path report) throws IOException {
+        try (var out = new PrintStream(report.toFile(), StandardCharsets.UTF_8)) {
+            writeReport(out);
+        }
+        try (var out = new PrintStream(Path.of(report + ".collapsed").toFile(), StandardCharsets.UTF_8)) {
+            writeCollapsed(out);
+        }
+    }
+
+    /**
+     * Writes the paragraphs by their own time and by their total time, then the sentences and the statements by
+     * their own time. Sentences and statements are known by their line.
+     */
+    public void writeReport(PrintStream out) {
+        Map<Integer, Stats> paragraphs = new HashMap<>();
+        Map<Integer, Stats> sentences = new TreeMap<>();
+        Map<Integer, Stats> lines = new TreeMap<>();
+        for (var frame : frames()) {
+            var paragraph = paragraphs.computeIfAbsent(frame.paragraph, p -> new Stats(paragraphName(p)));
+            paragraph.count += frame.entries;
+            for (int i = 0; i < frame.wall.length; i++) {
+                int pc = frame.first + i;
+                paragraph.add(frame.wall[i], frame.cpu[i]);
+                int sentence = program.sentenceOf(pc);
+                if (sentence >= 0) {
+                    var stats = sentences.computeIfAbsent(sentence, l -> new Stats("line " + l));
+                    stats.add(frame.wall[i], frame.cpu[i]);
+                    if (pc == 0 || program.sentenceOf(pc - 1) != sentence) {
+                        stats.count += frame.executions[i];
+                    }
+                }
+                var line = lines.computeIfAbsent(program.lineOf(pc), l -> new Stats("line " + l));
+                line.add(frame.wall[i], frame.cpu[i]);
+                line.count += frame.executions[i];
+            }
+        }
+        total(root, paragraphs);
+
+        long wall = 0;
+        long cpu = 0;
+        for (var stats : paragraphs.values()) {
+            wall += stats.wall;
+            cpu += stats.cpu;
+        }
+        out.printf(Locale.ROOT, "Profile: %.3f ms, %.3f ms CPU%n", wall / 1e6, cpu / 1e6);
+
+        List<Stats> bySelf = new ArrayList<>(paragraphs.values());
+        bySelf.sort(Comparator.comparingLong((Stats s) -> s.wall).reversed());
+        table(out, "Paragraphs by self time", "Entries", bySelf, true);
+        List<Stats> byTotal = new ArrayList<>(paragraphs.values());
+        byTotal.sort(Comparator.comparingLong((Stats s) -> s.totalWall).reversed());
+        table(out, "Paragraphs by total time", "Entries", byTotal, true);
+        List<Stats> sentencesBySelf = new ArrayList<>(sentences.values());
+        sentencesBySelf.sort(Comparator.comparingLong((Stats s) -> s.wall).reversed());
+        table(out, "Sentences by self time", "Runs", sentencesBySelf, false);
+        List<Stats> linesBySelf = new ArrayList<>(lines.values());
+        linesBySelf.sort(Comparator.comparingLong((Stats s) -> s.wall).reversed());
+        table(out, "Statements by self time", "Runs", linesBySelf, false);
+    }
+
+    /**
+     * Writes a line for every line of a statement in every stack of paragraphs it ran in, with the wall time in
+     * nanoseconds, the format flamegraph.pl and most flame graph viewers read.
+     */
+    public void writeCollapsed(PrintStream out) {
+        collapsed(out, root, "");
+    }
+
+    private void collapsed(PrintStream out, Frame frame, String path) {
+        if (frame != root) {
+            path = path.isEmpty() ? paragraphName(frame.paragraph) : path + ";" + paragraphName(frame.paragraph);
+            Map<Integer, Long> lines = new TreeMap<>();
+            for (int i = 0; i < frame.wall.length; i++) {
+                lines.merge(program.lineOf(frame.first + i), frame.wall[i], Long::sum);
+            }
+            for (var line : lines.entrySet()) {
+                if (line.getValue() > 0) {
+                    out.println(path + ";line " + line.getKey() + " " + line.getValue());
+                }
+            }
+        }
+        for (var child : frame.children.values()) {
+            collapsed(out, child, path);
+        }
+    }
+
+    /**
+     * Adds the time of every frame and the frames below it to the total of its paragraph.
+     *
+     * @return the wall and CPU time of the frame and the frames below it
+     */
+    private long[] total(Frame frame, Map<Integer, Stats> paragraphs) {
+        long[] total = new long[2];
+        for (int i = 0; i < frame.wall.length; i++) {
+            total[0] += frame.wall[i];
+            total[1] += frame.cpu[i];
+        }
+        for (var child : frame.children.values()) {
+            var childTotal = total(child, paragraphs);
+            total[0] += childTotal[0];
+            total[1] += childTotal[1];
+        }
+        if (frame != root) {
+            var stats = paragraphs.get(frame.paragraph);
+            stats.totalWall += total[0];
+            stats.totalCpu += total[1];
+        }
+        return total;
+    }
+
+    private List<Frame> frames() {
+        List<Frame> frames = new ArrayList<>();
+        List<Frame> pending = new ArrayList<>(root.children.values());
+        while (!pending.isEmpty()) {
+            var frame = pending.remove(pending.size() - 1);
+            frames.add(frame);
+            pending.addAll(frame.children.values());
+        }
+        return frames;
+    }
+
+    private String paragraphName(int paragraph) {
+        return paragraph >= 0 ? program.paragraphName(paragraph) : "(procedure)";
+    }
+
+    private static void table(PrintStream out, String title, String count, List<Stats> rows, boolean totals) {
+        out.println();
+        out.println(title);
+        if (totals) {
+            out.printf(Locale.ROOT, "%12s %12s %12s %12s %12s  %s%n", "Self ms", "Self CPU ms", "Total ms",
+                    "Total CPU ms", count, "Name");
+        } else {
+            out.printf(Locale.ROOT, "%12s %12s %12s  %s%n", "Self ms", "Self CPU ms", count, "Name");
+        }
+        for (var row : rows) {
+            if (row.wall == 0 && row.count == 0) {
+                continue;
+            }
+            if (totals) {
+                out.printf(Locale.ROOT, "%12.3f %12.3f %12.3f %12.3f %12d  %s%n", row.wall / 1e6, row.cpu / 1e6,
+                        row.totalWall / 1e6, row.totalCpu / 1e6, row.count, row.name);
+            } else {
+                out.printf(Locale.ROOT, "%12.3f %12.3f %12d  %s%n", row.wall / 1e6, row.cpu / 1e6, row.count,
+                        row.name);
+            }
+        }
+    }
+
+    /**
+     * A paragraph under the paragraphs that performed it. The times and counts are kept for every instruction of
+     * the paragraph, from its first one.
+     */
+    private static final class Frame {
+        final Frame parent;
+        final int paragraph;
+        final int first;
+        final long[] wall;
+        final long[] cpu;
+        final long[] executions;
+        final Map<Integer, Frame> children = new HashMap<>();
+        long entries = 0;
+
+        Frame(Frame parent, int paragraph, int first, int size) {
+            this.parent = parent;
+            this.paragraph = paragraph;
+            this.first = first;
+            this.wall = new long[size];
+            this.cpu = new long[size];
+            this.executions = new long[size];
+        }
+    }
+
+    private static final class Stats {
+        final String name;
+        long count = 0;
+        long wall = 0;
+        long cpu = 0;
+        long totalWall = 0;
+        long totalCpu = 0;
+
+        Stats(String name) {
+            this.name = name;
+        }
+
+        void add(long wall, long cpu) {
+            this.wall += wall;
+            this.cpu += cpu;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package nl.utwente.interpreter.vm;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The procedure division lowered to one flat list of instructions: first the sentences before the paragraphs,
+ * then every paragraph followed by a PARAGRAPH_END. Every jump, except for GO TO, has its target resolved.
+ * <p>
+ * A program does not change once it is lowered, any number of machines can run it at the same time. Everything
+ * that changes while running, like the targets of an ALTER, is kept by the machine.
+ */
+public class Program implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int line;
+    private final Instruction[] instructions;
+    private final int[] paragraphOf;
+    private final int[] sentenceOf;
+    private final Map<String, Integer> paragraphStarts;
+    private final int loopSlots;
+    private final int evaluateSlots;
+    private final int cacheSlots;
+    private final int[] firsts;
+    private final int[] lasts;
+    private final boolean[] altered;
+    private final String[] names;
+    private transient ParagraphCompiler compiler;
+
+    Program(int line, Instruction[] instructions, int[] paragraphOf, int[] sentenceOf,
+            Map<String, Integer> paragraphStarts, int loopSlots, int evaluateSlots, int cacheSlots) {
+        this.line = line;
+        this.instructions = instructions;
+        this.paragraphOf = paragraphOf;
+        this.sentenceOf = sentenceOf;
+        this.paragraphStarts = paragraphStarts;
+        this.loopSlots = loopSlots;
+        this.evaluateSlots = evaluateSlots;
+        this.cacheSlots = cacheSlots;
+
+        int paragraphs = paragraphStarts.size();
+        this.firsts = new int[paragraphs];
+        this.lasts = new int[paragraphs];
+        this.altered = new boolean[paragraphs];
+        this.names = new String[paragraphs];
+        for (var start : paragraphStarts.entrySet()) {
+            names[paragraphOf[start.getValue()]] = start.getKey();
+        }
+        Arrays.fill(firsts, -1);
+        for (int pc = 0; pc < instructions.length; pc++) {
+            int paragraph = paragraphOf[pc];
+            if (paragraph < 0) {
+                continue;
+            }
+            if (firsts[paragraph] < 0) {
+                firsts[paragraph] = pc;
+            }
+            lasts[paragraph] = pc;
+            if (instructions[pc].opcode == Opcode.ALTER) {
+                altered[paragraphOf[instructions[pc].target]] = true;
+            }
+        }
+    }
+
+    /**
+     * @return the line the procedure division starts at, for errors that belong to no statement
+     */
+    public int getLine() {
+        return line;
+    }
+
+    Instruction[] getInstructions() {
+        return instructions;
+    }
+
+    public int size() {
+        return instructions.length;
+    }
+
+    /**
+     * @return the first instruction of the paragraph, or -1 if there is no paragraph with that name
+     */
+    public int paragraphStart(String name) {
+        return paragraphStarts.getOrDefault(name, -1);
+    }
+
+    /**
+     * @return the index of the paragraph the instruction belongs to, -1 for the sentences before the paragraphs
+     */
+    public int paragraphOf(int instruction) {
+        return paragraphOf[instruction];
+    }
+
+    /**
+     * @return the line of the source the instruction comes from
+     */
+    public int lineOf(int instruction) {
+        return instructions[instruction].line;
+    }
+
+    /**
+     * @return the line the sentence of the instruction starts at, -1 for the end of a paragraph
+     */
+    public int sentenceOf(int instruction) {
+        return sentenceOf[instruction];
+    }
+
+    /**
+     * @return true if the instruction is where a statement starts, so every execution of a statement counts once
+     */
+    public boolean startsStatement(int instruction) {
+        return switch (instructions[instruction].opcode) {
+            case EXECUTE, JUMP_IF_FALSE, GOTO, ALTER, PERFORM, LOOP_START, EVALUATE, SEARCH, FAIL -> true;
+            default -> false;
+        };
+    }
+
+    public String paragraphName(int paragraph) {
+        return names[paragraph];
+    }
+
+    public int paragraphCount() {
+        return firsts.length;
+    }
+
+    /**
+     * @return the first instruction of the paragraph with the given index
+     */
+    public int firstOf(int paragraph) {
+        return firsts[paragraph];
+    }
+
+    /**
+     * @return the last instruction of the paragraph with the given index, its PARAGRAPH_END
+     */
+    public int lastOf(int paragraph) {
+        return lasts[paragraph];
+    }
+
+    /**
+     * @return true if the paragraph contains a GO TO that an ALTER statement changes
+     */
+    public boolean isAltered(int paragraph) {
+        return altered[paragraph];
+    }
+
+    /**
+     * @return the compiler of the paragraphs of this program, shared by every machine so a paragraph is only
+     * generated once
+     */
+    synchronized ParagraphCompiler compiler() {
+        if (compiler == null) {
+            compiler = new ParagraphCompiler(this);
+        }
+        return compiler;
+    }
+
+    public int getLoopSlots() {
+        return loopSlots;
+    }
+
+    public int getEvaluateSlots() {
+        return evaluateSlots;
+    }
+
+    /**
+     * @return the number of inline caches of the expressions, every execution keeps its own
+     */
+    public int getCacheSlots() {
+        return cacheSlots;
+    }
+}
@@ -0,0 +1,129 @@
+package nl.utwente.interpreter.vm;
+
+import nl.utwente.interpreter.exception.BudgetExceededException;
+import nl.utwente.interpreter.exception.CancelledException;
+import nl.utwente.interpreter.model.Loop;
+import nl.utwente.interpreter.monitoring.Counters;
+
+import java.util.function.LongSupplier;
+
+/**
+ * The loops and EVALUATE subjects of a running program, one slot for every LOOP and EVALUATE statement. A SEARCH
+ * keeps the WHEN block it found in a subject slot of its own.
+ * It is public so compiled paragraphs, which live in their own class loader, can use it as well.
+ */
+public final class State {
+    private final Loop[] loops;
+    private final Object[] subjects;
+    private final boolean[] matched;
+    private final Counters counters;
+    private final Budget budget;
+    private final long maxStatements;
+    private final long deadline;
+    private final LongSupplier storageBytes;
+    private final boolean sampled;
+    private int untilSample = Budget.SAMPLE;
+    private volatile boolean cancelled = false;
+
+    /**
+     * @param storageBytes the size of the working storage, for the budget
+     */
+    State(int loopSlots, int evaluateSlots, Counters counters, Budget budget, LongSupplier storageBytes) {
+        this.loops = new Loop[loopSlots];
+        this.subjects = new Object[evaluateSlots];
+        this.matched = new boolean[evaluateSlots];
+        this.counters = counters;
+        this.budget = budget;
+        this.maxStatements = budget.getMaxStatements() > 0 ? budget.getMaxStatements() : Long.MAX_VALUE;
+        this.deadline = budget.getDeadline() != null ? System.nanoTime() + budget.getDeadline().toNanos() : 0;
+        this.storageBytes = storageBytes;
+        this.sampled = budget.isSampled();
+    }
+
+    /**
+     * Counts a statement that starts executing.
+     */
+    public void executed() {
+        counters.statement();
+    }
+
+    public void startLoop(int slot) {
+        loops[slot] = new Loop();
+    }
+
+    public Loop loop(int slot) {
+        return loops[slot];
+    }
+
+    /**
+     * Asks the program to end at the next loop iteration or jump to a paragraph. Can be called from any thread.
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Every way a program can keep running without end passes here, through the end of a loop or through a jump
+     * to a paragraph.
+     *
+     * @throws CancelledException if the program was cancelled or went over its budget
+     */
+    void checkCancelled() {
+        if (cancelled) {
+            throw new CancelledException();
+        }
+        if (counters.getStatements() > maxStatements) {
+            throw new BudgetExceededException("The execution went over its budget of " + maxStatements
+                    + " statements");
+        }
+        if (sampled && --untilSample == 0) {
+            untilSample = Budget.SAMPLE;
+            checkBudget();
+        }
+    }
+
+    /**
+     * Checks the parts of the budget that are too expensive to check every time.
+     *
+     * @throws BudgetExceededException if the execution ran past its deadline or its working storage is too large
+     */
+    void checkBudget() {
+        if (budget.getDeadline() != null && System.nanoTime() - deadline > 0) {
+            throw new BudgetExceededException("The execution went over its budget of "
+                    + budget.getDeadline().toMillis() + " ms");
+        }
+        if (budget.getMaxStorageBytes() > 0 && storageBytes.getAsLong() > budget.getMaxStorageBytes()) {
+            throw new BudgetExceededException("The execution went over its budget of "
+                    + budget.getMaxStorageBytes() + " bytes of working storage");
+        }
+    }
+
+    /**
+     * @return true if the loop ended in this iteration
+     */
+    public boolean endLoop(int slot) {
+        checkCancelled();
+        if (loops[slot].exitLoop()) {
+            loops[slot] = null;
+            return true;
+        }
+        return false;
+    }
+
+    public void setSubject(int slot, Object subject) {
+        subjects[slot] = subject;
+        matched[slot] = false;
+    }
+
+    public Object getSubject(int slot) {
+        return subjects[slot];
+    }
+
+    public void match(int slot) {
+        matched[slot] = true;
+    }
+
+    public boolean isMatched(int slot) {
+        return matched[slot];
+    }
+}
@@ -0,0 +1,21 @@
+package nl.utwente.interpreter.vm;
+
+/**
+ * How a {@link Machine} executes paragraphs.
+ */
+public enum Tier {
+    /**
+     * Only interpret the instructions.
+     */
+    INTERPRET,
+    /**
+     * Compile every paragraph that can be compiled before the program starts.
+     */
+    COMPILE,
+    /**
+     * Interpret a paragraph until it has been entered often enough, then compile it.
+     */
+    ADAPTIVE;
+
+    public static final int DEFAULT_THRESHOLD = 1000;
+}
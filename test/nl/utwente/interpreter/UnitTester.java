@@ -1,22 +1,59 @@
 package nl.utwente.interpreter;
 
 import nl.utwente.interpreter.model.Tuple;
+import nl.utwente.interpreter.exception.BudgetExceededException;
 import nl.utwente.interpreter.exception.InterpreterException;
 import nl.utwente.interpreter.Interpreter;
+import nl.utwente.interpreter.cache.ProgramCache;
+import nl.utwente.interpreter.generator.ProgramGenerator;
+import nl.utwente.interpreter.input.MappedFileSource;
+import nl.utwente.interpreter.input.QueueSource;
 import nl.utwente.interpreter.model.ProgramOutput;
+import nl.utwente.interpreter.monitoring.InterpreterMetrics;
+import nl.utwente.interpreter.output.AsyncSink;
+import nl.utwente.interpreter.output.CaptureSink;
+import nl.utwente.interpreter.output.FlushPolicy;
+import nl.utwente.interpreter.server.Server;
+import nl.utwente.interpreter.vm.Budget;
+import nl.utwente.interpreter.vm.Profiler;
+import nl.utwente.interpreter.vm.Tier;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class UnitTester {
@@ -98,6 +135,25 @@ public class UnitTester {
         testEquivalence(expected, actual);
     }
 
+    @Test
+    public void testSubtractWithoutGiving() throws IOException {
+        ArrayList<String> expected = new ArrayList<>();
+        expected.add("BEFORE");
+        String expectedError = "line: 5, message: GIVING identifier is required!";
+
+        try {
+            interpreter.compile(fetchStreamForFile("subtract-giving.baby"), programOutput);
+            fail("We should not get to this part of the test, expected an error to occur!");
+        } catch (InterpreterException ie) {
+            ArrayList<Tuple<String, Integer>> actual = programOutput.getCopyOfList();
+
+            assertEquals(expected.size(), actual.size(), "Actual size differs from expected size!");
+
+            testEquivalence(expected, actual);
+            assertEquals(expectedError, ie.getMessage(), "We expected an error to occur");
+        }
+    }
+
     // NOTE: This is not a good test for the method we rely on for all our other tests....
     @Test
     public void testDisplay() throws IOException {
@@ -115,6 +171,119 @@ public class UnitTester {
         testEquivalence(expected, actual);
     }
 
+    @Test
+    public void testDisplaySink() throws IOException {
+        var capture = new CaptureSink();
+        try (var output = new AsyncSink(capture, 2)) {
+            interpreter.setOutput(output, FlushPolicy.ON_STOP);
+            interpreter.compile(fetchStreamForFile("display-sink.baby"), programOutput);
+        }
+
+        var separator = System.lineSeparator();
+        assertEquals("hello world 1 2" + separator + "DONE" + separator, capture.getText());
+    }
+
+    @Test
+    public void testOutputRetention() throws IOException {
+        var streamed = new ArrayList<String>();
+        programOutput = ProgramOutput.streaming((text, line) -> streamed.add(text), 3);
+
+        interpreter.compile(fetchStreamForFile("retention.baby"), programOutput);
+
+        assertEquals(51, streamed.size(), "Not every line was streamed!");
+        assertEquals("1", streamed.get(0));
+        testEquivalence(List.of("49", "50", "DONE"), programOutput.getCopyOfList());
+        assertEquals(7, programOutput.getLine(2));
+    }
+
+    @Test
+    public void testAcceptFromFile() throws IOException {
+        try (var input = new MappedFileSource(new File("./test/nl/utwente/interpreter/testfiles/accept.txt").toPath())) {
+            interpreter.setInput(input);
+            interpreter.compile(fetchStreamForFile("accept.baby"), programOutput);
+        }
+
+        List<String> expected = List.of("012", "abc", "value");
+        ArrayList<Tuple<String, Integer>> actual = programOutput.getCopyOfList();
+
+        assertEquals(expected.size(), actual.size(), "Actual size differs from expected size!");
+
+        testEquivalence(expected, actual);
+    }
+
+    @Test
+    public void testAcceptFromQueue() throws IOException {
+        var input = new QueueSource();
+        input.add("1234");
+        input.add("x y");
+        input.add("v");
+        input.end();
+        interpreter.setInput(input);
+
+        interpreter.compile(fetchStreamForFile("accept.baby"), programOutput);
+
+        List<String> expected = List.of("234", "x y", "v");
+        ArrayList<Tuple<String, Integer>> actual = programOutput.getCopyOfList();
+
+        assertEquals(expected.size(), actual.size(), "Actual size differs from expected size!");
+
+        testEquivalence(expected, actual);
+    }
+
+    @Test
+    public void testProgramCache(@TempDir Path directory) throws IOException {
+        // The first run parses and stores the program, the second one only reads it back.
+        for (int run = 0; run < 2; run++) {
+            runCached(directory);
+            if (run == 0) {
+                assertNotNull(interpreter.getParseStatistics(), "The program should have been parsed");
+            } else {
+                assertNull(interpreter.getParseStatistics(), "The program should have come from the cache");
+            }
+        }
+
+        // A corrupt entry is parsed again and replaced.
+        try (var entries = Files.list(directory)) {
+            for (var entry : (Iterable<Path>) entries::iterator) {
+                Files.write(entry, new byte[]{1, 2, 3});
+            }
+        }
+        runCached(directory);
+        assertNotNull(interpreter.getParseStatistics(), "The corrupt entry should have been parsed again");
+        runCached(directory);
+        assertNull(interpreter.getParseStatistics(), "The replaced entry should have come from the cache");
+    }
+
+    private void runCached(Path directory) throws IOException {
+        ArrayList<String> expected = new ArrayList<>();
+        expected.add("01");
+        expected.add("TWO");
+        expected.add("03");
+        expected.add("04");
+        expected.add("3");
+        expected.add("DONE");
+
+        interpreter = new Interpreter();
+        programOutput = new ProgramOutput();
+        interpreter.setCache(new ProgramCache(directory));
+        interpreter.compile(fetchStreamForFile("tiers.baby"), programOutput);
+        ArrayList<Tuple<String, Integer>> actual = programOutput.getCopyOfList();
+
+        assertEquals(expected.size(), actual.size(), "Actual size differs from expected size!");
+
+        testEquivalence(expected, actual);
+    }
+
+    @Test
+    public void testParseStatistics() throws IOException {
+        interpreter.compile(fetchStreamForFile("contractedBoolean.baby"), programOutput);
+
+        var statistics = interpreter.getParseStatistics();
+        assertNotNull(statistics, "The program should have been parsed");
+        assertTrue(statistics.getTokens() > 0, "No tokens were counted!");
+        assertEquals(false, statistics.isFullContext(), "SLL prediction should have been enough");
+    }
+
     @Test
     public void testEvaluate() throws IOException {
         ArrayList<String> expected = new ArrayList<>();
@@ -219,6 +388,53 @@ public class UnitTester {
     }
 
 
+    @Test
+    public void testPerform() throws IOException {
+        ArrayList<String> expected = new ArrayList<>();
+        expected.add("3");
+        expected.add("20000");
+        expected.add("A");
+        expected.add("C");
+        expected.add("1");
+        expected.add("DONE");
+
+        interpreter.compile(fetchStreamForFile("perform.baby"), programOutput);
+        ArrayList<Tuple<String, Integer>> actual = programOutput.getCopyOfList();
+
+        assertEquals(expected.size(), actual.size(), "Actual size differs from expected size!");
+
+        testEquivalence(expected, actual);
+    }
+
+    @Test
+    public void testInterpretedTier() throws IOException {
+        interpreter.setTier(Tier.INTERPRET);
+        testTiers();
+    }
+
+    @Test
+    public void testCompiledTier() throws IOException {
+        interpreter.setTier(Tier.COMPILE);
+        testTiers();
+    }
+
+    private void testTiers() throws IOException {
+        ArrayList<String> expected = new ArrayList<>();
+        expected.add("01");
+        expected.add("TWO");
+        expected.add("03");
+        expected.add("04");
+        expected.add("3");
+        expected.add("DONE");
+
+        interpreter.compile(fetchStreamForFile("tiers.baby"), programOutput);
+        ArrayList<Tuple<String, Integer>> actual = programOutput.getCopyOfList();
+
+        assertEquals(expected.size(), actual.size(), "Actual size differs from expected size!");
+
+        testEquivalence(expected, actual);
+    }
+
     @Test
     public void testGotoComputed() throws IOException {
         ArrayList<String> expected = new ArrayList<>();
@@ -337,6 +553,35 @@ public class UnitTester {
         }
     }
 
+    @Test
+    public void testQualification() throws IOException {
+        ArrayList<String> expected = new ArrayList<>();
+        expected.add("001");
+        expected.add("002");
+        expected.add("003");
+
+        interpreter.compile(fetchStreamForFile("qualification.baby"), programOutput);
+        ArrayList<Tuple<String, Integer>> actual = programOutput.getCopyOfList();
+
+        assertEquals(expected.size(), actual.size(), "Actual size differs from expected size!");
+
+        testEquivalence(expected, actual);
+    }
+
+    @Test
+    public void testAmbiguousIdentifier() throws IOException {
+        String expectedError = "line: 11, message: Identifier C is too ambiguous";
+
+        try {
+            interpreter.compile(fetchStreamForFile("ambiguous.baby"), programOutput);
+            fail("We should not get this part of the test!");
+        } catch (InterpreterException e) {
+            // The identifiers are resolved before the program runs, so nothing is displayed.
+            assertEquals(0, programOutput.getCopyOfList().size(), "actual size differs from expected size!");
+            assertEquals(expectedError, e.getMessage(), "We expected an error to occur");
+        }
+    }
+
     @Test
     @Disabled
     public void testAccept() throws IOException {
@@ -401,6 +646,25 @@ public class UnitTester {
         testEquivalence(expected, actual);
     }
 
+    @Test
+    public void testExpressions() throws IOException {
+        ArrayList<String> expected = new ArrayList<>();
+        expected.add("precedence");
+        expected.add("power");
+        expected.add("left to right");
+        expected.add("not");
+        expected.add("xor");
+        expected.add("contracted");
+        expected.add("inherited");
+
+        interpreter.compile(fetchStreamForFile("expressions.baby"), programOutput);
+        ArrayList<Tuple<String, Integer>> actual = programOutput.getCopyOfList();
+
+        assertEquals(expected.size(), actual.size(), "Actual size differs from expected size!");
+
+        testEquivalence(expected, actual);
+    }
+
     @Test
     public void testMove() throws IOException {
         ArrayList<String> expected = new ArrayList<>();
@@ -420,6 +684,57 @@ public class UnitTester {
         testEquivalence(expected, actual);
     }
 
+    @Test
+    public void testRecord() throws IOException {
+        ArrayList<String> expected = new ArrayList<>();
+        expected.add("07 HI");
+        expected.add("07 HI");
+        expected.add("23");
+        expected.add("07 HI");
+
+        interpreter.compile(fetchStreamForFile("record.baby"), programOutput);
+        ArrayList<Tuple<String, Integer>> actual = programOutput.getCopyOfList();
+
+        assertEquals(expected.size(), actual.size(), "Actual size differs from expected size!");
+
+        testEquivalence(expected, actual);
+    }
+
+    @Test
+    public void testNumberTruncation() throws IOException {
+        ArrayList<String> expected = new ArrayList<>();
+        expected.add("001");
+        expected.add("040");
+        expected.add("200AB");
+        expected.add("20");
+
+        interpreter.compile(fetchStreamForFile("numbers.baby"), programOutput);
+        ArrayList<Tuple<String, Integer>> actual = programOutput.getCopyOfList();
+
+        assertEquals(expected.size(), actual.size(), "Actual size differs from expected size!");
+
+        testEquivalence(expected, actual);
+    }
+
+    @Test
+    public void testNumberSign() throws IOException {
+        ArrayList<String> expected = new ArrayList<>();
+        expected.add("0-5");
+        expected.add("0-6");
+        expected.add("001");
+        expected.add("-4");
+        expected.add("23");
+        expected.add("05");
+        expected.add("4");
+
+        interpreter.compile(fetchStreamForFile("signs.baby"), programOutput);
+        ArrayList<Tuple<String, Integer>> actual = programOutput.getCopyOfList();
+
+        assertEquals(expected.size(), actual.size(), "Actual size differs from expected size!");
+
+        testEquivalence(expected, actual);
+    }
+
     @Test
     public void testAlterGoToPerform() throws  IOException {
         ArrayList<String> expected = new ArrayList<>();
@@ -451,4 +766,367 @@ public class UnitTester {
 
         testEquivalence(expected, actual);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMoveDigits() throws IOException {
+        ArrayList<String> expected = new ArrayList<>();
+        expected.add("0008");
+        expected.add("00890098");
+        expected.add("0090");
+        expected.add("000-89");
+
+        interpreter.compile(fetchStreamForFile("move-digits.baby"), programOutput);
+        ArrayList<Tuple<String, Integer>> actual = programOutput.getCopyOfList();
+
+        assertEquals(expected.size(), actual.size(), "Actual size differs from expected size!");
+
+        testEquivalence(expected, actual);
+    }
+
+    @Test
+    public void testSpecializedArithmetic() throws IOException {
+        ArrayList<String> expected = new ArrayList<>();
+        expected.add("32");
+        expected.add("BBBA");
+        expected.add("64");
+        expected.add("12 4");
+        expected.add("SIXTY-FOUR");
+        expected.add("TEXT");
+
+        interpreter.compile(fetchStreamForFile("specialize.baby"), programOutput);
+        ArrayList<Tuple<String, Integer>> actual = programOutput.getCopyOfList();
+
+        assertEquals(expected.size(), actual.size(), "Actual size differs from expected size!");
+
+        testEquivalence(expected, actual);
+    }
+
+    @Test
+    public void testProgramImageRunsConcurrently() throws Exception {
+        var image = interpreter.load(fetchStreamForFile("alter-goto-perform.baby"));
+        assertNotNull(image);
+
+        var sequential = new CaptureSink();
+        var execution = image.newExecution(programOutput, Tier.COMPILE, 1);
+        execution.setOutput(sequential, FlushPolicy.DEFAULT);
+        execution.run();
+
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> runs = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                runs.add(threads.submit(() -> {
+                    var capture = new CaptureSink();
+                    var run = image.newExecution(new ProgramOutput(), Tier.COMPILE, 1);
+                    run.setOutput(capture, FlushPolicy.DEFAULT);
+                    run.run();
+                    return capture.getText();
+                }));
+            }
+            // Every run starts from the declared data division and its own ALTER table
+            for (var run : runs) {
+                assertEquals(sequential.getText(), run.get());
+            }
+        } finally {
+            threads.shutdown();
+        }
+        assertEquals(6, programOutput.getCopyOfList().size());
+    }
+
+    @Test
+    public void testStopEndsOnlyTheExecution() throws IOException {
+        var engine = new Engine();
+        var image = engine.load(Path.of("./test/nl/utwente/interpreter/testfiles/stop.baby"));
+
+        for (int i = 0; i < 2; i++) {
+            var result = engine.run(image, null);
+            assertEquals(ExecutionResult.Status.STOPPED, result.getStatus());
+            assertEquals("BEFORE" + System.lineSeparator(), result.getOutput());
+        }
+    }
+
+    @Test
+    public void testOccurs() throws IOException {
+        ArrayList<String> expected = new ArrayList<>();
+        expected.add("000070");
+        expected.add("000000000070120000");
+        expected.add("000000000070121234");
+        expected.add("4");
+        expected.add("200000 000001");
+        expected.add("020000100000");
+
+        interpreter.compile(fetchStreamForFile("occurs.baby"), programOutput);
+        ArrayList<Tuple<String, Integer>> actual = programOutput.getCopyOfList();
+
+        assertEquals(expected.size(), actual.size(), "Actual size differs from expected size!");
+
+        testEquivalence(expected, actual);
+    }
+
+    @Test
+    public void testOccursOverflow() throws IOException {
+        String expectedError = "Record ROW is too large, it takes more than 2147483647 bytes";
+
+        try {
+            interpreter.compile(fetchStreamForFile("occurs-overflow.baby"), programOutput);
+            fail("We should not get to this part of the test, expected an error to occur!");
+        } catch (InterpreterException ie) {
+            assertEquals(0, programOutput.getCopyOfList().size(), "Nothing should have been displayed");
+            assertEquals(expectedError, ie.getMessage(), "We expected an error to occur");
+        }
+    }
+
+    @Test
+    public void testSearch() throws IOException {
+        ArrayList<String> expected = new ArrayList<>();
+        expected.add("3 3");
+        expected.add("NONE");
+        expected.add("6");
+        expected.add("4");
+        expected.add("MISSING");
+        expected.add("3");
+
+        interpreter.compile(fetchStreamForFile("search.baby"), programOutput);
+        ArrayList<Tuple<String, Integer>> actual = programOutput.getCopyOfList();
+
+        assertEquals(expected.size(), actual.size(), "Actual size differs from expected size!");
+
+        testEquivalence(expected, actual);
+    }
+
+    @Test
+    public void testSearchAllText() throws IOException {
+        String expectedError = "line: 10, message: SEARCH ALL cannot look for TEN in K, its key is a number";
+
+        try {
+            interpreter.compile(fetchStreamForFile("search-text.baby"), programOutput);
+            fail("We should not get to this part of the test, expected an error to occur!");
+        } catch (InterpreterException ie) {
+            assertEquals(expectedError, ie.getMessage(), "We expected an error to occur");
+        }
+    }
+
+    @Test
+    public void testBudget() throws IOException {
+        var engine = new Engine();
+        var image = engine.load(Path.of("./test/nl/utwente/interpreter/testfiles/budget.baby"));
+
+        // The loop never ends, every limit ends it
+        for (var tier : Tier.values()) {
+            engine.setTier(tier);
+            engine.setBudget(new Budget(100_000, null, 0));
+            var result = engine.run(image, null);
+            assertEquals(ExecutionResult.Status.BUDGET_EXCEEDED, result.getStatus(), tier.toString());
+            assertTrue(result.getError().getMessage().contains("100000 statements"), result.toString());
+
+            engine.setBudget(new Budget(0, Duration.ofMillis(100), 0));
+            result = engine.run(image, null);
+            assertEquals(ExecutionResult.Status.BUDGET_EXCEEDED, result.getStatus(), tier.toString());
+            assertTrue(result.getDuration().compareTo(Duration.ofSeconds(10)) < 0, result.toString());
+        }
+
+        // The data division takes 9 bytes, which fit in a budget of 9 bytes. The statements stop the loop.
+        engine.setBudget(new Budget(100_000, null, 9));
+        var result = engine.run(image, null);
+        assertEquals(ExecutionResult.Status.BUDGET_EXCEEDED, result.getStatus());
+        assertTrue(result.getError().getMessage().contains("100000 statements"), result.toString());
+
+        // The data division alone is larger than the budget, the program does not run
+        engine.setBudget(new Budget(100_000, null, 8));
+        result = engine.run(image, null);
+        assertEquals(ExecutionResult.Status.BUDGET_EXCEEDED, result.getStatus());
+        assertTrue(result.getError().getMessage().contains("working storage"), result.toString());
+
+        // A data division far over the budget is refused before anything of it is allocated
+        try {
+            engine.load(Path.of("./test/nl/utwente/interpreter/testfiles/budget-storage.baby"));
+            fail("We should not get to this part of the test, expected an error to occur!");
+        } catch (BudgetExceededException e) {
+            assertTrue(e.getMessage().contains("2000000000 bytes"), e.getMessage());
+        }
+    }
+
+    private static List<String> send(int port, String request) throws IOException {
+        try (var socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            var writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            writer.print(request);
+            writer.flush();
+            var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            List<String> response = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                response.add(line);
+            }
+            return response;
+        }
+    }
+
+    @Test
+    public void testServer() throws Exception {
+        var server = new Server(new Engine(), 0, 2, Duration.ofMillis(500));
+        var serving = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                fail(e);
+            }
+        });
+        serving.start();
+        try {
+            var response = send(server.getPort(), "SOURCE 4\n"
+                    + "IDENTIFICATION DIVISION. A. \"ServerTest\".\n"
+                    + "PROCEDURE DIVISION.\n"
+                    + "MAIN.\n"
+                    + "    ACCEPT WHO. DISPLAY \"HELLO\" WHO. STOP.\n"
+                    + "INPUT 1\nWORLD\nRUN\n");
+            assertEquals("OUT HELLO WORLD", response.get(0));
+            assertTrue(response.get(1).startsWith("END STOPPED "), response.get(1));
+
+            // A program that never ends is cancelled once its time is up
+            response = send(server.getPort(), "SOURCE 4\n"
+                    + "IDENTIFICATION DIVISION. A. \"ServerLoopTest\".\n"
+                    + "PROCEDURE DIVISION.\n"
+                    + "MAIN.\n"
+                    + "    GO TO MAIN.\n"
+                    + "RUN\n");
+            assertTrue(response.get(0).startsWith("END TIMED_OUT "), response.get(0));
+
+            response = send(server.getPort(), "PATH ./test/nl/utwente/interpreter/testfiles/missing.baby\nRUN\n");
+            assertTrue(response.get(0).startsWith("ERR "), response.get(0));
+
+            // Clients that send nothing hold on to the jobs, the next request waits before it is read
+            var first = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+            var second = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+            try {
+                var waiting = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return send(server.getPort(), "PATH ./test/nl/utwente/interpreter/testfiles/stop.baby\nRUN\n");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                Thread.sleep(300);
+                assertFalse(waiting.isDone(), "The request should wait for a job");
+                first.close();
+                response = waiting.get(10, TimeUnit.SECONDS);
+                assertTrue(response.get(response.size() - 1).startsWith("END STOPPED "), response.toString());
+            } finally {
+                first.close();
+                second.close();
+            }
+        } finally {
+            server.close();
+            serving.join();
+        }
+    }
+
+    @Test
+    public void testBatchRunner(@TempDir Path directory) throws IOException {
+        var manifest = directory.resolve("batch.txt");
+        var testfiles = Path.of("./test/nl/utwente/interpreter/testfiles").toAbsolutePath();
+        Files.writeString(manifest, "# programs\n"
+                + testfiles.resolve("display-sink.baby") + "\n"
+                + testfiles.resolve("stop.baby") + "\n"
+                + testfiles.resolve("stop.baby") + "\n"
+                + testfiles.resolve("missing.baby") + "\n");
+        var jobs = BatchJob.find(manifest.toString());
+        assertEquals(4, jobs.size());
+
+        var output = directory.resolve("out");
+        var outcomes = new BatchRunner(new Engine(), output, 2).run(jobs);
+
+        var separator = System.lineSeparator();
+        assertEquals(ExecutionResult.Status.COMPLETED, outcomes.get(0).getResult().getStatus());
+        assertEquals(ExecutionResult.Status.STOPPED, outcomes.get(1).getResult().getStatus());
+        assertEquals(ExecutionResult.Status.STOPPED, outcomes.get(2).getResult().getStatus());
+        assertEquals(ExecutionResult.Status.FAILED, outcomes.get(3).getResult().getStatus());
+        assertEquals("BEFORE" + separator,
+                Files.readString(output.resolve(outcomes.get(2).getJob().getName() + ".out")));
+        assertEquals("hello world 1 2" + separator + "DONE" + separator,
+                Files.readString(output.resolve(outcomes.get(0).getJob().getName() + ".out")));
+    }
+
+    @Test
+    public void testGeneratedPrograms() {
+        var generator = new ProgramGenerator();
+        generator.setParagraphs(12);
+        generator.setFields(16);
+        generator.setPerform(0.3);
+        generator.setAlter(0.5);
+        var engine = new Engine();
+        for (long seed = 1; seed <= 8; seed++) {
+            var program = generator.generate(seed);
+            assertEquals(program.getSource(), generator.generate(seed).getSource());
+
+            var result = engine.run(engine.load(CharStreams.fromString(program.getSource())), null);
+            assertEquals(ExecutionResult.Status.STOPPED, result.getStatus(), program.getName() + ": " + result);
+            assertEquals(program.getExpectedOutput(), result.getOutput(), program.getName());
+        }
+    }
+
+    @Test
+    public void testProfiler(@TempDir Path directory) throws IOException {
+        var image = interpreter.load(fetchStreamForFile("perform.baby"));
+        var profiler = new Profiler(image.getProgram());
+        var execution = image.newExecution(programOutput, Tier.ADAPTIVE, 1);
+        execution.setOutput(new CaptureSink(), FlushPolicy.DEFAULT);
+        execution.setProfiler(profiler);
+        execution.run();
+
+        assertEquals(3, profiler.getEntries("COUNT"));
+        assertEquals(3, profiler.getExecutions(18));
+        // COUNT leaves N at 3, DEEP adds 1 every time it is entered and recurses until N is 20000. The recursion is
+        // folded into one frame, which is entered every time.
+        long deep = 20000 - 3;
+        assertEquals(deep, profiler.getEntries("DEEP"));
+        assertEquals(deep, profiler.getExecutions(20));
+        assertEquals(1, profiler.getEntries("FINISH"));
+
+        var report = directory.resolve("profile.txt");
+        profiler.write(report);
+        assertTrue(Files.readString(report).contains("Paragraphs by total time"));
+        var stacks = Files.readAllLines(directory.resolve("profile.txt.collapsed"));
+        assertTrue(stacks.stream().anyMatch(line -> line.startsWith("MAIN;DEEP;line 20 ")), stacks.toString());
+        assertTrue(stacks.stream().anyMatch(line -> line.startsWith("MAIN;COUNT;line 18 ")), stacks.toString());
+    }
+
+    @Test
+    public void testMonitoring(@TempDir Path directory) throws IOException {
+        var metrics = InterpreterMetrics.get();
+        long statements = metrics.getStatementsExecuted();
+        long output = metrics.getOutputCharacters();
+        List<RecordedEvent> events;
+        try (var recording = new Recording()) {
+            recording.start();
+            interpreter.compile(fetchStreamForFile("alter.baby"), programOutput);
+            try {
+                interpreter.compile(fetchStreamForFile("signal.baby"), programOutput);
+                fail("The error in the signal paragraph should end the program");
+            } catch (InterpreterException expected) {
+                // The first error was recovered from
+            }
+            recording.stop();
+            var file = directory.resolve("recording.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        assertEquals(2, count(events, "ProgramLoad"));
+        assertEquals(1, count(events, "Alter"));
+        assertEquals(1, count(events, "SignalRecovery"));
+        assertTrue(count(events, "GoTo") >= 1);
+        assertTrue(count(events, "Display") >= 3);
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().endsWith(".Paragraph")
+                && event.getString("paragraph").equals("FALLBACK")));
+
+        assertTrue(metrics.getStatementsExecuted() >= statements + 8);
+        assertTrue(metrics.getOutputCharacters() > output);
+        assertTrue(metrics.getIdentifierLookups() > 0);
+        assertEquals(0, metrics.getActiveExecutions());
+    }
+
+    private static long count(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals("nl.utwente.interpreter." + name))
+                .count();
+    }
+}